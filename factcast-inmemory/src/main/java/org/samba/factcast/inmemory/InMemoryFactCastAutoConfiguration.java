@@ -0,0 +1,37 @@
+package org.samba.factcast.inmemory;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.factcast.core.store.FactStore;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingClass;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// factcast.inmemory.enabled=true: the application talks to InMemoryFactStore.shared() instead of a FactCast server.
+// Runs before the factcast auto configurations, so their FactStore beans (gRPC client, Postgres) back off
+// and FactCast, Factus and the FactCast snapshot cache are built on top of the in-memory store.
+@Configuration
+@ConditionalOnProperty(name = "factcast.inmemory.enabled", havingValue = "true")
+@AutoConfigureBefore(name = {
+        "org.factcast.spring.boot.autoconfigure.core.FactCastAutoConfiguration",
+        "org.factcast.spring.boot.autoconfigure.client.grpc.GrpcFactStoreAutoConfiguration",
+        "org.factcast.spring.boot.autoconfigure.store.pgsql.PgFactStoreAutoConfiguration"})
+public class InMemoryFactCastAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(FactStore.class)
+    public FactStore inMemoryFactStore() {
+        return InMemoryFactStore.shared();
+    }
+
+    // Factus wants a MeterRegistry, without actuator nobody else provides one
+    @Bean
+    @ConditionalOnMissingBean(MeterRegistry.class)
+    @ConditionalOnMissingClass("org.springframework.boot.actuate.autoconfigure.metrics.MetricsAutoConfiguration")
+    public MeterRegistry inMemoryFactCastMeterRegistry() {
+        return new SimpleMeterRegistry();
+    }
+}
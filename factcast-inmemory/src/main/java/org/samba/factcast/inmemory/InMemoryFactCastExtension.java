@@ -0,0 +1,49 @@
+package org.samba.factcast.inmemory;
+
+import org.factcast.core.FactCast;
+import org.factcast.factus.Factus;
+import org.junit.jupiter.api.extension.*;
+
+// Replaces the FactCast server for a test class:
+// - Spring tests get their FactStore from InMemoryFactCastAutoConfiguration (factcast.inmemory.enabled=true
+//   is set before the application context starts)
+// - plain tests get the store, FactCast or Factus as test method / constructor parameter
+// Every test starts with an empty store.
+public class InMemoryFactCastExtension implements BeforeAllCallback, AfterAllCallback, BeforeEachCallback, ParameterResolver {
+
+    static final String ENABLED = "factcast.inmemory.enabled";
+
+    @Override
+    public void beforeAll(ExtensionContext context) {
+        System.setProperty(ENABLED, "true");
+    }
+
+    @Override
+    public void afterAll(ExtensionContext context) {
+        System.clearProperty(ENABLED);
+    }
+
+    @Override
+    public void beforeEach(ExtensionContext context) {
+        InMemoryFactStore.shared().clear();
+    }
+
+    @Override
+    public boolean supportsParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        var type = parameterContext.getParameter().getType();
+        return type == InMemoryFactStore.class || type == FactCast.class || type == Factus.class;
+    }
+
+    @Override
+    public Object resolveParameter(ParameterContext parameterContext, ExtensionContext extensionContext) {
+        var store = InMemoryFactStore.shared();
+        var type = parameterContext.getParameter().getType();
+        if (type == FactCast.class) {
+            return FactCast.from(store);
+        }
+        if (type == Factus.class) {
+            return store.factus();
+        }
+        return store;
+    }
+}
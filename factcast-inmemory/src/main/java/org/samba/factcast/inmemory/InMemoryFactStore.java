@@ -0,0 +1,289 @@
+package org.samba.factcast.inmemory;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.SneakyThrows;
+import lombok.Value;
+import org.factcast.core.Fact;
+import org.factcast.core.FactCast;
+import org.factcast.core.event.EventConverter;
+import org.factcast.core.snap.FactCastSnapshotCache;
+import org.factcast.core.snap.Snapshot;
+import org.factcast.core.snap.SnapshotCache;
+import org.factcast.core.snap.SnapshotId;
+import org.factcast.core.spec.FactSpec;
+import org.factcast.core.spec.FactSpecMatcher;
+import org.factcast.core.store.FactStore;
+import org.factcast.core.store.StateToken;
+import org.factcast.core.subscription.Subscription;
+import org.factcast.core.subscription.SubscriptionImpl;
+import org.factcast.core.subscription.SubscriptionRequestTO;
+import org.factcast.core.subscription.observer.FactObserver;
+import org.factcast.factus.DefaultFactus;
+import org.factcast.factus.Factus;
+import org.factcast.factus.event.DefaultEventSerializer;
+import org.factcast.factus.metrics.FactusMetricsImpl;
+import org.factcast.factus.projector.DefaultProjectorFactory;
+import org.factcast.factus.serializer.DefaultSnapshotSerializer;
+import org.factcast.factus.snapshot.AggregateSnapshotRepositoryImpl;
+import org.factcast.factus.snapshot.ProjectionSnapshotRepositoryImpl;
+import org.factcast.factus.snapshot.SnapshotSerializerSupplier;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+// Local stand-in for a FactCast server: keeps all facts in a list and assigns serials like the real store does.
+// Good enough to run Factus projections, conditional publishing and snapshots in tests and benchmarks without
+// Docker. No transformations, no script filters beyond what FactSpecMatcher does on its own.
+public class InMemoryFactStore implements FactStore {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .registerModule(new JavaTimeModule());
+
+    // the instance InMemoryFactCastAutoConfiguration and InMemoryFactCastExtension hand out
+    private static final InMemoryFactStore SHARED = new InMemoryFactStore();
+
+    // serial n is at index n - 1
+    private final List<Fact> facts = new ArrayList<>();
+    private final Map<UUID, Long> serials = new HashMap<>();
+    private final Map<StateToken, State> tokens = new ConcurrentHashMap<>();
+    private final Map<SnapshotId, Snapshot> snapshots = new ConcurrentHashMap<>();
+    private final Set<Subscription> subscriptions = ConcurrentHashMap.newKeySet();
+
+    public static InMemoryFactStore shared() {
+        return SHARED;
+    }
+
+    public Factus factus() {
+        return factus(new FactCastSnapshotCache(this));
+    }
+
+    // snapshots go to the given cache instead of this store
+    public Factus factus(SnapshotCache cache) {
+        var serializer = new DefaultEventSerializer(OBJECT_MAPPER);
+        var metrics = new FactusMetricsImpl(new SimpleMeterRegistry());
+        var snapshotSerializer = new SnapshotSerializerSupplier(new DefaultSnapshotSerializer());
+        return new DefaultFactus(FactCast.from(this),
+                new DefaultProjectorFactory(serializer),
+                new EventConverter(serializer),
+                new AggregateSnapshotRepositoryImpl(cache, snapshotSerializer, metrics),
+                new ProjectionSnapshotRepositoryImpl(cache, snapshotSerializer, metrics),
+                snapshotSerializer,
+                metrics);
+    }
+
+    public synchronized int size() {
+        return facts.size();
+    }
+
+    // forget everything and close all open subscriptions, e.g. between two tests
+    public void clear() {
+        subscriptions.forEach(this::closeQuietly);
+        subscriptions.clear();
+        synchronized (this) {
+            facts.clear();
+            serials.clear();
+            notifyAll();
+        }
+        tokens.clear();
+        snapshots.clear();
+    }
+
+    @Override
+    public synchronized void publish(List<? extends Fact> toPublish) {
+        for (var fact : toPublish) {
+            if (serials.containsKey(fact.id())) {
+                throw new IllegalArgumentException("duplicate fact id " + fact.id());
+            }
+        }
+        for (var fact : toPublish) {
+            var serial = facts.size() + 1L;
+            facts.add(withSerial(fact, serial));
+            serials.put(fact.id(), serial);
+        }
+        notifyAll();
+    }
+
+    @Override
+    public Subscription subscribe(SubscriptionRequestTO request, FactObserver observer) {
+        var subscription = SubscriptionImpl.on(observer);
+        var matcher = FactSpecMatcher.matchesAnyOf(request.specs());
+        int start;
+        try {
+            // an ephemeral subscription only gets what is published from now on
+            start = request.ephemeral() ? size() : startAfter(request.startingAfter());
+        } catch (IllegalArgumentException e) {
+            subscription.notifyError(e);
+            return subscription;
+        }
+        var thread = new Thread(() -> {
+            try {
+                var next = deliver(start, matcher, subscription);
+                subscription.notifyCatchup();
+                if (!request.continuous()) {
+                    subscription.notifyComplete();
+                    return;
+                }
+                while (!Thread.currentThread().isInterrupted()) {
+                    awaitMoreThan(next);
+                    next = deliver(next, matcher, subscription);
+                }
+            } catch (InterruptedException e) {
+                // closed
+            } catch (RuntimeException e) {
+                subscription.notifyError(e);
+            } finally {
+                subscriptions.remove(subscription);
+            }
+        }, "in-memory-subscription");
+        thread.setDaemon(true);
+        subscription.onClose(thread::interrupt);
+        subscriptions.add(subscription);
+        thread.start();
+        return subscription;
+    }
+
+    // like the real store: an unknown fact id fails the subscription instead of replaying everything
+    private int startAfter(Optional<UUID> startingAfter) {
+        if (startingAfter.isEmpty()) {
+            return 0;
+        }
+        var id = startingAfter.get();
+        return (int) serialOf(id).orElseThrow(() -> new IllegalArgumentException("unknown fact id to start after " + id));
+    }
+
+    @SneakyThrows  // no transformations, so there is nothing to fail
+    private int deliver(int from, Predicate<Fact> matcher, SubscriptionImpl subscription) {
+        var batch = factsFrom(from);
+        for (var fact : batch) {
+            if (matcher.test(fact)) {
+                subscription.notifyElement(fact);
+            }
+        }
+        return from + batch.size();
+    }
+
+    private synchronized List<Fact> factsFrom(int from) {
+        if (from >= facts.size()) {
+            return List.of();
+        }
+        return new ArrayList<>(facts.subList(from, facts.size()));
+    }
+
+    private synchronized void awaitMoreThan(int count) throws InterruptedException {
+        while (facts.size() <= count) {
+            wait();
+        }
+    }
+
+    @Override
+    public synchronized OptionalLong serialOf(UUID factId) {
+        var serial = serials.get(factId);
+        return serial == null ? OptionalLong.empty() : OptionalLong.of(serial);
+    }
+
+    @Override
+    public synchronized Set<String> enumerateNamespaces() {
+        return facts.stream().map(Fact::ns).collect(Collectors.toSet());
+    }
+
+    @Override
+    public synchronized Set<String> enumerateTypes(String ns) {
+        return facts.stream().filter(f -> ns.equals(f.ns())).map(Fact::type).collect(Collectors.toSet());
+    }
+
+    // like the real store: fails only if a fact matching the specs of the token was published after stateFor()
+    @Override
+    public synchronized boolean publishIfUnchanged(List<? extends Fact> toPublish, Optional<StateToken> token) {
+        if (token.isPresent()) {
+            var state = tokens.remove(token.get());
+            if (state == null || changedSince(state)) {
+                return false;
+            }
+        }
+        publish(toPublish);
+        return true;
+    }
+
+    private boolean changedSince(State state) {
+        var matcher = FactSpecMatcher.matchesAnyOf(state.specs);
+        for (int i = state.size; i < facts.size(); i++) {
+            if (matcher.test(facts.get(i))) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public synchronized StateToken stateFor(List<FactSpec> specs) {
+        var token = new StateToken();
+        tokens.put(token, new State(List.copyOf(specs), facts.size()));
+        return token;
+    }
+
+    @Override
+    public void invalidate(StateToken token) {
+        tokens.remove(token);
+    }
+
+    @Override
+    public long currentTime() {
+        return System.currentTimeMillis();
+    }
+
+    @Override
+    public synchronized Optional<Fact> fetchById(UUID id) {
+        var serial = serials.get(id);
+        return serial == null ? Optional.empty() : Optional.of(facts.get((int) (serial - 1)));
+    }
+
+    @Override
+    public Optional<Fact> fetchByIdAndVersion(UUID id, int version) {
+        // no transformation support
+        return fetchById(id).filter(f -> version == 0 || f.version() == version);
+    }
+
+    @Override
+    public Optional<Snapshot> getSnapshot(SnapshotId id) {
+        return Optional.ofNullable(snapshots.get(id));
+    }
+
+    @Override
+    public void setSnapshot(Snapshot snapshot) {
+        snapshots.put(snapshot.id(), snapshot);
+    }
+
+    @Override
+    public void clearSnapshot(SnapshotId id) {
+        snapshots.remove(id);
+    }
+
+    private void closeQuietly(Subscription subscription) {
+        try {
+            subscription.close();
+        } catch (Exception e) {
+            // the subscription thread is gone anyway
+        }
+    }
+
+    @SneakyThrows
+    private static Fact withSerial(Fact fact, long serial) {
+        var header = (ObjectNode) OBJECT_MAPPER.readTree(fact.jsonHeader());
+        header.with("meta").put("_ser", serial).put("_ts", System.currentTimeMillis());
+        return Fact.of(header.toString(), fact.jsonPayload());
+    }
+
+    // what stateFor() has seen: the specs and the number of facts at that time
+    @Value
+    private static class State {
+        List<FactSpec> specs;
+        int size;
+    }
+}
@@ -0,0 +1,108 @@
+package org.samba.factcast.inmemory;
+
+import org.factcast.core.Fact;
+import org.factcast.core.spec.FactSpec;
+import org.factcast.core.subscription.SubscriptionRequest;
+import org.factcast.core.subscription.SubscriptionRequestTO;
+import org.factcast.core.subscription.observer.FactObserver;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InMemoryFactStoreTest {
+
+    InMemoryFactStore uut = new InMemoryFactStore();
+
+    @Test
+    void factsGetSerialsInPublishOrder() {
+        // arrange
+        var a = fact("a", "A");
+        var b = fact("b", "B");
+
+        // act
+        uut.publish(List.of(a, b));
+
+        // assert
+        assertEquals(1, uut.serialOf(a.id()).getAsLong());
+        assertEquals(2, uut.serialOf(b.id()).getAsLong());
+        assertEquals(2, uut.fetchById(b.id()).orElseThrow().serial());
+        assertTrue(uut.serialOf(UUID.randomUUID()).isEmpty());
+        assertThrows(IllegalArgumentException.class, () -> uut.publish(List.of(a)));
+    }
+
+    @Test
+    void subscriptionGetsMatchingFactsOnly() throws Exception {
+        // arrange
+        uut.publish(List.of(fact("a", "A"), fact("b", "B"), fact("a", "A")));
+        var received = new CopyOnWriteArrayList<Fact>();
+        var request = SubscriptionRequestTO.forFacts(SubscriptionRequest.follow(FactSpec.ns("a")).fromScratch());
+
+        // act
+        var subscription = uut.subscribe(request, (FactObserver) received::add);
+        subscription.awaitCatchup(TimeUnit.SECONDS.toMillis(10));
+        uut.publish(List.of(fact("b", "B"), fact("a", "A")));
+
+        // assert
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (received.size() < 3 && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+        subscription.close();
+        assertEquals(3, received.size());
+        assertEquals(List.of(1L, 3L, 5L), List.of(received.get(0).serial(), received.get(1).serial(), received.get(2).serial()));
+    }
+
+    @Test
+    void subscriptionStartingAfterAnUnknownFactFails() throws Exception {
+        // arrange
+        uut.publish(List.of(fact("a", "A")));
+        var received = new CopyOnWriteArrayList<Fact>();
+        var errors = new CopyOnWriteArrayList<Throwable>();
+        var request = SubscriptionRequestTO.forFacts(SubscriptionRequest.follow(FactSpec.ns("a")).from(UUID.randomUUID()));
+
+        // act
+        var subscription = uut.subscribe(request, new FactObserver() {
+            @Override
+            public void onNext(Fact fact) {
+                received.add(fact);
+            }
+
+            @Override
+            public void onError(Throwable exception) {
+                errors.add(exception);
+            }
+        });
+
+        // assert: no replay from scratch
+        assertThrows(Exception.class, () -> subscription.awaitCatchup(TimeUnit.SECONDS.toMillis(10)));
+        assertEquals(1, errors.size());
+        assertTrue(errors.get(0) instanceof IllegalArgumentException);
+        assertTrue(received.isEmpty());
+    }
+
+    @Test
+    void conditionalPublishFailsOnlyIfAMatchingFactWasPublishedInBetween() {
+        // arrange
+        var specs = List.of(FactSpec.ns("a"));
+        var token = uut.stateFor(specs);
+        uut.publish(List.of(fact("b", "B")));
+
+        // act + assert: "b" does not touch the state of "a"
+        assertTrue(uut.publishIfUnchanged(List.of(fact("a", "A")), Optional.of(token)));
+
+        var stale = uut.stateFor(specs);
+        uut.publish(List.of(fact("a", "A")));
+        assertFalse(uut.publishIfUnchanged(List.of(fact("a", "A")), Optional.of(stale)));
+        assertEquals(3, uut.size());
+    }
+
+    private static Fact fact(String ns, String type) {
+        return Fact.of("{\"id\":\"" + UUID.randomUUID() + "\",\"ns\":\"" + ns + "\",\"type\":\"" + type + "\"}", "{}");
+    }
+}
@@ -0,0 +1,21 @@
+package org.samba.addressbook;
+
+import lombok.Data;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.Aggregate;
+
+@Data
+public class AddressAggregate extends Aggregate {
+    private String name;
+    private String street;
+    private String town;
+    private int invocationCounter = 0;
+
+    @Handler
+    void apply(AddressAdded receivedEvent) {
+        this.name = receivedEvent.getName();
+        this.street = receivedEvent.getStreet();
+        this.town = receivedEvent.getTown();
+        this.invocationCounter++;
+    }
+}
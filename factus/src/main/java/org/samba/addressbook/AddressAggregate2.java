@@ -0,0 +1,28 @@
+package org.samba.addressbook;
+
+import lombok.Data;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.Aggregate;
+
+// like AddressAggregate, but also follows StreetChanged
+@Data
+public class AddressAggregate2 extends Aggregate {
+    private String name;
+    private String street;
+    private String town;
+    private int invocationCounter = 0;
+
+    @Handler
+    void apply(AddressAdded receivedEvent) {
+        this.name = receivedEvent.getName();
+        this.street = receivedEvent.getStreet();
+        this.town = receivedEvent.getTown();
+        this.invocationCounter++;
+    }
+
+    @Handler
+    void apply(StreetChanged receivedEvent) {
+        this.street = receivedEvent.getUpdatedStreet();
+        this.invocationCounter++;
+    }
+}
@@ -0,0 +1,22 @@
+package org.samba.addressbook;
+
+import lombok.Data;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.LocalManagedProjection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// This projection is only in memory. No fancy snapshotting business.
+// It is updated (=asking FactCast for new events) when factus.update() is executed.
+// it can be used as a @Component to be application wide available.
+@Data
+public class AddressBookLocalManagedProjection extends LocalManagedProjection {
+    private List<AddressAdded> addressBook = Collections.synchronizedList(new ArrayList<>());
+
+    @Handler
+    void apply(AddressAdded receivedAddressAddedEvent) {
+        addressBook.add(receivedAddressAddedEvent);
+    }
+}
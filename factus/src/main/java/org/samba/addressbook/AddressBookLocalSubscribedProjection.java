@@ -0,0 +1,25 @@
+package org.samba.addressbook;
+
+import lombok.Data;
+import org.factcast.core.Fact;
+import org.factcast.factus.Handler;
+import org.samba.position.PositionedLocalSubscribedProjection;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Updated asynchronously by its subscription, read by the test thread, which waits for the projection's
+// position (PositionedLocalSubscribedProjection) to see its own events.
+// Not a CopyOnWriteArrayList: that copies the whole list for every applied fact, a catch-up over n facts
+// would cost n² (see ProjectionCatchupBenchmark in the performance module).
+@Data
+public class AddressBookLocalSubscribedProjection extends PositionedLocalSubscribedProjection {
+    private List<AddressAdded> addressBook = Collections.synchronizedList(new ArrayList<>()); // ensure concurrent behaviour
+
+    @Handler
+    void apply(AddressAdded receivedAddressAddedEvent, Fact fact) {
+        addressBook.add(receivedAddressAddedEvent);
+        applied(fact);
+    }
+}
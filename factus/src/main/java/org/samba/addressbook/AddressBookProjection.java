@@ -0,0 +1,19 @@
+package org.samba.addressbook;
+
+import lombok.Data;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.SnapshotProjection;
+
+import java.util.ArrayList;
+import java.util.List;
+
+// this object is automatically snapshoted (serialized/ deserialized + stored e.g. in FactCast)
+@Data
+public class AddressBookProjection implements SnapshotProjection {
+    private List<AddressAdded> addressBook = new ArrayList<>();
+
+    @Handler
+    void apply(AddressAdded receivedAddressAddedEvent) {
+        addressBook.add(receivedAddressAddedEvent);
+    }
+}
@@ -0,0 +1,26 @@
+package org.samba.addressbook;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.factcast.factus.event.EventObject;
+import org.factcast.factus.event.Specification;
+
+import java.util.Set;
+import java.util.UUID;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)  // required by jackson for deserialization
+@Specification(ns = "test")
+public class StreetChanged implements EventObject {
+
+    private UUID addressId;   // this is the aggregate ID
+    private String updatedStreet;
+
+    @Override
+    public Set<UUID> aggregateIds() {
+        return Set.of(addressId);
+    }
+}
@@ -0,0 +1,58 @@
+package org.samba.position;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// The serial of the last fact a projection has applied, and a way to wait for it.
+//
+// The handler thread calls advanceTo() after it applied a fact. A caller which just published a fact waits with
+// awaitPosition(serial of its fact, timeout) and is woken by the handler thread as soon as the projection got
+// there, instead of sleeping for a fixed time or polling. Nobody waiting costs the handler thread one volatile
+// write and read per fact, no lock.
+//
+// Only facts the projection subscribes to move its position: wait for the serial of such a fact.
+public class PositionBarrier {
+
+    private volatile long position;
+    private final AtomicInteger waiting = new AtomicInteger();
+
+    public long position() {
+        return position;
+    }
+
+    // from the handler thread only, serials only ever grow
+    public void advanceTo(long serial) {
+        if (serial <= position) {
+            return;
+        }
+        position = serial;
+        // a waiter registers before it checks the position, so it either sees the new position or gets woken up
+        if (waiting.get() > 0) {
+            synchronized (this) {
+                notifyAll();
+            }
+        }
+    }
+
+    public void awaitPosition(long serial, Duration timeout) throws InterruptedException, TimeoutException {
+        if (position >= serial) {
+            return;
+        }
+        var deadline = System.nanoTime() + timeout.toNanos();
+        waiting.incrementAndGet();
+        try {
+            synchronized (this) {
+                while (position < serial) {
+                    var left = deadline - System.nanoTime();
+                    if (left <= 0) {
+                        throw new TimeoutException("Projection at serial " + position + " after " + timeout + ", waited for " + serial);
+                    }
+                    wait(left / 1_000_000, (int) (left % 1_000_000));
+                }
+            }
+        } finally {
+            waiting.decrementAndGet();
+        }
+    }
+}
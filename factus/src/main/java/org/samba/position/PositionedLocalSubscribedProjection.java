@@ -0,0 +1,33 @@
+package org.samba.position;
+
+import org.factcast.core.Fact;
+import org.factcast.factus.projection.LocalSubscribedProjection;
+
+import java.time.Duration;
+import java.util.concurrent.TimeoutException;
+
+// A LocalSubscribedProjection which knows how far it got, for read-your-writes:
+//
+//   long serial = factCast.serialOf(factus.publish(event, Fact::id)).getAsLong();
+//   projection.awaitPosition(serial, Duration.ofSeconds(5));
+//   // projection contains the event now
+//
+// Factus only hands the fact id to the projection (state(UUID)), so the handlers take the Fact as second
+// parameter and call applied(fact) as their last step.
+public abstract class PositionedLocalSubscribedProjection extends LocalSubscribedProjection {
+
+    private final PositionBarrier position = new PositionBarrier();
+
+    protected void applied(Fact fact) {
+        position.advanceTo(fact.serial());
+    }
+
+    // serial of the last applied fact, 0 before the first one
+    public long position() {
+        return position.position();
+    }
+
+    public void awaitPosition(long serial, Duration timeout) throws InterruptedException, TimeoutException {
+        position.awaitPosition(serial, timeout);
+    }
+}
@@ -0,0 +1,322 @@
+package org.samba.snapshot;
+
+import lombok.extern.slf4j.Slf4j;
+import org.factcast.core.snap.Snapshot;
+import org.factcast.core.snap.SnapshotCache;
+import org.factcast.core.snap.SnapshotId;
+import org.iq80.snappy.Snappy;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.channels.OverlappingFileLockException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// SnapshotCache keeping the serialized snapshots off-heap, in the files of a local directory (and so in the page
+// cache of the OS), instead of sending them to FactCast:
+//
+//   .lock                                     held while a cache uses the directory, one process per directory
+//   <name uuid of the snapshot id>.snapshot   one file per snapshot, written once, replaced by the next snapshot
+//
+// File: int magic | byte flags | uuid id | uuid lastFact | int key length | key | int length | int stored length | bytes
+//
+// The bytes are Snappy compressed unless that does not make them smaller. Only the index (id -> file) is on the
+// heap; a fetch reads the snapshot with positional reads into the byte[] Factus deserializes from. Nothing is memory
+// mapped, so a deleted file frees its space at once. The least recently used snapshots are deleted as soon as all
+// files together exceed the byte budget, the newest one always stays. Files survive a restart, they are indexed
+// again on startup.
+@Slf4j
+public class FileSnapshotCache implements SnapshotCache, AutoCloseable {
+
+    private static final int MAGIC = 0x534e4150;  // "SNAP"
+    private static final String SUFFIX = ".snapshot";
+    private static final int HEADER = Integer.BYTES + 1 + 4 * Long.BYTES + Integer.BYTES;
+    private static final byte SNAPPY = 1;
+    private static final byte SERIALIZER_COMPRESSED = 2;
+
+    private final Path directory;
+    private final long budget;
+    private final FileChannel lockFile;
+
+    // access order: the eldest entry is the least recently used one
+    private final LinkedHashMap<SnapshotId, Entry> index = new LinkedHashMap<>(16, 0.75f, true);
+    private long bytes;
+
+    public FileSnapshotCache(Path directory, long budget) throws IOException {
+        if (budget < 1) {
+            throw new IllegalArgumentException("Snapshot budget must be positive");
+        }
+        this.directory = directory;
+        this.budget = budget;
+        Files.createDirectories(directory);
+        this.lockFile = FileChannel.open(directory.resolve(".lock"), StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+        try {
+            // another cache would evict our files and recover() would delete its half written ones
+            if (tryLock(lockFile) == null) {
+                throw new IllegalStateException("Snapshot directory " + directory + " is used by another process");
+            }
+            recover();
+        } catch (IOException | RuntimeException e) {
+            lockFile.close();
+            throw e;
+        }
+    }
+
+    @Override
+    public Optional<Snapshot> getSnapshot(SnapshotId id) {
+        Entry entry;
+        FileChannel channel;
+        synchronized (this) {
+            entry = index.get(id);
+            if (entry == null) {
+                return Optional.empty();
+            }
+            entry.lastAccess = System.currentTimeMillis();
+            // opened in sync with the index, so it is this content even if the file is replaced or deleted meanwhile
+            try {
+                channel = FileChannel.open(entry.file, StandardOpenOption.READ);
+            } catch (IOException e) {
+                throw new UncheckedIOException("Reading snapshot " + id + " failed", e);
+            }
+        }
+        try (channel) {
+            return Optional.of(read(channel, id));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Reading snapshot " + id + " failed", e);
+        }
+    }
+
+    @Override
+    public void setSnapshot(Snapshot snapshot) {
+        var file = file(snapshot.id());
+        try {
+            var temp = Files.createTempFile(directory, "snapshot-", ".tmp");
+            try {
+                var size = write(temp, snapshot);
+                // file and index change together, a concurrent set of the same id must not leave them apart
+                synchronized (this) {
+                    Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+                    add(snapshot.id(), new Entry(file, size, System.currentTimeMillis()));
+                }
+            } finally {
+                Files.deleteIfExists(temp);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Storing snapshot " + snapshot.id() + " failed", e);
+        }
+    }
+
+    @Override
+    public synchronized void clearSnapshot(SnapshotId id) {
+        var entry = index.remove(id);
+        if (entry != null) {
+            delete(entry);
+        }
+    }
+
+    // drops the snapshots nobody fetched within the retention time
+    @Override
+    public synchronized void compact(int retentionTimeInDays) {
+        var threshold = System.currentTimeMillis() - TimeUnit.DAYS.toMillis(retentionTimeInDays);
+        var it = index.values().iterator();
+        while (it.hasNext()) {
+            var entry = it.next();
+            if (entry.lastAccess < threshold) {
+                it.remove();
+                delete(entry);
+            }
+        }
+    }
+
+    // bytes of all snapshot files
+    public synchronized long size() {
+        return bytes;
+    }
+
+    public synchronized int count() {
+        return index.size();
+    }
+
+    // releases the directory for the next process, the files stay
+    @Override
+    public synchronized void close() throws IOException {
+        lockFile.close();
+    }
+
+    private void add(SnapshotId id, Entry entry) {
+        var replaced = index.put(id, entry);
+        if (replaced != null) {
+            bytes -= replaced.size;  // same file, nothing to delete
+        }
+        bytes += entry.size;
+        evict();
+    }
+
+    private void evict() {
+        var it = index.values().iterator();
+        while (bytes > budget && index.size() > 1) {
+            var eldest = it.next();
+            it.remove();
+            delete(eldest);
+        }
+    }
+
+    private void delete(Entry entry) {
+        bytes -= entry.size;
+        try {
+            Files.deleteIfExists(entry.file);
+        } catch (IOException e) {
+            log.warn("Deleting snapshot file {} failed", entry.file, e);
+        }
+    }
+
+    private void recover() throws IOException {
+        try (var files = Files.list(directory)) {
+            var found = files.collect(Collectors.toList());
+            for (var file : found) {
+                if (file.getFileName().toString().endsWith(".tmp")) {
+                    Files.delete(file);  // the write did not finish
+                }
+            }
+            // oldest first, so the most recently written snapshots are the last to be evicted
+            var snapshots = found.stream()
+                    .filter(file -> file.getFileName().toString().endsWith(SUFFIX))
+                    .sorted(Comparator.comparingLong(FileSnapshotCache::lastModified))
+                    .collect(Collectors.toList());
+            for (var file : snapshots) {
+                try (var channel = FileChannel.open(file, StandardOpenOption.READ)) {
+                    var entry = new Entry(file, channel.size(), lastModified(file));
+                    index.put(readId(channel), entry);
+                    bytes += entry.size;
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Dropping unreadable snapshot file {}", file, e);
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        evict();
+        if (!index.isEmpty()) {
+            log.info("Snapshot cache {} holds {} snapshots, {} bytes", directory, index.size(), bytes);
+        }
+    }
+
+    private Path file(SnapshotId id) {
+        var name = id.key() + "/" + id.uuid();
+        return directory.resolve(UUID.nameUUIDFromBytes(name.getBytes(StandardCharsets.UTF_8)) + SUFFIX);
+    }
+
+    // the size of the file
+    private static long write(Path file, Snapshot snapshot) throws IOException {
+        var raw = snapshot.bytes();
+        var compressed = Snappy.compress(raw);
+        var snappy = compressed.length < raw.length;
+        var stored = snappy ? compressed : raw;
+        var key = snapshot.id().key().getBytes(StandardCharsets.UTF_8);
+
+        var flags = (byte) ((snappy ? SNAPPY : 0) | (snapshot.compressed() ? SERIALIZER_COMPRESSED : 0));
+        var buffer = ByteBuffer.allocate(HEADER + key.length + 2 * Integer.BYTES + stored.length);
+        buffer.putInt(MAGIC).put(flags);
+        putUuid(buffer, snapshot.id().uuid());
+        putUuid(buffer, snapshot.lastFact());
+        buffer.putInt(key.length).put(key);
+        buffer.putInt(raw.length).putInt(stored.length).put(stored);
+        buffer.flip();
+        try (var channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            while (buffer.hasRemaining()) {
+                channel.write(buffer);
+            }
+        }
+        return buffer.limit();
+    }
+
+    // null if another process, or another cache of this one, holds it
+    private static FileLock tryLock(FileChannel channel) throws IOException {
+        try {
+            return channel.tryLock();
+        } catch (OverlappingFileLockException e) {
+            return null;
+        }
+    }
+
+    private static ByteBuffer header(FileChannel channel) throws IOException {
+        var header = readFully(channel, 0, HEADER);
+        if (header.getInt(0) != MAGIC) {
+            throw new IllegalArgumentException("Not a snapshot file");
+        }
+        return header;
+    }
+
+    private static SnapshotId readId(FileChannel channel) throws IOException {
+        var header = header(channel);
+        var uuid = getUuid(header.position(Integer.BYTES + 1));
+        var key = readFully(channel, HEADER, header.getInt(HEADER - Integer.BYTES));
+        return new SnapshotId(StandardCharsets.UTF_8.decode(key).toString(), uuid);
+    }
+
+    // a copy of the snapshot on the heap, decompressed
+    private static Snapshot read(FileChannel channel, SnapshotId id) throws IOException {
+        var header = header(channel);
+        var flags = header.get(Integer.BYTES);
+        var lastFact = getUuid(header.position(Integer.BYTES + 1 + 2 * Long.BYTES));
+        var position = HEADER + header.getInt(HEADER - Integer.BYTES);  // key, known from the index
+        var lengths = readFully(channel, position, 2 * Integer.BYTES);
+        var length = lengths.getInt();
+        var stored = readFully(channel, position + 2 * Integer.BYTES, lengths.getInt()).array();
+        var raw = (flags & SNAPPY) != 0 ? Snappy.uncompress(stored, 0, stored.length) : stored;
+        if (raw.length != length) {
+            throw new IllegalStateException("Snapshot " + id + " is corrupt");
+        }
+        return new Snapshot(id, lastFact, raw, (flags & SERIALIZER_COMPRESSED) != 0);
+    }
+
+    private static ByteBuffer readFully(FileChannel channel, long position, int length) throws IOException {
+        if (position + length > channel.size()) {
+            throw new IllegalArgumentException("Snapshot file too short");
+        }
+        var buffer = ByteBuffer.allocate(length);
+        while (buffer.hasRemaining()) {
+            channel.read(buffer, position + buffer.position());
+        }
+        return buffer.flip();
+    }
+
+    private static void putUuid(ByteBuffer buffer, UUID uuid) {
+        buffer.putLong(uuid.getMostSignificantBits()).putLong(uuid.getLeastSignificantBits());
+    }
+
+    private static UUID getUuid(ByteBuffer buffer) {
+        return new UUID(buffer.getLong(), buffer.getLong());
+    }
+
+    private static long lastModified(Path file) {
+        try {
+            return Files.getLastModifiedTime(file).toMillis();
+        } catch (IOException e) {
+            return 0;
+        }
+    }
+
+    private static class Entry {
+        private final Path file;
+        private final long size;
+        private long lastAccess;
+
+        private Entry(Path file, long size, long lastAccess) {
+            this.file = file;
+            this.size = size;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
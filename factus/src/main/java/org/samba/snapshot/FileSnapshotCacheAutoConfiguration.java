@@ -0,0 +1,32 @@
+package org.samba.snapshot;
+
+import org.factcast.core.snap.SnapshotCache;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+// factus.snapshot.file.enabled=true: Factus keeps its snapshots in a FileSnapshotCache instead of FactCast.
+// Any SnapshotCache bean replaces the default one (FactCastSnapshotCacheAutoConfiguration backs off), this one
+// just has to come first. The default directory is per application, a second instance on the same host needs
+// its own factus.snapshot.file.directory (the cache refuses a directory in use).
+@Configuration
+@ConditionalOnProperty(name = "factus.snapshot.file.enabled", havingValue = "true")
+@AutoConfigureBefore(name = {
+        "org.factcast.spring.boot.autoconfigure.core.FactCastSnapshotCacheAutoConfiguration",
+        "org.factcast.spring.boot.autoconfigure.core.RedissonSnapshotCacheAutoConfiguration"})
+public class FileSnapshotCacheAutoConfiguration {
+
+    @Bean
+    @ConditionalOnMissingBean(SnapshotCache.class)
+    public SnapshotCache fileSnapshotCache(
+            @Value("${factus.snapshot.file.directory:${java.io.tmpdir}/factus-snapshots/${spring.application.name:application}}") Path directory,
+            @Value("${factus.snapshot.file.budget-bytes:268435456}") long budget) throws IOException {
+        return new FileSnapshotCache(directory, budget);
+    }
+}
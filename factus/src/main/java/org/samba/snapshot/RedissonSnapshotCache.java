@@ -0,0 +1,195 @@
+package org.samba.snapshot;
+
+import org.factcast.core.snap.Snapshot;
+import org.factcast.core.snap.SnapshotCache;
+import org.factcast.core.snap.SnapshotId;
+import org.redisson.api.RBucket;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.BaseStatusListener;
+import org.redisson.client.codec.Codec;
+import org.redisson.client.codec.StringCodec;
+import org.redisson.codec.SerializationCodec;
+
+import java.time.Duration;
+import java.util.LinkedHashMap;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+
+// SnapshotCache keeping the Factus snapshots in Redis instead of FactCast:
+//
+//   factus:snapshot:v1:<snapshot key>:<uuid>   one bucket per snapshot, expires <ttl> after the last write or fetch
+//   factus:snapshot:v1:invalidations           topic, the key of every written or cleared snapshot (near caching)
+//
+// The snapshot key of Factus already holds the projection class, its serializer and its serial (@ProjectionMetaData),
+// a new serial never reads an old snapshot. v1 is the layout of this cache, to be bumped if Snapshot changes.
+//
+// With near caching every node also keeps the snapshots it fetched in memory, so a fetch on a warm node does not
+// wait for Redis. A write or clear publishes the key, every node drops its copy; after a reconnect (messages may
+// be lost) a node drops all of them. A fetch from memory still renews the ttl of the bucket, so the snapshots
+// expire the same way in both modes.
+//
+// FactCast 0.3.6 names its own factcast-snapshotcache-redisson (RedissonSnapshotCacheAutoConfiguration), but the
+// artifact is not on Maven Central, and its cache takes nothing but the RedissonClient: no ttl, no near cache.
+public class RedissonSnapshotCache implements SnapshotCache {
+
+    static final String PREFIX = "factus:snapshot:v1:";
+
+    // Snapshot and SnapshotId are Serializable, the payload is the byte[] of the snapshot serializer anyway
+    private static final Codec CODEC = new SerializationCodec();
+
+    private final RedissonClient redisson;
+    private final long ttl;
+
+    // null without near caching
+    private final NearCache nearCache;
+    private final RTopic invalidations;
+
+    public RedissonSnapshotCache(RedissonClient redisson, Duration ttl) {
+        this(redisson, ttl, 0);
+    }
+
+    // nearCacheSize: snapshots each node keeps in memory, 0 turns near caching off
+    public RedissonSnapshotCache(RedissonClient redisson, Duration ttl, int nearCacheSize) {
+        if (ttl.isNegative() || ttl.isZero()) {
+            throw new IllegalArgumentException("Snapshot ttl must be positive");
+        }
+        this.redisson = redisson;
+        this.ttl = ttl.toMillis();
+        if (nearCacheSize > 0) {
+            nearCache = new NearCache(nearCacheSize, this.ttl);
+            invalidations = redisson.getTopic(PREFIX + "invalidations", StringCodec.INSTANCE);
+            invalidations.addListener(String.class, (channel, key) -> nearCache.invalidate(key));
+            invalidations.addListener(new BaseStatusListener() {
+                @Override
+                public void onSubscribe(String channel) {
+                    nearCache.clear();  // missed invalidations while disconnected: start over
+                }
+            });
+        } else {
+            nearCache = null;
+            invalidations = null;
+        }
+    }
+
+    @Override
+    public Optional<Snapshot> getSnapshot(SnapshotId id) {
+        var key = key(id);
+        RBucket<Snapshot> bucket = bucket(id);
+        var version = 0L;
+        if (nearCache != null) {
+            var snapshot = nearCache.get(key);
+            if (snapshot != null) {
+                bucket.expireAsync(ttl, TimeUnit.MILLISECONDS);
+                return Optional.of(snapshot);
+            }
+            version = nearCache.version();
+        }
+        var snapshot = bucket.get();
+        if (snapshot != null) {
+            bucket.expireAsync(ttl, TimeUnit.MILLISECONDS);  // still in use, nobody waits for it
+            if (nearCache != null) {
+                nearCache.put(key, snapshot, version);
+            }
+        }
+        return Optional.ofNullable(snapshot);
+    }
+
+    @Override
+    public void setSnapshot(Snapshot snapshot) {
+        bucket(snapshot.id()).set(snapshot, ttl, TimeUnit.MILLISECONDS);
+        invalidate(snapshot.id());
+    }
+
+    @Override
+    public void clearSnapshot(SnapshotId id) {
+        bucket(id).delete();
+        invalidate(id);
+    }
+
+    // nothing to do, Redis drops the snapshots on its own after the ttl
+    @Override
+    public void compact(int retentionTimeInDays) {
+    }
+
+    // after the bucket changed, so no node can fetch the old snapshot again
+    private void invalidate(SnapshotId id) {
+        if (nearCache != null) {
+            nearCache.invalidate(key(id));
+            invalidations.publish(key(id));
+        }
+    }
+
+    private RBucket<Snapshot> bucket(SnapshotId id) {
+        return redisson.getBucket(key(id), CODEC);
+    }
+
+    static String key(SnapshotId id) {
+        return PREFIX + id.key() + ":" + id.uuid();
+    }
+
+    // The snapshots this node fetched, least recently used first. version counts the invalidations: a snapshot
+    // read from Redis before an invalidation arrived is not kept, it may be the old one.
+    private static class NearCache {
+
+        private final int size;
+        private final long ttl;
+        private final LinkedHashMap<String, Copy> copies = new LinkedHashMap<>(16, 0.75f, true);
+        private long version;
+
+        private NearCache(int size, long ttl) {
+            this.size = size;
+            this.ttl = ttl;
+        }
+
+        private synchronized Snapshot get(String key) {
+            var copy = copies.get(key);
+            if (copy == null) {
+                return null;
+            }
+            var now = System.currentTimeMillis();
+            if (now - copy.lastAccess > ttl) {
+                copies.remove(key);  // the bucket may have expired meanwhile
+                return null;
+            }
+            copy.lastAccess = now;
+            return copy.snapshot;
+        }
+
+        private synchronized long version() {
+            return version;
+        }
+
+        private synchronized void put(String key, Snapshot snapshot, long readAt) {
+            if (version != readAt) {
+                return;
+            }
+            copies.put(key, new Copy(snapshot, System.currentTimeMillis()));
+            if (copies.size() > size) {
+                var eldest = copies.keySet().iterator();
+                eldest.next();
+                eldest.remove();
+            }
+        }
+
+        private synchronized void invalidate(String key) {
+            version++;
+            copies.remove(key);
+        }
+
+        private synchronized void clear() {
+            version++;
+            copies.clear();
+        }
+    }
+
+    private static class Copy {
+        private final Snapshot snapshot;
+        private long lastAccess;
+
+        private Copy(Snapshot snapshot, long lastAccess) {
+            this.snapshot = snapshot;
+            this.lastAccess = lastAccess;
+        }
+    }
+}
@@ -0,0 +1,42 @@
+package org.samba.snapshot;
+
+import org.factcast.core.snap.SnapshotCache;
+import org.redisson.Redisson;
+import org.redisson.api.RedissonClient;
+import org.redisson.config.Config;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.AutoConfigureBefore;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+
+// factus.snapshot.redis.enabled=true: Factus keeps its snapshots in Redis (RedissonSnapshotCache) instead of FactCast.
+// Uses the RedissonClient of the application if there is one, otherwise connects to factus.snapshot.redis.address.
+@Configuration
+@ConditionalOnProperty(name = "factus.snapshot.redis.enabled", havingValue = "true")
+@AutoConfigureBefore(name = {
+        "org.factcast.spring.boot.autoconfigure.core.FactCastSnapshotCacheAutoConfiguration",
+        "org.factcast.spring.boot.autoconfigure.core.RedissonSnapshotCacheAutoConfiguration"})
+public class RedissonSnapshotCacheAutoConfiguration {
+
+    @Bean(destroyMethod = "shutdown")
+    @ConditionalOnMissingBean(RedissonClient.class)
+    public RedissonClient snapshotRedissonClient(
+            @Value("${factus.snapshot.redis.address:redis://localhost:6379}") String address) {
+        var config = new Config();
+        config.useSingleServer().setAddress(address);
+        return Redisson.create(config);
+    }
+
+    @Bean
+    @ConditionalOnMissingBean(SnapshotCache.class)
+    public SnapshotCache redissonSnapshotCache(
+            RedissonClient redisson,
+            @Value("${factus.snapshot.redis.ttl:30d}") Duration ttl,
+            @Value("${factus.snapshot.redis.near-cache-size:0}") int nearCacheSize) {
+        return new RedissonSnapshotCache(redisson, ttl, nearCacheSize);
+    }
+}
@@ -2,18 +2,16 @@ package org.samba;
 
 
 import lombok.*;
+import org.factcast.core.Fact;
+import org.factcast.core.FactCast;
 import org.factcast.core.spec.FactSpec;
 import org.factcast.core.subscription.Subscription;
 import org.factcast.factus.Factus;
 import org.factcast.factus.Handler;
-import org.factcast.factus.event.EventObject;
-import org.factcast.factus.event.Specification;
 import org.factcast.factus.lock.LockedOperationAbortedException;
-import org.factcast.factus.projection.Aggregate;
 import org.factcast.factus.projection.LocalManagedProjection;
-import org.factcast.factus.projection.LocalSubscribedProjection;
-import org.factcast.factus.projection.SnapshotProjection;
 import org.junit.jupiter.api.Test;
+import org.samba.addressbook.*;
 import org.samba.helper.AbstractFactCastIntegrationTest;
 import org.samba.helper.Application;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -22,13 +20,15 @@ import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.annotation.DirtiesContext;
 import org.springframework.test.context.ContextConfiguration;
 
+import java.time.Duration;
 import java.util.*;
-import java.util.concurrent.CopyOnWriteArrayList;
 
 import static java.util.UUID.*;
 import static org.junit.jupiter.api.Assertions.*;
 
-// TODO use factcast-test package. Why is a DB needed, I thought we are on gprc!? DB for storing snapshots?
+// Factus talks to an in-memory FactCast (see factcast-inmemory), every test starts with an empty store.
+// Snapshots go to the fact store as well (FactCastSnapshotCache), so neither Postgres nor Redis is needed.
+// mvn -P factcast-containers runs the same tests against a real FactCast (see AbstractFactCastIntegrationTest).
 
 @SpringBootTest
 @ContextConfiguration(classes = {Application.class})
@@ -39,44 +39,20 @@ public class FactusLearningTest extends AbstractFactCastIntegrationTest {
     @Autowired
     Factus factus;
 
-    /////////////////////// Define Test Events //////////////////////
-    @Data
-    @AllArgsConstructor
-    @NoArgsConstructor(access = AccessLevel.PROTECTED)  // required by jackson for deserialization
-    @Specification(ns = "test")
-    static class AddressAdded implements EventObject {
-
-        private UUID addressId;  // this is the aggregate ID
-        private String name;
-        private String street;
-        private String town;
-
-        @Override
-        public Set<UUID> aggregateIds() {
-            return Set.of(addressId);
-        }
-    }
-
-    @Data
-    @AllArgsConstructor
-    @NoArgsConstructor(access = AccessLevel.PROTECTED)  // required by jackson for deserialization
-    @Specification(ns = "test")
-    static class StreetChanged implements EventObject {
-
-        private UUID addressId;   // this is the aggregate ID
-        private String updatedStreet;
+    @Autowired
+    FactCast factCast;
 
-        @Override
-        public Set<UUID> aggregateIds() {
-            return Set.of(addressId);
-        }
-    }
+    // the test events (AddressAdded, StreetChanged) and projections live in org.samba.addressbook,
+    // the benchmarks of the performance module feed them as well
 
     /////////////////////// Snapshot Projection //////////////////////
 
-    // TODO snapshots are stored by default in FactCast.
-    // How to configure an alternative SnapshotCache like Redis? Properties?
-    // Clarify:
+    // snapshots are stored by default in FactCast.
+    // An alternative SnapshotCache is just a bean: the FactCast one is @ConditionalOnMissingBean.
+    // factus.snapshot.file.enabled=true keeps them in local files (FileSnapshotCache),
+    // Redis comes with factcast-snapshotcache-redisson (not on Maven Central for 0.3.6, no ttl, no near cache),
+    // factus.snapshot.redis.enabled=true in Redis, optionally near cached on each node (RedissonSnapshotCache).
+    // TODO Clarify:
     //  - a "fetch" always causes a FactCast communication for
     //           - getting the most recent snapshot ?
     //           - collecting new events
@@ -133,17 +109,6 @@ public class FactusLearningTest extends AbstractFactCastIntegrationTest {
         });
     }
 
-    // this object is automatically snapshoted (serialized/ deserialized + stored e.g. in FactCast)
-    @Data
-    static class AddressBookProjection implements SnapshotProjection {
-        private List<AddressAdded> addressBook = new ArrayList<>();
-
-        @Handler
-        void apply(AddressAdded receivedAddressAddedEvent) {
-            addressBook.add(receivedAddressAddedEvent);
-        }
-    }
-
 
     /////////////////////// Aggregate Projection //////////////////////
 
@@ -176,22 +141,6 @@ public class FactusLearningTest extends AbstractFactCastIntegrationTest {
     }
 
 
-    @Data
-    static class AddressAggregate extends Aggregate {
-        private String name;
-        private String street;
-        private String town;
-        private int invocationCounter = 0;
-
-        @Handler
-        void apply(AddressAdded receivedEvent) {
-            this.name = receivedEvent.getName();
-            this.street = receivedEvent.getStreet();
-            this.town = receivedEvent.getTown();
-            this.invocationCounter++;
-        }
-    }
-
     @Test
     public void findAggregateWithMultipleEvents() {
         var louReedAggregateId = randomUUID();
@@ -226,28 +175,6 @@ public class FactusLearningTest extends AbstractFactCastIntegrationTest {
     }
 
 
-    @Data
-    static class AddressAggregate2 extends Aggregate {
-        private String name;
-        private String street;
-        private String town;
-        private int invocationCounter = 0;
-
-        @Handler
-        void apply(AddressAdded receivedEvent) {
-            this.name = receivedEvent.getName();
-            this.street = receivedEvent.getStreet();
-            this.town = receivedEvent.getTown();
-            this.invocationCounter++;
-        }
-
-        @Handler
-        void apply(StreetChanged receivedEvent) {
-            this.street = receivedEvent.getUpdatedStreet();
-            this.invocationCounter++;
-        }
-    }
-
     /////////////////////// Locally Managed Projection //////////////////////
 
     @Test
@@ -285,19 +212,6 @@ public class FactusLearningTest extends AbstractFactCastIntegrationTest {
         assertEquals(2, addressBook.getAddressBook().size());
     }
 
-    // This projection is only in memory. No fancy snapshotting business.
-    // It is updated (=asking FactCast for new events) when factus.update() is executed.
-    // it can be used as a @Component to be application wide available.
-    @Data
-    static class AddressBookLocalManagedProjection extends LocalManagedProjection {
-        private List<AddressAdded> addressBook = Collections.synchronizedList(new ArrayList<>());
-
-        @Handler
-        void apply(AddressAdded receivedAddressAddedEvent) {
-            addressBook.add(receivedAddressAddedEvent);
-        }
-    }
-
 
     @Test
     public void filteringOfAggregateIdsViaPostProcess() {
@@ -364,7 +278,7 @@ public class FactusLearningTest extends AbstractFactCastIntegrationTest {
     /////////////////////// Locally Subscribed Projection //////////////////////
 
     @Test
-    public void automaticUpdatedWithLocalSubscribedProjection() throws InterruptedException {
+    public void automaticUpdatedWithLocalSubscribedProjection() throws Exception {
         var autoUpdateAddressBook = new AddressBookLocalSubscribedProjection();
         factus.publish(
                 new AddressAdded(
@@ -379,25 +293,18 @@ public class FactusLearningTest extends AbstractFactCastIntegrationTest {
 
         assertEquals(1, autoUpdateAddressBook.getAddressBook().size());
 
-        factus.publish(
+        UUID factId = factus.publish(
                 new AddressAdded(
                         randomUUID(),
                         "Iggy Pop",
                         "Skinny Road 21",
-                        "LA"));
-        // wait for aync projection update
-        Thread.sleep(1000);
+                        "LA"),
+                Fact::id);
+        // wait for aync projection update: until the projection applied our fact, woken up by its handler
+        long serial = factCast.serialOf(factId).orElseThrow();
+        autoUpdateAddressBook.awaitPosition(serial, Duration.ofSeconds(5));
 
         assertEquals(2, autoUpdateAddressBook.getAddressBook().size());
-    }
-
-    @Data
-    static class AddressBookLocalSubscribedProjection extends LocalSubscribedProjection {
-        private List<AddressAdded> addressBook = new CopyOnWriteArrayList<>(); // ensure concurrent behaviour
-
-        @Handler
-        void apply(AddressAdded receivedAddressAddedEvent) {
-            addressBook.add(receivedAddressAddedEvent);
-        }
+        assertEquals(serial, autoUpdateAddressBook.position());
     }
 }
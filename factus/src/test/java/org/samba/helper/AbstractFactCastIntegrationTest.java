@@ -19,24 +19,26 @@ import java.time.Duration;
 import lombok.extern.slf4j.Slf4j;
 import org.junit.jupiter.api.*;
 import org.junit.jupiter.api.extension.*;
-import org.postgresql.Driver;
+import org.testcontainers.DockerClientFactory;
 import org.testcontainers.containers.GenericContainer;
 import org.testcontainers.containers.Network;
 
 import org.testcontainers.containers.PostgreSQLContainer;
 import org.testcontainers.containers.output.Slf4jLogConsumer;
 import org.testcontainers.containers.wait.strategy.HostPortWaitStrategy;
-import org.testcontainers.junit.jupiter.Container;
-import org.testcontainers.junit.jupiter.Testcontainers;
 
-@Testcontainers(disabledWithoutDocker = true)
+// By default the tests run against the in-memory FactCast of factcast-inmemory, no Docker needed.
+// With -Dfactcast.containers=true (mvn -P factcast-containers) they run against a FactCast server and its
+// Postgres in Docker instead, the client talks gRPC to it like an application does.
 @ExtendWith({FactCastExtension.class})
 @Slf4j
 public class AbstractFactCastIntegrationTest {
 
+    public static final boolean CONTAINERS = Boolean.getBoolean("factcast.containers");
+
     protected static final Network _docker_network = Network.newNetwork();
 
-    @Container
+    // started by startContainers, once per JVM. The Postgres is the FactCast server's, FactCastExtension wipes it
     protected static final PostgreSQLContainer _postgres =
             new PostgreSQLContainer<>("postgres:11.5")
                     .withDatabaseName("fc")
@@ -45,11 +47,9 @@ public class AbstractFactCastIntegrationTest {
                     .withNetworkAliases("db")
                     .withNetwork(_docker_network);
 
-    @Container
     protected static final GenericContainer _factcast =
             new GenericContainer<>("factcast/factcast:latest")
                     .withExposedPorts(9090)
-                    .withFileSystemBind("./config", "/config/")
                     .withEnv("grpc_server_port", "9090")
                     .withEnv("factcast_security_enabled", "false")
                     .withEnv("spring_datasource_url", "jdbc:postgresql://db/fc?user=fc&password=fc")
@@ -58,24 +58,15 @@ public class AbstractFactCastIntegrationTest {
                     .withLogConsumer(new Slf4jLogConsumer(log))
                     .waitingFor(new HostPortWaitStrategy().withStartupTimeout(Duration.ofSeconds(180)));
 
-    @SuppressWarnings("rawtypes")
-    @Container
-    static final GenericContainer _redis =
-            new GenericContainer<>("redis:5.0.9-alpine").withExposedPorts(6379);
-
     @BeforeAll
     public static void startContainers()  {
-        String url = _postgres.getJdbcUrl();
-        System.setProperty("spring.datasource.driver-class-name", Driver.class.getName());
-        System.setProperty("spring.datasource.type", "org.apache.tomcat.jdbc.pool.DataSource");
-        System.setProperty("spring.datasource.url", url);
-        System.setProperty("spring.datasource.username", _postgres.getUsername());
-        System.setProperty("spring.datasource.password", _postgres.getPassword());
+        if (!CONTAINERS) {
+            return;
+        }
+        Assumptions.assumeTrue(DockerClientFactory.instance().isDockerAvailable(), "Docker is not available");
+        _factcast.start();
 
         String address = "static://" + _factcast.getHost() + ":" + _factcast.getMappedPort(9090);
         System.setProperty("grpc.client.factstore.address", address);
-
-        System.setProperty("spring.redis.host", _redis.getHost());
-        System.setProperty("spring.redis.port", String.valueOf(_redis.getMappedPort(6379)));
     }
 }
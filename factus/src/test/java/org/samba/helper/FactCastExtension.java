@@ -22,13 +22,35 @@ import lombok.val;
 import org.junit.jupiter.api.extension.*;
 import org.junit.platform.commons.support.ModifierSupport;
 import org.junit.platform.commons.util.ReflectionUtils;
+import org.samba.factcast.inmemory.InMemoryFactCastExtension;
 import org.testcontainers.containers.PostgreSQLContainer;
 
+// Every test starts with an empty store: the in-memory one is cleared, the Postgres of the containers wiped.
 @Slf4j
-public class FactCastExtension implements Extension, BeforeEachCallback {
+public class FactCastExtension implements Extension, BeforeAllCallback, AfterAllCallback, BeforeEachCallback {
+
+    private final InMemoryFactCastExtension inMemory = new InMemoryFactCastExtension();
+
+    @Override
+    public void beforeAll(ExtensionContext extensionContext) {
+        if (!AbstractFactCastIntegrationTest.CONTAINERS) {
+            inMemory.beforeAll(extensionContext);
+        }
+    }
+
+    @Override
+    public void afterAll(ExtensionContext extensionContext) {
+        if (!AbstractFactCastIntegrationTest.CONTAINERS) {
+            inMemory.afterAll(extensionContext);
+        }
+    }
 
     @Override
     public void beforeEach(ExtensionContext extensionContext) throws Exception {
+        if (!AbstractFactCastIntegrationTest.CONTAINERS) {
+            inMemory.beforeEach(extensionContext);
+            return;
+        }
         val pg =
                 findPG(
                         extensionContext
@@ -38,8 +60,8 @@ public class FactCastExtension implements Extension, BeforeEachCallback {
             PostgresEraser.wipeAllFactCastDataDataFromPostgres(pg.get());
         } else {
             log.warn(
-                    "No static field of type {} found, so wiping data from Postgres was not possible."
-                            + PostgreSQLContainer.class.getCanonicalName());
+                    "No static field of type {} found, so wiping data from Postgres was not possible.",
+                    PostgreSQLContainer.class.getCanonicalName());
         }
     }
 
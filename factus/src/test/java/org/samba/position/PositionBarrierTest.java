@@ -0,0 +1,52 @@
+package org.samba.position;
+
+import org.junit.jupiter.api.Test;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PositionBarrierTest {
+
+    PositionBarrier uut = new PositionBarrier();
+
+    @Test
+    void waiterIsWokenByTheHandlerThread() throws Exception {
+        // arrange
+        var waiter = CompletableFuture.runAsync(() -> {
+            try {
+                uut.awaitPosition(3, Duration.ofSeconds(10));
+            } catch (Exception e) {
+                throw new IllegalStateException(e);
+            }
+        });
+
+        // act
+        uut.advanceTo(1);
+        uut.advanceTo(2);
+        Thread.sleep(50);
+        assertFalse(waiter.isDone());
+        uut.advanceTo(3);
+
+        // assert
+        waiter.get(1, TimeUnit.SECONDS);
+        assertEquals(3, uut.position());
+    }
+
+    @Test
+    void positionOnlyMovesForward() throws Exception {
+        // arrange
+        uut.advanceTo(5);
+
+        // act
+        uut.advanceTo(4);
+
+        // assert
+        assertEquals(5, uut.position());
+        uut.awaitPosition(5, Duration.ZERO);
+        assertThrows(TimeoutException.class, () -> uut.awaitPosition(6, Duration.ofMillis(10)));
+    }
+}
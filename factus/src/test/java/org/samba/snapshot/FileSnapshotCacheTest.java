@@ -0,0 +1,125 @@
+package org.samba.snapshot;
+
+import org.factcast.core.snap.Snapshot;
+import org.factcast.core.snap.SnapshotId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FileSnapshotCacheTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void snapshotsAreStoredCompressedAndSurviveARestart() throws Exception {
+        // arrange
+        var uut = new FileSnapshotCache(directory, 1_000_000);
+        var id = new SnapshotId("AddressBookProjection", UUID.randomUUID());
+        var aggregateId = new SnapshotId("AddressAggregate", UUID.randomUUID());
+        var bytes = "{\"addressBook\":[]}".repeat(1000).getBytes(StandardCharsets.UTF_8);
+        var snapshot = new Snapshot(id, UUID.randomUUID(), bytes, false);
+        var aggregate = new Snapshot(aggregateId, UUID.randomUUID(), new byte[]{1, 2, 3}, true);
+
+        // act
+        uut.setSnapshot(snapshot);
+        uut.setSnapshot(aggregate);
+
+        // assert
+        assertEquals(snapshot, uut.getSnapshot(id).orElseThrow());
+        assertEquals(aggregate, uut.getSnapshot(aggregateId).orElseThrow());
+        assertTrue(uut.size() < bytes.length / 10, "stored " + uut.size() + " bytes");
+
+        uut.close();
+        var restarted = new FileSnapshotCache(directory, 1_000_000);
+        assertEquals(2, restarted.count());
+        assertEquals(snapshot, restarted.getSnapshot(id).orElseThrow());
+        assertEquals(aggregate, restarted.getSnapshot(aggregateId).orElseThrow());
+    }
+
+    @Test
+    void leastRecentlyUsedSnapshotsAreEvictedOverBudget() throws Exception {
+        // arrange: random bytes do not compress, each snapshot needs a bit more than 400 bytes
+        var uut = new FileSnapshotCache(directory, 1000);
+        var a = snapshot("a");
+        var b = snapshot("b");
+        uut.setSnapshot(a);
+        uut.setSnapshot(b);
+        uut.getSnapshot(a.id());
+
+        // act
+        uut.setSnapshot(snapshot("c"));
+
+        // assert
+        assertTrue(uut.getSnapshot(a.id()).isPresent());
+        assertTrue(uut.getSnapshot(b.id()).isEmpty());
+        assertEquals(2, uut.count());
+        assertTrue(uut.size() <= 1000);
+
+        uut.clearSnapshot(a.id());
+        assertTrue(uut.getSnapshot(a.id()).isEmpty());
+        assertEquals(uut.size(), filesSize());
+        uut.close();
+        assertEquals(1, new FileSnapshotCache(directory, 1000).count());
+    }
+
+    @Test
+    void concurrentSetsOfOneIdLeaveTheIndexAndTheFileAlike() throws Exception {
+        // arrange
+        var uut = new FileSnapshotCache(directory, 1_000_000);
+        var id = new SnapshotId("AddressBookProjection", UUID.randomUUID());
+        var executor = Executors.newFixedThreadPool(8);
+
+        // act
+        var sets = IntStream.range(0, 200)
+                .mapToObj(i -> CompletableFuture.runAsync(() -> uut.setSnapshot(
+                        new Snapshot(id, UUID.randomUUID(), new byte[i + 1], false)), executor))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(sets).join();
+        executor.shutdown();
+
+        // assert
+        assertEquals(1, uut.count());
+        assertEquals(uut.size(), filesSize());
+        var fetched = uut.getSnapshot(id).orElseThrow();
+        uut.close();
+        assertEquals(fetched, new FileSnapshotCache(directory, 1_000_000).getSnapshot(id).orElseThrow());
+    }
+
+    @Test
+    void aDirectoryInUseIsRefused() throws Exception {
+        // arrange
+        var uut = new FileSnapshotCache(directory, 1000);
+        uut.setSnapshot(snapshot("a"));
+
+        // act
+        var thrown = assertThrows(IllegalStateException.class, () -> new FileSnapshotCache(directory, 1000));
+
+        // assert
+        assertTrue(thrown.getMessage().contains("used by another process"));
+        assertEquals(1, uut.count());
+    }
+
+    private long filesSize() throws IOException {
+        try (var files = Files.list(directory)) {
+            return files.filter(file -> file.toString().endsWith(".snapshot")).mapToLong(file -> file.toFile().length()).sum();
+        }
+    }
+
+    private static Snapshot snapshot(String key) {
+        var bytes = new byte[400];
+        new Random(key.hashCode()).nextBytes(bytes);
+        return new Snapshot(new SnapshotId(key, UUID.randomUUID()), UUID.randomUUID(), bytes, false);
+    }
+}
@@ -0,0 +1,176 @@
+package org.samba.snapshot;
+
+import org.factcast.core.snap.Snapshot;
+import org.factcast.core.snap.SnapshotId;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.redisson.api.RBucket;
+import org.redisson.api.RTopic;
+import org.redisson.api.RedissonClient;
+import org.redisson.api.listener.MessageListener;
+import org.redisson.api.listener.StatusListener;
+import org.redisson.client.codec.Codec;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class RedissonSnapshotCacheTest {
+
+    @Mock
+    RedissonClient redisson;
+
+    @Mock
+    RBucket<Snapshot> bucket;
+
+    @Mock
+    RTopic invalidations;
+
+    @Captor
+    ArgumentCaptor<MessageListener<String>> invalidationListener;
+
+    @Captor
+    ArgumentCaptor<StatusListener> statusListener;
+
+    SnapshotId id = new SnapshotId("org.samba.addressbook.AddressBookProjection:1", UUID.randomUUID());
+
+    Snapshot snapshot = new Snapshot(id, UUID.randomUUID(), new byte[]{1, 2, 3}, false);
+
+    @Test
+    void snapshotsGoToOneBucketEachWithTtl() {
+        // arrange
+        var key = "factus:snapshot:v1:org.samba.addressbook.AddressBookProjection:1:" + id.uuid();
+        when(redisson.<Snapshot>getBucket(eq(key), any(Codec.class))).thenReturn(bucket);
+        when(bucket.get()).thenReturn(snapshot);
+        var uut = new RedissonSnapshotCache(redisson, Duration.ofDays(1));
+
+        // act
+        uut.setSnapshot(snapshot);
+        var fetched = uut.getSnapshot(id);
+
+        // assert: a fetch renews the ttl
+        assertEquals(snapshot, fetched.orElseThrow());
+        verify(bucket).set(snapshot, TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+        verify(bucket).expireAsync(TimeUnit.DAYS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void missingSnapshotIsNotRenewed() {
+        // arrange
+        when(redisson.<Snapshot>getBucket(anyString(), any(Codec.class))).thenReturn(bucket);
+        var uut = new RedissonSnapshotCache(redisson, Duration.ofDays(1));
+
+        // act
+        var fetched = uut.getSnapshot(id);
+
+        // assert
+        assertTrue(fetched.isEmpty());
+        verify(bucket, never()).expireAsync(anyLong(), any());
+    }
+
+    @Test
+    void nearCacheServesRepeatedFetchesAndStillRenewsTheBucket() {
+        // arrange
+        var uut = nearCachingCache();
+        when(bucket.get()).thenReturn(snapshot);
+
+        // act
+        var first = uut.getSnapshot(id);
+        var second = uut.getSnapshot(id);
+
+        // assert: Redis is read once, the ttl renewed by both fetches like without near cache
+        assertEquals(snapshot, first.orElseThrow());
+        assertEquals(snapshot, second.orElseThrow());
+        verify(bucket, times(1)).get();
+        verify(bucket, times(2)).expireAsync(TimeUnit.HOURS.toMillis(1), TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    void writesGoToTheBucketAndInvalidateTheOtherNodes() {
+        // arrange
+        var uut = nearCachingCache();
+        when(bucket.get()).thenReturn(snapshot);
+        uut.getSnapshot(id);
+
+        // act
+        uut.setSnapshot(snapshot);
+        uut.getSnapshot(id);
+        uut.clearSnapshot(id);
+
+        // assert: the own copy is dropped at once
+        verify(bucket).set(snapshot, TimeUnit.HOURS.toMillis(1), TimeUnit.MILLISECONDS);
+        verify(bucket).delete();
+        verify(invalidations, times(2)).publish(RedissonSnapshotCache.key(id));
+        verify(bucket, times(2)).get();
+    }
+
+    @Test
+    void invalidationFromAnotherNodeDropsTheCopy() {
+        // arrange
+        var uut = nearCachingCache();
+        when(bucket.get()).thenReturn(snapshot);
+        uut.getSnapshot(id);
+
+        // act
+        invalidationListener.getValue().onMessage("factus:snapshot:v1:invalidations", RedissonSnapshotCache.key(id));
+        uut.getSnapshot(id);
+
+        // assert
+        verify(bucket, times(2)).get();
+    }
+
+    @Test
+    void snapshotReadBeforeAnInvalidationIsNotKept() {
+        // arrange: another node writes while this one reads the old snapshot from Redis
+        var uut = nearCachingCache();
+        when(bucket.get()).thenAnswer(invocation -> {
+            invalidationListener.getValue().onMessage("factus:snapshot:v1:invalidations", RedissonSnapshotCache.key(id));
+            return snapshot;
+        });
+
+        // act
+        uut.getSnapshot(id);
+        uut.getSnapshot(id);
+
+        // assert
+        verify(bucket, times(2)).get();
+    }
+
+    @Test
+    void reconnectDropsAllCopies() {
+        // arrange
+        var uut = nearCachingCache();
+        when(bucket.get()).thenReturn(snapshot);
+        uut.getSnapshot(id);
+
+        // act
+        statusListener.getValue().onSubscribe("factus:snapshot:v1:invalidations");
+        uut.getSnapshot(id);
+
+        // assert
+        verify(bucket, times(2)).get();
+    }
+
+    @Test
+    void ttlMustBePositive() {
+        assertThrows(IllegalArgumentException.class, () -> new RedissonSnapshotCache(redisson, Duration.ZERO));
+    }
+
+    private RedissonSnapshotCache nearCachingCache() {
+        when(redisson.getTopic(eq("factus:snapshot:v1:invalidations"), any(Codec.class))).thenReturn(invalidations);
+        when(redisson.<Snapshot>getBucket(eq(RedissonSnapshotCache.key(id)), any(Codec.class))).thenReturn(bucket);
+        var uut = new RedissonSnapshotCache(redisson, Duration.ofHours(1), 100);
+        verify(invalidations).addListener(eq(String.class), invalidationListener.capture());
+        verify(invalidations).addListener(statusListener.capture());
+        return uut;
+    }
+}
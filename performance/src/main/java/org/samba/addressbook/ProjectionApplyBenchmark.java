@@ -0,0 +1,71 @@
+package org.samba.addressbook;
+
+import org.factcast.factus.projection.Projection;
+import org.factcast.factus.projector.Projector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// How many facts per second do the projections of FactusLearningTest apply: @Handler dispatch,
+// Jackson deserialization of AddressAdded/StreetChanged and the update of the projection.
+// Without any transport, what a projection costs on its own when catching up.
+//
+// mvn -pl performance -am package -DskipTests
+// java -jar performance/target/benchmarks.jar ProjectionApplyBenchmark -prof gc
+//
+// one op is one fact, so "gc.alloc.rate.norm" is the allocation per applied fact
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class ProjectionApplyBenchmark {
+
+    static final int BATCH = 1000;
+
+    @Param({"snapshot", "aggregate", "managed", "subscribed"})
+    private String projection;
+
+    // share of StreetChanged in the stream, the address books do not subscribe to them
+    @Param({"0.0", "0.5"})
+    private double streetChanged;
+
+    private SyntheticAddressFacts facts;
+    private Projection target;
+    private Projector<Projection> projector;
+
+    @Setup
+    public void setUp() {
+        newProjection();
+        facts = new SyntheticAddressFacts(100_000, streetChanged, 42).matching(projector.createFactSpecs());
+    }
+
+    // the address books grow with every fact, start over each iteration
+    @Setup(Level.Iteration)
+    public void newProjection() {
+        target = SyntheticAddressFacts.projection(projection);
+        projector = SyntheticAddressFacts.projector(target);
+    }
+
+    @Benchmark
+    @OperationsPerInvocation(BATCH)
+    public Projection apply() {
+        for (int i = 0; i < BATCH; i++) {
+            projector.apply(facts.next());
+        }
+        return target;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(ProjectionApplyBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
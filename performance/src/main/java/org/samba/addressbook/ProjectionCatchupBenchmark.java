@@ -0,0 +1,75 @@
+package org.samba.addressbook;
+
+import org.factcast.factus.projection.Projection;
+import org.factcast.factus.projector.Projector;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.TimeUnit;
+
+// How long does a fresh projection take to catch up on 1M / 10M facts, e.g. after a restart without snapshot.
+// The facts come from a SyntheticAddressStream: distinct ids, ascending serials, built as they are delivered.
+//   catchUp  building and applying the facts
+//   deliver  building the facts only, what is left of catchUp after subtracting it is the projection
+// The transport from FactCast comes on top.
+//
+// mvn -pl performance -am package -DskipTests
+// java -jar performance/target/benchmarks.jar ProjectionCatchupBenchmark
+//
+// The address books keep every AddressAdded: 10M facts need a few GB of heap.
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 1)
+@Measurement(iterations = 3)
+@Fork(value = 1, jvmArgsAppend = {"-Xms8g", "-Xmx8g"})
+@State(Scope.Benchmark)
+public class ProjectionCatchupBenchmark {
+
+    @Param({"1000000", "10000000"})
+    private int facts;
+
+    @Param({"snapshot", "aggregate", "managed", "subscribed"})
+    private String projection;
+
+    @Param({"0.5"})
+    private double streetChanged;
+
+    private SyntheticAddressStream stream;
+    private Projection target;
+    private Projector<Projection> projector;
+
+    // every catch-up starts at the beginning of the stream
+    @Setup(Level.Invocation)
+    public void newProjection() {
+        target = null;  // let the previous one go before the next catch-up
+        System.gc();
+        target = SyntheticAddressFacts.projection(projection);
+        projector = SyntheticAddressFacts.projector(target);
+        stream = new SyntheticAddressStream(streetChanged, 42, projector.createFactSpecs());
+    }
+
+    @Benchmark
+    public Projection catchUp() {
+        for (int i = 0; i < facts; i++) {
+            projector.apply(stream.next());
+        }
+        return target;
+    }
+
+    @Benchmark
+    public void deliver(Blackhole blackhole) {
+        for (int i = 0; i < facts; i++) {
+            blackhole.consume(stream.next());
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(ProjectionCatchupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,98 @@
+package org.samba.addressbook;
+
+import org.factcast.factus.Factus;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.samba.factcast.inmemory.InMemoryFactStore;
+import org.samba.snapshot.FileSnapshotCache;
+
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+// Fetching an AddressBookProjection that is fully covered by its snapshot: read the snapshot, deserialize it,
+// ask FactCast for newer facts (there are none).
+//   factcast  FactCastSnapshotCache, the snapshot sits in the fact store (on-heap here, see InMemoryFactStore)
+//   file      FileSnapshotCache, the snapshot sits compressed in a local file (page cache)
+//
+// mvn -pl performance -am package -DskipTests
+// java -jar performance/target/benchmarks.jar SnapshotFetchBenchmark -prof gc
+//
+// The heap retained by the snapshots is printed after the setup.
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SnapshotFetchBenchmark {
+
+    @Param({"factcast", "file"})
+    private String cache;
+
+    @Param({"1000", "100000"})
+    private int addresses;
+
+    private InMemoryFactStore store;
+    private Factus factus;
+    private Path directory;
+    private FileSnapshotCache fileCache;
+
+    @Setup
+    public void setUp() throws IOException {
+        var before = usedHeap();
+        store = new InMemoryFactStore();
+        directory = Files.createTempDirectory("factus-snapshots");
+        if ("file".equals(cache)) {
+            fileCache = new FileSnapshotCache(directory, Long.MAX_VALUE);
+            factus = store.factus(fileCache);
+        } else {
+            factus = store.factus();
+        }
+        factus.publish(IntStream.range(0, addresses)
+                .mapToObj(i -> new AddressAdded(UUID.randomUUID(), "Name " + i, "Street " + i, "Town " + (i % 100)))
+                .collect(Collectors.toList()));
+        factus.fetch(AddressBookProjection.class);  // takes the snapshot
+        System.out.printf("%n%s: %d facts + snapshots retain %d KB of heap%n",
+                cache, addresses, (usedHeap() - before) / 1024);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        factus.close();
+        store.clear();
+        if (fileCache != null) {
+            fileCache.close();
+        }
+        try (var files = Files.list(directory)) {
+            for (var file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public AddressBookProjection fetch() {
+        return factus.fetch(AddressBookProjection.class);
+    }
+
+    private static long usedHeap() {
+        System.gc();
+        return ManagementFactory.getMemoryMXBean().getHeapMemoryUsage().getUsed();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(SnapshotFetchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
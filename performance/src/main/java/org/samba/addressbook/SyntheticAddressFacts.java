@@ -0,0 +1,98 @@
+package org.samba.addressbook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import lombok.SneakyThrows;
+import org.factcast.core.Fact;
+import org.factcast.core.event.EventConverter;
+import org.factcast.core.spec.FactSpec;
+import org.factcast.core.spec.FactSpecMatcher;
+import org.factcast.factus.event.DefaultEventSerializer;
+import org.factcast.factus.event.EventSerializer;
+import org.factcast.factus.projection.Projection;
+import org.factcast.factus.projector.DefaultProjectorFactory;
+import org.factcast.factus.projector.Projector;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+// A fact stream of AddressAdded and StreetChanged for the projections of FactusLearningTest.
+//
+// Builds a pool of distinct facts once and hands them out round robin, so a stream of 10M facts does not
+// need 10M facts in memory. Serials repeat with the pool, the projections do not mind.
+// Every StreetChanged refers to an address added before.
+// A projection only sees the facts matching its FactSpecs (FactCast filters them), see matching().
+public class SyntheticAddressFacts {
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final EventSerializer SERIALIZER = new DefaultEventSerializer(OBJECT_MAPPER);
+
+    private final Fact[] pool;
+    private int next;
+
+    public SyntheticAddressFacts(int distinct, double streetChangedShare, long seed) {
+        var converter = new EventConverter(SERIALIZER);
+        var random = new Random(seed);
+        var addresses = new UUID[distinct];
+        var added = 0;
+        pool = new Fact[distinct];
+        for (int i = 0; i < distinct; i++) {
+            if (added > 0 && random.nextDouble() < streetChangedShare) {
+                var addressId = addresses[random.nextInt(added)];
+                pool[i] = published(converter.toFact(new StreetChanged(addressId, "Street " + i)), i + 1);
+            } else {
+                var addressId = new UUID(seed, i);
+                addresses[added++] = addressId;
+                var event = new AddressAdded(addressId, "Name " + i, "Street " + i, "Town " + (i % 100));
+                pool[i] = published(converter.toFact(event), i + 1);
+            }
+        }
+    }
+
+    private SyntheticAddressFacts(Fact[] pool) {
+        this.pool = pool;
+    }
+
+    // the part of the stream FactCast would deliver for the given specs
+    public SyntheticAddressFacts matching(List<FactSpec> specs) {
+        var matcher = FactSpecMatcher.matchesAnyOf(specs);
+        return new SyntheticAddressFacts(Arrays.stream(pool).filter(matcher).toArray(Fact[]::new));
+    }
+
+    public Fact next() {
+        var fact = pool[next];
+        next = next + 1 == pool.length ? 0 : next + 1;
+        return fact;
+    }
+
+    // with serial and timestamp, as FactCast delivers it
+    @SneakyThrows
+    private static Fact published(Fact fact, long serial) {
+        var header = (ObjectNode) OBJECT_MAPPER.readTree(fact.jsonHeader());
+        header.with("meta").put("_ser", serial).put("_ts", System.currentTimeMillis());
+        return Fact.of(header.toString(), fact.jsonPayload());
+    }
+
+    // the dispatcher Factus uses for all kinds of projections, with the same Jackson deserialization
+    public static <P extends Projection> Projector<P> projector(P projection) {
+        return new DefaultProjectorFactory(SERIALIZER).create(projection);
+    }
+
+    // the projections of FactusLearningTest by kind
+    public static Projection projection(String kind) {
+        switch (kind) {
+            case "snapshot":
+                return new AddressBookProjection();
+            case "aggregate":
+                return new AddressAggregate2();
+            case "managed":
+                return new AddressBookLocalManagedProjection();
+            case "subscribed":
+                return new AddressBookLocalSubscribedProjection();
+            default:
+                throw new IllegalArgumentException("unknown projection " + kind);
+        }
+    }
+}
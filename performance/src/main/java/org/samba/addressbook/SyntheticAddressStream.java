@@ -0,0 +1,83 @@
+package org.samba.addressbook;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.factcast.core.Fact;
+import org.factcast.core.event.EventConverter;
+import org.factcast.core.spec.FactSpec;
+import org.factcast.core.spec.FactSpecMatcher;
+import org.factcast.factus.event.DefaultEventSerializer;
+import org.factcast.factus.event.EventObject;
+import org.factcast.factus.event.EventSerializer;
+
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+import java.util.function.Predicate;
+
+// The fact stream of SyntheticAddressFacts without the pool: every fact is built when it is asked for, so ids
+// are unique and serials ascend however long the stream gets, and 10M facts are never in memory at once.
+// Every StreetChanged refers to an address added before. Only the facts matching the given FactSpecs come out,
+// like FactCast would deliver them.
+//
+// Building a fact (payload and header JSON) costs about what the FactCast client spends on a received one,
+// ProjectionCatchupBenchmark.deliver measures it on its own.
+public class SyntheticAddressStream {
+
+    private static final EventSerializer SERIALIZER = new DefaultEventSerializer(new ObjectMapper());
+
+    private final double streetChangedShare;
+    private final long seed;
+    private final Random random;
+    private final Predicate<Fact> matcher;
+    private final Fact addressAdded;
+    private final Fact streetChanged;
+
+    private long serial;
+    private int added;
+
+    public SyntheticAddressStream(double streetChangedShare, long seed, List<FactSpec> specs) {
+        this.streetChangedShare = streetChangedShare;
+        this.seed = seed;
+        this.random = new Random(seed);
+        this.matcher = FactSpecMatcher.matchesAnyOf(specs);
+        // ns, type and version as Factus derives them from the event classes
+        var converter = new EventConverter(SERIALIZER);
+        this.addressAdded = converter.toFact(new AddressAdded(new UUID(0, 0), "", "", ""));
+        this.streetChanged = converter.toFact(new StreetChanged(new UUID(0, 0), ""));
+    }
+
+    public Fact next() {
+        while (true) {
+            var fact = create();
+            if (matcher.test(fact)) {
+                return fact;
+            }
+        }
+    }
+
+    private Fact create() {
+        serial++;
+        if (added > 0 && random.nextDouble() < streetChangedShare) {
+            var addressId = new UUID(seed, random.nextInt(added));
+            return published(streetChanged, addressId, new StreetChanged(addressId, "Street " + serial));
+        }
+        var addressId = new UUID(seed, added++);
+        return published(addressAdded, addressId,
+                new AddressAdded(addressId, "Name " + serial, "Street " + serial, "Town " + (serial % 100)));
+    }
+
+    // with serial and timestamp, as FactCast delivers it
+    private Fact published(Fact template, UUID aggregateId, EventObject event) {
+        var builder = Fact.builder()
+                .id(new UUID(~seed, serial))
+                .ns(template.ns())
+                .type(template.type())
+                .aggId(aggregateId)
+                .meta("_ser", Long.toString(serial))
+                .meta("_ts", Long.toString(System.currentTimeMillis()));
+        if (template.version() > 0) {
+            builder.version(template.version());
+        }
+        return builder.build(SERIALIZER.serialize(event));
+    }
+}
@@ -0,0 +1,67 @@
+package org.samba.recordstore;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import javax.validation.Validation;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.concurrent.TimeUnit;
+
+// What does checking a valid AddRecord cost: javax.validation + AddRecordHandler.verify
+// compared to the hand written fast path of AddRecordValidator?
+//
+// mvn -pl performance -am package -DskipTests
+// java -jar performance/target/benchmarks.jar AddRecordValidationBenchmark -prof gc
+//
+// "gc.alloc.rate.norm" of the fast path should be 0
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class AddRecordValidationBenchmark {
+
+    private AddRecord addRecord;
+    private AddRecordValidator validator;
+
+    @Setup
+    public void setUp() {
+        var now = ZonedDateTime.now();
+        addRecord = new AddRecord()
+                .setArtist("The Dancing Monkeys")
+                .setTitle("Dancing Time")
+                .setLabel("Ape Records")
+                .setFormat("12")
+                .setReleaseDate(LocalDate.of(2020, 1, 30))
+                .setAddedToStore(now);
+
+        // a fixed clock like the cached one of the application: reading it does not allocate
+        var clock = StoreClock.fixed(now);
+        var addRecordHandler = new AddRecordHandler(Mappers.getMapper(AddRecordHandler.RecordCommandToEventMapper.class), clock);
+        validator = new AddRecordValidator(Validation.buildDefaultValidatorFactory().getValidator(), addRecordHandler, clock, true);
+    }
+
+    @Benchmark
+    public String reflective() {
+        return validator.validateReflectively(addRecord);
+    }
+
+    @Benchmark
+    public String fastPath() {
+        return validator.validate(addRecord);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(AddRecordValidationBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,70 @@
+package org.samba.recordstore;
+
+import org.mapstruct.factory.Mappers;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.samba.recordstore.AddRecordHandler.RecordCommandToEventMapper;
+import org.samba.recordstore.RecordStoreController.ReceivedJsonToCommandMapper;
+import org.samba.recordstore.gen.model.RecordWrite;
+
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+
+// What does resolving the MapStruct mappers per request cost compared to injected singletons?
+// This is the mapping part of the recordstore write path: RecordWrite -> AddRecord -> RecordAdded
+//
+// mvn -pl performance -am package -DskipTests
+// java -jar performance/target/benchmarks.jar MapperLookupBenchmark -prof gc
+//
+// look at "gc.alloc.rate.norm" (bytes allocated per request) next to the average time
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MapperLookupBenchmark {
+
+    private RecordWrite receivedJson;
+
+    // what Spring injects since the mappers use componentModel = "spring"
+    private ReceivedJsonToCommandMapper jsonMapper;
+    private RecordCommandToEventMapper eventMapper;
+
+    @Setup
+    public void setUp() {
+        receivedJson = new RecordWrite()
+                .artist("The Dancing Monkeys")
+                .title("Dancing Time")
+                .label("Ape Records")
+                .format("12")
+                .releaseDate(LocalDate.of(2020, 1, 30));
+
+        jsonMapper = Mappers.getMapper(ReceivedJsonToCommandMapper.class);
+        eventMapper = Mappers.getMapper(RecordCommandToEventMapper.class);
+    }
+
+    @Benchmark
+    public void lookupPerRequest(Blackhole blackhole) {
+        var cmd = Mappers.getMapper(ReceivedJsonToCommandMapper.class).addRecordJsonToCommand(receivedJson, StoreClock.SYSTEM);
+        blackhole.consume(Mappers.getMapper(RecordCommandToEventMapper.class).commandToEvent(cmd));
+    }
+
+    @Benchmark
+    public void injectedSingleton(Blackhole blackhole) {
+        var cmd = jsonMapper.addRecordJsonToCommand(receivedJson, StoreClock.SYSTEM);
+        blackhole.consume(eventMapper.commandToEvent(cmd));
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(MapperLookupBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,118 @@
+package org.samba.recordstore.catalog;
+
+import org.factcast.core.subscription.Subscription;
+import org.factcast.factus.Factus;
+import org.factcast.factus.event.EventObject;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.samba.factcast.inmemory.InMemoryFactStore;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// How long until a restarted node has its record catalogue back:
+//   replay    apply every RecordAdded from the start
+//   snapshot  restore the local snapshot (CatalogSnapshotter), then catch up the last 1% of the facts
+//
+// mvn -pl performance -am package -DskipTests
+// java -jar performance/target/benchmarks.jar CatalogStartupBenchmark
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2)
+@Measurement(iterations = 5)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class CatalogStartupBenchmark {
+
+    @Param({"100000", "500000"})
+    private int records;
+
+    @Param({"replay", "snapshot"})
+    private String start;
+
+    private InMemoryFactStore store;
+    private Factus factus;
+    private Path directory;
+    private Subscription subscription;
+
+    @Setup
+    public void setUp() throws Exception {
+        store = new InMemoryFactStore();
+        factus = store.factus();
+        directory = Files.createTempDirectory("catalog-snapshots");
+
+        var tail = records / 100;
+        publish(records - tail);
+        var catalog = new RecordCatalogProjection();
+        try (var subscription = factus.subscribeAndBlock(catalog)) {
+            subscription.awaitCatchup(TimeUnit.MINUTES.toMillis(5));
+        }
+        new CatalogSnapshotter(catalog, directory).snapshot();
+        publish(tail);
+    }
+
+    @TearDown(Level.Invocation)
+    public void closeSubscription() throws Exception {
+        subscription.close();
+    }
+
+    @TearDown
+    public void tearDown() throws Exception {
+        store.clear();
+        try (var files = Files.list(directory)) {
+            for (var file : files.collect(Collectors.toList())) {
+                Files.delete(file);
+            }
+        }
+        Files.delete(directory);
+    }
+
+    @Benchmark
+    public RecordCatalogProjection startUp() throws Exception {
+        var catalog = new RecordCatalogProjection();
+        if ("snapshot".equals(start)) {
+            new CatalogSnapshotter(catalog, directory).restore();
+        }
+        subscription = factus.subscribeAndBlock(catalog);
+        subscription.awaitCatchup(TimeUnit.MINUTES.toMillis(5));
+        return catalog;
+    }
+
+    private void publish(int count) {
+        var events = new ArrayList<EventObject>(10_000);
+        for (int i = 0; i < count; i++) {
+            events.add(RecordAdded.builder()
+                    .recordId(UUID.randomUUID())
+                    .artist("Artist " + (i % 1000))
+                    .title("Title " + i)
+                    .label("Label " + (i % 50))
+                    .format(i % 2 == 0 ? "12 inch" : "7 inch")
+                    .releaseDate(LocalDate.of(1960 + i % 60, 1, 1))
+                    .addedToStore(ZonedDateTime.now())
+                    .build());
+            if (events.size() == 10_000) {
+                factus.publish(events);
+                events.clear();
+            }
+        }
+        if (!events.isEmpty()) {
+            factus.publish(events);
+        }
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(CatalogStartupBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,82 @@
+package org.samba.recordstore.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.factcast.factus.event.DefaultEventSerializer;
+import org.factcast.factus.event.EventSerializer;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// RecordAdded as FactCast's Jackson JSON compared to the compact form (recordstore.events.codec=compact):
+// what a publish (serialize) and a replay (deserialize) of one fact cost, and how big the payload is.
+//
+// mvn -pl performance -am package -DskipTests
+// java -jar performance/target/benchmarks.jar EventSerializerBenchmark -prof gc
+//
+// the payload sizes are printed at the start of each fork
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@State(Scope.Benchmark)
+public class EventSerializerBenchmark {
+
+    @Param({"json", "compact"})
+    private String codec;
+
+    private EventSerializer serializer;
+    private RecordAdded event;
+    private String payload;
+
+    @Setup
+    public void setUp() {
+        // configured like the ObjectMapper of Spring Boot, which FactCast uses by default
+        var json = new DefaultEventSerializer(new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+        serializer = codec.equals("compact") ? new CompactEventSerializer(json) : json;
+
+        event = RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist("The Dancing Monkeys")
+                .title("Dancing Time")
+                .label("Ape Records")
+                .format("12 inch")
+                .releaseDate(LocalDate.of(2020, 5, 20))
+                .addedToStore(ZonedDateTime.now(ZoneId.of("Europe/Berlin")))
+                .build();
+        payload = serializer.serialize(event);
+
+        System.out.printf("%n%s payload: %d bytes%n", codec, payload.getBytes(StandardCharsets.UTF_8).length);
+    }
+
+    @Benchmark
+    public String serialize() {
+        return serializer.serialize(event);
+    }
+
+    @Benchmark
+    public RecordAdded deserialize() {
+        return serializer.deserialize(RecordAdded.class, payload);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(EventSerializerBenchmark.class.getSimpleName())
+                .addProfiler(GCProfiler.class)
+                .build();
+        new Runner(options).run();
+    }
+}
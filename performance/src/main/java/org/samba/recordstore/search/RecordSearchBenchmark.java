@@ -0,0 +1,93 @@
+package org.samba.recordstore.search;
+
+import org.factcast.core.Fact;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// One prefix search in the RecordSearchIndex, exact and with typo variants, over a catalogue with shared
+// artist and label terms and mostly unique title terms.
+//
+// mvn -pl performance -am package -DskipTests
+// java -jar performance/target/benchmarks.jar RecordSearchBenchmark
+//
+// the heap the index takes is printed at the start of each fork
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(value = 1, jvmArgsAppend = {"-Xms4g", "-Xmx4g"})
+@State(Scope.Benchmark)
+public class RecordSearchBenchmark {
+
+    private static final List<String> QUERIES = List.of("artist 4", "title 12345", "label 99", "remast");
+
+    @Param({"100000", "500000"})
+    private int records;
+
+    @Param({"false", "true"})
+    private boolean fuzzy;
+
+    private RecordSearchIndex index;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        var before = usedHeap();
+        index = new RecordSearchIndex();
+        for (int i = 1; i <= records; i++) {
+            index.apply(recordAdded("Artist " + (i % 50_000), "Title " + i + " Remastered", "Label " + (i % 1_000)), fact(i));
+        }
+        var bytes = usedHeap() - before;
+        System.out.printf("%nindex of %d records: %d MB, %d bytes per record%n", records, bytes >> 20, bytes / records);
+    }
+
+    @Benchmark
+    public SearchHits search() {
+        var text = QUERIES.get(next++ % QUERIES.size());
+        return index.search(SearchRecords.builder().text(text).fuzzy(fuzzy).build());
+    }
+
+    private static long usedHeap() {
+        var runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+
+    private static RecordAdded recordAdded(String artist, String title, String label) {
+        return RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist(artist)
+                .title(title)
+                .label(label)
+                .format("12 inch")
+                .releaseDate(LocalDate.of(2020, 5, 20))
+                .addedToStore(ZonedDateTime.now())
+                .build();
+    }
+
+    private static Fact fact(long serial) {
+        return Fact.builder()
+                .ns("recordstore")
+                .type("RecordAdded")
+                .meta("_ser", Long.toString(serial))
+                .build("{}");
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        var options = new OptionsBuilder()
+                .include(RecordSearchBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
@@ -0,0 +1,40 @@
+package org.samba.recordstore.reactive;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.AddRecord;
+import org.samba.recordstore.AddRecordPipeline;
+import org.samba.recordstore.AddRecordResult;
+import org.samba.recordstore.AddRecords;
+import org.samba.recordstore.AddRecordsHandler;
+import org.springframework.stereotype.Component;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import java.util.List;
+
+// FactCast's client publishes blocking, an event loop thread must never wait for it.
+// Single records go through the AddRecordPipeline: its publisher threads do the waiting and complete
+// the future, the Mono just follows it. The queue of the pipeline bounds the memory of pending records.
+@Component
+@RequiredArgsConstructor
+public class ReactiveRecordPublisher {
+
+    private final AddRecordPipeline addRecordPipeline;
+    private final AddRecordsHandler addRecordsHandler;
+
+    public Mono<AddRecordResult> publish(@NonNull AddRecord addRecord) {
+        // defer: submitted on subscription, not when the Mono is assembled
+        return Mono.defer(() -> Mono.fromFuture(addRecordPipeline.submit(addRecord)));
+    }
+
+    // a batch is published by the calling thread in chunks, that thread comes from the elastic pool
+    public Mono<List<AddRecordResult>> publish(@NonNull AddRecords addRecords) {
+        return Mono.fromCallable(() -> addRecordsHandler.handle(addRecords).getValue())
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    public int maxBatchSize() {
+        return addRecordsHandler.getMaxBatchSize();
+    }
+}
@@ -0,0 +1,164 @@
+package org.samba.recordstore.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.AddRecordResult;
+import org.samba.recordstore.AddRecords;
+import org.samba.recordstore.RecordQueryParameters;
+import org.samba.recordstore.RecordStoreController.ReceivedJsonToCommandMapper;
+import org.samba.recordstore.RecordStoreMetrics;
+import org.samba.recordstore.StoreClock;
+import org.samba.recordstore.catalog.FindRecordsHandler;
+import org.samba.recordstore.catalog.GetRecord;
+import org.samba.recordstore.catalog.GetRecordHandler;
+import org.samba.recordstore.gen.model.RecordBatchResult;
+import org.samba.recordstore.gen.model.RecordCounts;
+import org.samba.recordstore.gen.model.RecordHistory;
+import org.samba.recordstore.gen.model.RecordPage;
+import org.samba.recordstore.gen.model.RecordRead;
+import org.samba.recordstore.gen.model.RecordSearchPage;
+import org.samba.recordstore.gen.model.RecordWrite;
+import org.samba.recordstore.history.GetRecordHistory;
+import org.samba.recordstore.history.GetRecordHistoryHandler;
+import org.samba.recordstore.reactive.gen.rest.RecordstoreApi;
+import org.samba.recordstore.search.SearchRecordsHandler;
+import org.samba.recordstore.stats.CountRecordsHandler;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+import reactor.core.scheduler.Schedulers;
+
+import javax.validation.Valid;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.samba.recordstore.RecordQueryParameters.positionHeaders;
+
+// RecordStoreController on WebFlux. Same handlers and mapper, but no request holds a thread while it waits:
+// writes follow the AddRecordPipeline (see ReactiveRecordPublisher), reads come from in-memory projections
+// and are answered right on the event loop. Only a history of an uncached record is read from FactCast,
+// which happens on the elastic pool.
+@RestController
+@RequiredArgsConstructor
+public class ReactiveRecordStoreController implements RecordstoreApi {
+
+    private final ReactiveRecordPublisher publisher;
+    private final FindRecordsHandler findRecordsHandler;
+    private final GetRecordHandler getRecordHandler;
+    private final GetRecordHistoryHandler getRecordHistoryHandler;
+    private final SearchRecordsHandler searchRecordsHandler;
+    private final CountRecordsHandler countRecordsHandler;
+    private final ReceivedJsonToCommandMapper mapper;
+    private final StoreClock clock;
+    private final RecordStoreMetrics metrics;
+
+    @Override
+    public Mono<ResponseEntity<RecordRead>> addRecord(@Valid Mono<RecordWrite> recordWrite, String idempotencyKey, ServerWebExchange exchange) {
+        return recordWrite.flatMap(json -> {
+            var start = System.nanoTime();
+            var cmd = metrics.time("map-json", () -> mapper.addRecordJsonToCommand(json, clock).setIdempotencyKey(idempotencyKey));
+            return publisher.publish(cmd)
+                    .doFinally(signal -> metrics.record("request", System.nanoTime() - start))
+                    .map(result -> {
+                        switch (result.getStatus()) {
+                            case REJECTED:
+                                throw new ResponseStatusException(HttpStatus.BAD_REQUEST, result.getError());
+                            case FAILED:
+                                throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, result.getError());
+                            default:
+                                return ResponseEntity
+                                        .ok()
+                                        .body(mapper.addRecordJsonToResponse(json).recordId(result.getRecordId()));
+                        }
+                    });
+        });
+    }
+
+    @Override
+    public Mono<ResponseEntity<RecordBatchResult>> addRecords(@Valid Flux<RecordWrite> recordWrite, ServerWebExchange exchange) {
+        var start = System.nanoTime();
+        return recordWrite
+                // one more than allowed is enough for AddRecordsHandler to reject the batch, the rest is not read
+                .take(publisher.maxBatchSize() + 1)
+                .map(json -> metrics.time("map-json", () -> mapper.addRecordJsonToCommand(json, clock)))
+                .collectList()
+                .map(AddRecords::of)
+                .flatMap(publisher::publish)
+                .doFinally(signal -> metrics.record("request-batch", System.nanoTime() - start))
+                .map(results -> {
+                    var body = new RecordBatchResult()
+                            .accepted(count(results, AddRecordResult.Status.ACCEPTED))
+                            .rejected(count(results, AddRecordResult.Status.REJECTED))
+                            .failed(count(results, AddRecordResult.Status.FAILED))
+                            .items(results.stream()
+                                    .map(mapper::addRecordResultToResponse)
+                                    .collect(Collectors.toList()));
+
+                    // 207: the client has to look at the single items to find out what went wrong
+                    var status = body.getAccepted() == results.size() ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+                    return ResponseEntity.status(status).body(body);
+                });
+    }
+
+    @Override
+    public Mono<ResponseEntity<RecordPage>> findRecords(String artist, String label, String format, Integer releaseYear, Integer offset, Integer limit, ServerWebExchange exchange) {
+        return Mono.fromSupplier(() -> {
+            var page = findRecordsHandler.handle(RecordQueryParameters.findRecords(artist, label, format, releaseYear, offset, limit));
+            return ResponseEntity
+                    .ok()
+                    .headers(positionHeaders(page.getPosition()))
+                    .body(mapper.pageToResponse(page));
+        });
+    }
+
+    @Override
+    public Mono<ResponseEntity<RecordSearchPage>> searchRecords(String q, String field, Boolean fuzzy, Integer offset, Integer limit, ServerWebExchange exchange) {
+        // a bad parameter ends up as the error of the Mono
+        return Mono.fromSupplier(() -> {
+            var page = searchRecordsHandler.handle(RecordQueryParameters.searchRecords(q, field, fuzzy, offset, limit));
+            return ResponseEntity
+                    .ok()
+                    .headers(positionHeaders(page.getPosition()))
+                    .body(mapper.searchPageToResponse(page));
+        });
+    }
+
+    @Override
+    public Mono<ResponseEntity<RecordCounts>> countRecords(List<String> groupBy, String label, String format, Integer releaseYear, String addedMonth, ServerWebExchange exchange) {
+        return Mono.fromSupplier(() -> {
+            var counts = countRecordsHandler.handle(RecordQueryParameters.countRecords(groupBy, label, format, releaseYear, addedMonth));
+            return ResponseEntity
+                    .ok()
+                    .headers(positionHeaders(counts.getPosition()))
+                    .body(mapper.countsToResponse(counts));
+        });
+    }
+
+    @Override
+    public Mono<ResponseEntity<RecordRead>> getRecord(UUID recordId, ServerWebExchange exchange) {
+        var lookup = getRecordHandler.handle(GetRecord.of(recordId));
+
+        var headers = positionHeaders(lookup.getPosition());
+        return Mono.just(lookup.getRecord()
+                .map(record -> ResponseEntity.ok().headers(headers).body(mapper.catalogRecordToResponse(record)))
+                // could also be a record which was added but is not yet in the catalogue, the headers tell
+                .orElseGet(() -> ResponseEntity.notFound().headers(headers).build()));
+    }
+
+    @Override
+    public Mono<ResponseEntity<RecordHistory>> getRecordHistory(UUID recordId, ServerWebExchange exchange) {
+        // a cache miss reads the record's facts from FactCast
+        return Mono.fromCallable(() -> getRecordHistoryHandler.handle(GetRecordHistory.of(recordId))
+                        .map(aggregate -> ResponseEntity.ok(mapper.aggregateToResponse(aggregate)))
+                        .orElseGet(() -> ResponseEntity.notFound().build()))
+                .subscribeOn(Schedulers.boundedElastic());
+    }
+
+    private static int count(List<AddRecordResult> results, AddRecordResult.Status status) {
+        return (int) results.stream().filter(it -> it.getStatus() == status).count();
+    }
+}
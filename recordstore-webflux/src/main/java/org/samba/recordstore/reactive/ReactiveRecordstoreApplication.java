@@ -0,0 +1,49 @@
+package org.samba.recordstore.reactive;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.samba.recordstore.RecordStoreController;
+import org.samba.recordstore.RecordstoreApplication;
+import org.samba.recordstore.ThreadsConfiguration;
+import org.samba.recordstore.export.RecordExportController;
+import org.samba.recordstore.shard.ShardController;
+import org.springframework.boot.SpringApplication;
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.AutoConfigurationExcludeFilter;
+import org.springframework.boot.autoconfigure.EnableAutoConfiguration;
+import org.springframework.boot.context.TypeExcludeFilter;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.ComponentScan;
+import org.springframework.context.annotation.FilterType;
+import org.springframework.scheduling.annotation.EnableScheduling;
+
+// Everything of the recordstore except its Spring MVC layer, which is replaced by ReactiveRecordStoreController.
+@SpringBootConfiguration
+@EnableAutoConfiguration
+@EnableScheduling  // catalogue snapshots
+@ComponentScan(basePackages = "org.samba.recordstore", excludeFilters = {
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = TypeExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.CUSTOM, classes = AutoConfigurationExcludeFilter.class),
+        @ComponentScan.Filter(type = FilterType.ASSIGNABLE_TYPE, classes = {
+                RecordstoreApplication.class,
+                RecordStoreController.class,
+                RecordExportController.class,   // streams via the servlet response
+                ThreadsConfiguration.class,     // customizes Tomcat, here Netty's event loop does the work
+                ShardController.class           // ReactiveShardController instead
+        })
+})
+public class ReactiveRecordstoreApplication {
+    public static void main(String[] args) {
+        SpringApplication.run(ReactiveRecordstoreApplication.class, args);
+    }
+
+    // the one of RecordstoreApplication, which is not scanned here
+    @Bean
+    public ObjectMapper serializingObjectMapper() {
+        var objectMapper = new ObjectMapper();
+        objectMapper.disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        objectMapper.registerModule(new JavaTimeModule());
+        return objectMapper;
+    }
+}
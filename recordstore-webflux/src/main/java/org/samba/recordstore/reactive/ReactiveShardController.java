@@ -0,0 +1,70 @@
+package org.samba.recordstore.reactive;
+
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.RecordQueryParameters;
+import org.samba.recordstore.catalog.RecordPage;
+import org.samba.recordstore.shard.ShardEndpoint;
+import org.samba.recordstore.shard.ShardSearchPage;
+import org.samba.recordstore.stats.RecordCounts;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Mono;
+
+import java.util.List;
+import java.util.UUID;
+
+import static org.samba.recordstore.shard.ShardEndpoint.TOKEN_HEADER;
+
+// ShardController on WebFlux: the other nodes read this node's catalogue shard here. The shard is in memory,
+// so the answers come right on the event loop.
+@RestController
+@RequestMapping(ShardEndpoint.PATH)
+@RequiredArgsConstructor
+public class ReactiveShardController {
+
+    private final ShardEndpoint endpoint;
+
+    @GetMapping("/records")
+    public Mono<RecordPage> findRecords(@RequestHeader(name = TOKEN_HEADER, required = false) String token,
+                                        @RequestParam(required = false) String artist,
+                                        @RequestParam(required = false) String label,
+                                        @RequestParam(required = false) String format,
+                                        @RequestParam(required = false) Integer releaseYear,
+                                        @RequestParam(required = false) Integer offset,
+                                        @RequestParam(required = false) Integer limit) {
+        return Mono.defer(() -> Mono.fromFuture(endpoint.find(token,
+                RecordQueryParameters.findRecords(artist, label, format, releaseYear, offset, limit))));
+    }
+
+    @GetMapping("/records/{recordId}")
+    public Mono<RecordPage> getRecord(@RequestHeader(name = TOKEN_HEADER, required = false) String token,
+                                      @PathVariable UUID recordId) {
+        return Mono.defer(() -> Mono.fromFuture(endpoint.get(token, recordId)));
+    }
+
+    @GetMapping("/search")
+    public Mono<ShardSearchPage> searchRecords(@RequestHeader(name = TOKEN_HEADER, required = false) String token,
+                                               @RequestParam String q,
+                                               @RequestParam(required = false) String field,
+                                               @RequestParam(required = false) Boolean fuzzy,
+                                               @RequestParam(required = false) Integer offset,
+                                               @RequestParam(required = false) Integer limit) {
+        return Mono.defer(() -> Mono.fromFuture(endpoint.search(token,
+                RecordQueryParameters.searchRecords(q, field, fuzzy, offset, limit))));
+    }
+
+    @GetMapping("/statistics")
+    public Mono<RecordCounts> countRecords(@RequestHeader(name = TOKEN_HEADER, required = false) String token,
+                                           @RequestParam(required = false) List<String> groupBy,
+                                           @RequestParam(required = false) String label,
+                                           @RequestParam(required = false) String format,
+                                           @RequestParam(required = false) Integer releaseYear,
+                                           @RequestParam(required = false) String addedMonth) {
+        return Mono.defer(() -> Mono.fromFuture(endpoint.count(token,
+                RecordQueryParameters.countRecords(groupBy, label, format, releaseYear, addedMonth))));
+    }
+}
@@ -0,0 +1,161 @@
+package org.samba.recordstore.reactive;
+
+import eu.prismacapacity.spring.cqs.cmd.CommandValueResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.samba.recordstore.AddRecordPipeline;
+import org.samba.recordstore.AddRecordResult;
+import org.samba.recordstore.AddRecordsHandler;
+import org.samba.recordstore.PipelineSaturatedException;
+import org.samba.recordstore.RecordStoreController.ReceivedJsonToCommandMapper;
+import org.samba.recordstore.RecordStoreMetrics;
+import org.samba.recordstore.StoreClock;
+import org.samba.recordstore.catalog.FindRecordsHandler;
+import org.samba.recordstore.catalog.GetRecordHandler;
+import org.samba.recordstore.gen.model.RecordWrite;
+import org.samba.recordstore.history.GetRecordHistoryHandler;
+import org.samba.recordstore.search.SearchRecordsHandler;
+import org.samba.recordstore.stats.CountRecordsHandler;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReactiveRecordStoreControllerTest {
+
+    @Mock
+    AddRecordPipeline pipeline;
+
+    @Mock
+    AddRecordsHandler batchHandler;
+
+    @Mock
+    FindRecordsHandler findRecordsHandler;
+
+    @Mock
+    GetRecordHandler getRecordHandler;
+
+    @Mock
+    GetRecordHistoryHandler getRecordHistoryHandler;
+
+    @Mock
+    SearchRecordsHandler searchRecordsHandler;
+
+    @Mock
+    CountRecordsHandler countRecordsHandler;
+
+    ReactiveRecordStoreController uut;
+
+    @BeforeEach
+    void setUp() {
+        uut = new ReactiveRecordStoreController(
+                new ReactiveRecordPublisher(pipeline, batchHandler),
+                findRecordsHandler, getRecordHandler, getRecordHistoryHandler, searchRecordsHandler, countRecordsHandler,
+                Mappers.getMapper(ReceivedJsonToCommandMapper.class),
+                StoreClock.SYSTEM,
+                new RecordStoreMetrics(new SimpleMeterRegistry()));
+    }
+
+    @Test
+    public void recordIsSubmittedOnlyOnSubscription() {
+        // arrange
+        var recordId = UUID.randomUUID();
+        when(pipeline.submit(any())).thenReturn(CompletableFuture.completedFuture(AddRecordResult.accepted(0, recordId)));
+
+        // act
+        var response = uut.addRecord(Mono.just(recordWrite()), "key-1", null);
+        verifyNoInteractions(pipeline);
+        var result = response.block();
+
+        // assert
+        verify(pipeline).submit(argThat(cmd -> "key-1".equals(cmd.getIdempotencyKey())));
+        assertEquals(HttpStatus.OK, result.getStatusCode());
+        assertEquals(recordId, result.getBody().getRecordId());
+    }
+
+    @Test
+    public void saturatedPipelineIsPassedOn() {
+        // arrange
+        when(pipeline.submit(any())).thenReturn(CompletableFuture.failedFuture(new PipelineSaturatedException("busy")));
+
+        // act
+        var response = uut.addRecord(Mono.just(recordWrite()), null, null);
+
+        // assert
+        assertThrows(PipelineSaturatedException.class, response::block);
+    }
+
+    @Test
+    public void batchIsPublishedOffTheEventLoop() {
+        // arrange
+        var callers = new CompletableFuture<String>();
+        when(batchHandler.handle(any())).thenAnswer(invocation -> {
+            callers.complete(Thread.currentThread().getName());
+            return CommandValueResponse.of(null, List.of(
+                    AddRecordResult.accepted(0, UUID.randomUUID()),
+                    AddRecordResult.rejected(1, "artist must not be null")));
+        });
+
+        // act
+        var response = uut.addRecords(Flux.just(recordWrite(), new RecordWrite()), null).block();
+
+        // assert
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(1, response.getBody().getRejected());
+        assertTrue(callers.join().startsWith("boundedElastic"), callers.join());
+    }
+
+    @Test
+    public void oversizedBatchIsNotReadToTheEnd() {
+        // arrange
+        when(batchHandler.getMaxBatchSize()).thenReturn(2);
+        var read = new AtomicInteger();
+        when(batchHandler.handle(any())).thenAnswer(invocation -> {
+            throw new IllegalArgumentException("Batch contains 3 records, maximum is 2");
+        });
+
+        // act
+        var response = uut.addRecords(Flux.range(0, 1_000).map(i -> recordWrite()).doOnNext(it -> read.incrementAndGet()), null);
+
+        // assert
+        assertThrows(IllegalArgumentException.class, response::block);
+        verify(batchHandler).handle(argThat(cmd -> cmd.getRecords().size() == 3));
+        assertEquals(3, read.get());
+    }
+
+    @Test
+    public void unknownSearchFieldIsBadRequest() {
+        // act
+        var response = uut.searchRecords("floyd", "composer", false, null, null, null);
+
+        // assert
+        var thrown = assertThrows(ResponseStatusException.class, response::block);
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+        verifyNoInteractions(searchRecordsHandler);
+    }
+
+    private static RecordWrite recordWrite() {
+        return new RecordWrite()
+                .artist("The Dancing Monkeys")
+                .title("Dancing Time")
+                .label("Ape Records")
+                .format("12 inch")
+                .releaseDate(LocalDate.of(2020, 5, 20));
+    }
+}
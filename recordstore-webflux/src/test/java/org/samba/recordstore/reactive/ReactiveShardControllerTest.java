@@ -0,0 +1,60 @@
+package org.samba.recordstore.reactive;
+
+import org.junit.jupiter.api.Test;
+import org.samba.recordstore.catalog.RecordCatalogProjection;
+import org.samba.recordstore.search.RecordSearchIndex;
+import org.samba.recordstore.shard.ShardEndpoint;
+import org.samba.recordstore.stats.RecordStatisticsProjection;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.Validation;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReactiveShardControllerTest {
+
+    RecordCatalogProjection catalog = new RecordCatalogProjection();
+
+    ReactiveShardController uut = new ReactiveShardController(new ShardEndpoint(catalog,
+            new RecordSearchIndex(), new RecordStatisticsProjection(),
+            Validation.buildDefaultValidatorFactory().getValidator(), "shard-secret"));
+
+    @Test
+    public void shardIsReadWithTheToken() {
+        // act
+        var page = uut.findRecords("shard-secret", null, null, null, null, null, 10).block();
+        var search = uut.searchRecords("shard-secret", "floyd", null, true, null, null).block();
+
+        // assert
+        assertEquals(0, page.getTotal());
+        assertEquals(catalog.position(), search.getPosition());
+        assertTrue(search.getRecords().isEmpty());
+    }
+
+    @Test
+    public void pagesBeyondTheLimitsAreRejected() {
+        // arrange
+        var response = uut.findRecords("shard-secret", null, null, null, null, 10001, 10);
+
+        // act
+        var thrown = assertThrows(ResponseStatusException.class, response::block);
+
+        // assert
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
+    }
+
+    @Test
+    public void requestsWithoutTheTokenAreForbidden() {
+        // arrange
+        var response = uut.getRecord(null, UUID.randomUUID());
+
+        // act
+        var thrown = assertThrows(ResponseStatusException.class, response::block);
+
+        // assert
+        assertEquals(HttpStatus.FORBIDDEN, thrown.getStatus());
+    }
+}
@@ -26,4 +26,5 @@ public class AddRecord implements Command {
     private LocalDate releaseDate;
     @NotNull
     private ZonedDateTime addedToStore;
+    private String idempotencyKey;  // optional, without it the record's content (see RecordFingerprint) identifies a retry
 }
@@ -1,45 +1,41 @@
 package org.samba.recordstore;
 
-import eu.prismacapacity.spring.cqs.cmd.CommandHandler;
-import eu.prismacapacity.spring.cqs.cmd.CommandHandlingException;
 import eu.prismacapacity.spring.cqs.cmd.CommandVerificationException;
 import lombok.NonNull;
 import lombok.RequiredArgsConstructor;
-import org.factcast.factus.Factus;
 import org.mapstruct.Mapper;
-import org.mapstruct.factory.Mappers;
+import org.mapstruct.Mapping;
 import org.samba.recordstore.events.RecordAdded;
 import org.springframework.stereotype.Component;
 
 import java.util.UUID;
 
-import static java.time.ZonedDateTime.*;
-
+// The rule and the mapping of a single AddRecord. Publishing it, and recognizing a retry, is AddRecordsHandler's
+// job alone: a single record reaches it through AddRecordPipeline, so there is one dedup path.
 @Component  // TODO check stereotypes
 @RequiredArgsConstructor
-public class AddRecordHandler implements CommandHandler<AddRecord> {
+public class AddRecordHandler {
 
-    private final Factus factus;
+    private final RecordCommandToEventMapper mapper;
+    private final StoreClock clock;
 
-    @Override
     public void verify(@NonNull AddRecord addRecord) throws CommandVerificationException {
-        if (addRecord.getAddedToStore().isAfter(now())) {
+        if (addRecord.getAddedToStore().isAfter(clock.now())) {
             throw new IllegalArgumentException("Record can't ne added in the future");
         }
     }
 
-    // spring-cqs ensures that "verify" is called before "handle". Done using Aspects
-    @Override
-    public void handle(@NonNull AddRecord addRecord) throws CommandHandlingException {
-        RecordCommandToEventMapper mapper = Mappers.getMapper(RecordCommandToEventMapper.class);
+    // used by the batch handler, which publishes many events at once
+    public RecordAdded toEvent(@NonNull AddRecord addRecord) {
         RecordAdded event = mapper.commandToEvent(addRecord);
         event.setRecordId(UUID.randomUUID());
-        factus.publish(event);
+        return event;
     }
 
-    // TODO register DI in spring: @Mapper(componentModel = "spring")
-    @Mapper
+    // a singleton bean: Mappers.getMapper() does a class loader lookup + reflective instantiation on every call
+    @Mapper(componentModel = "spring")
     public interface RecordCommandToEventMapper {
+        @Mapping(target = "recordId", ignore = true)  // a new one per record, see toEvent
         RecordAdded commandToEvent(AddRecord cmd);
     }
 
@@ -0,0 +1,173 @@
+package org.samba.recordstore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.stream.Collectors;
+
+// Decouples the web threads from the FactCast round-trip:
+//
+//   controller --submit--> bounded queue --> publisher thread(s) --> AddRecordsHandler --> factus.publish(List)
+//
+// A publisher thread takes the first waiting command and then lingers a moment to collect
+// the commands arriving right after it. All of them go out with a single publish.
+// When the queue is full, submit fails fast (HTTP 503) instead of piling up requests.
+//
+// recordstore.threads.mode=virtual: the publisher threads only collect, every batch is published on a virtual
+// thread of its own, at most max-in-flight at a time. While those wait for FactCast the next batches are
+// collected already. With platform threads a publisher thread publishes its batch itself.
+@Slf4j
+@Component
+public class AddRecordPipeline {
+
+    private final AddRecordsHandler addRecordsHandler;
+    private final RecordStoreMetrics metrics;
+    private final BlockingQueue<PendingCommand> queue;
+    private final int maxBatchSize;
+    private final long lingerNanos;
+    private final int threads;
+    private final ExecutorService executor;
+    private final ThreadFactory batchThreads;  // null: publish on the publisher thread
+    private final int maxInFlight;
+    private final Semaphore inFlight;
+
+    private volatile boolean running = true;
+
+    public AddRecordPipeline(AddRecordsHandler addRecordsHandler,
+                             RecordStoreMetrics metrics,
+                             RecordStoreThreads recordStoreThreads,
+                             @Value("${recordstore.pipeline.queue-capacity:10000}") int queueCapacity,
+                             @Value("${recordstore.pipeline.max-batch-size:500}") int maxBatchSize,
+                             @Value("${recordstore.pipeline.linger-millis:2}") long lingerMillis,
+                             @Value("${recordstore.pipeline.threads:2}") int threads,
+                             @Value("${recordstore.pipeline.max-in-flight:64}") int maxInFlight) {
+        this.addRecordsHandler = addRecordsHandler;
+        this.metrics = metrics;
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        metrics.queue(queue);
+        this.maxBatchSize = maxBatchSize;
+        this.lingerNanos = TimeUnit.MILLISECONDS.toNanos(lingerMillis);
+        this.threads = threads;
+        this.executor = Executors.newFixedThreadPool(threads, recordStoreThreads.factory("record-publisher"));
+        this.batchThreads = recordStoreThreads.isVirtual() ? recordStoreThreads.factory("record-batch") : null;
+        this.maxInFlight = maxInFlight;
+        this.inFlight = new Semaphore(maxInFlight);
+    }
+
+    public CompletableFuture<AddRecordResult> submit(AddRecord addRecord) {
+        var pending = new PendingCommand(addRecord, new CompletableFuture<>(), System.nanoTime());
+        if (!running || !queue.offer(pending)) {
+            var saturated = new PipelineSaturatedException("Too many records waiting to be published, try again later");
+            metrics.failure("queue", saturated);
+            return CompletableFuture.failedFuture(saturated);
+        }
+        return pending.getResult();
+    }
+
+    @PostConstruct
+    public void start() {
+        for (int i = 0; i < threads; i++) {
+            executor.execute(this::publishLoop);
+        }
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        // batches which are still on their way to FactCast
+        if (inFlight.tryAcquire(maxInFlight, 5, TimeUnit.SECONDS)) {
+            inFlight.release(maxInFlight);
+        }
+
+        var unpublished = new ArrayList<PendingCommand>();
+        queue.drainTo(unpublished);
+        unpublished.forEach(it -> it.getResult().completeExceptionally(
+                new PipelineSaturatedException("Record store is shutting down")));
+    }
+
+    private void publishLoop() {
+        var batch = new ArrayList<PendingCommand>(maxBatchSize);
+        while (running) {
+            try {
+                batch.add(queue.take());
+                collectFollowers(batch);
+                if (batchThreads == null) {
+                    publish(batch);
+                } else {
+                    publishInBackground(List.copyOf(batch));
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // coalescing: whatever is already waiting plus what arrives within the linger time
+    private void collectFollowers(List<PendingCommand> batch) throws InterruptedException {
+        var deadline = System.nanoTime() + lingerNanos;
+        while (batch.size() < maxBatchSize) {
+            if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                continue;
+            }
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return;
+            }
+            var next = queue.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    // blocks while max-in-flight batches are being published, the queue then fills up and submit fails fast
+    private void publishInBackground(List<PendingCommand> batch) throws InterruptedException {
+        inFlight.acquire();
+        batchThreads.newThread(() -> {
+            try {
+                publish(batch);
+            } finally {
+                inFlight.release();
+            }
+        }).start();
+    }
+
+    private void publish(List<PendingCommand> batch) {
+        var taken = System.nanoTime();
+        batch.forEach(it -> metrics.record("queue", taken - it.getEnqueued()));
+
+        var commands = batch.stream()
+                .map(PendingCommand::getCommand)
+                .collect(Collectors.toList());
+        try {
+            // results come back in the order of the commands
+            var results = addRecordsHandler.handle(AddRecords.of(commands)).getValue();
+            for (int i = 0; i < batch.size(); i++) {
+                batch.get(i).getResult().complete(results.get(i));
+            }
+        } catch (RuntimeException e) {
+            log.warn("Publishing {} coalesced records failed", batch.size(), e);
+            metrics.failure("pipeline", e);
+            batch.forEach(it -> it.getResult().completeExceptionally(e));
+        }
+    }
+
+    @lombok.Value
+    private static class PendingCommand {
+        AddRecord command;
+        CompletableFuture<AddRecordResult> result;
+        long enqueued;
+    }
+}
@@ -0,0 +1,36 @@
+package org.samba.recordstore;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+
+import java.util.UUID;
+
+// outcome for a single record of a batch, "index" is the position of the record in the batch
+@Value
+@AllArgsConstructor(access = AccessLevel.PRIVATE)
+public class AddRecordResult {
+
+    public enum Status {
+        ACCEPTED,   // published to FactCast, in write-behind mode: in the journal
+        REJECTED,   // failed validation/ verification, never published
+        FAILED      // valid, but publishing the chunk it was part of failed
+    }
+
+    int index;
+    UUID recordId;
+    Status status;
+    String error;
+
+    public static AddRecordResult accepted(int index, UUID recordId) {
+        return new AddRecordResult(index, recordId, Status.ACCEPTED, null);
+    }
+
+    public static AddRecordResult rejected(int index, String error) {
+        return new AddRecordResult(index, null, Status.REJECTED, error);
+    }
+
+    public static AddRecordResult failed(int index, String error) {
+        return new AddRecordResult(index, null, Status.FAILED, error);
+    }
+}
@@ -0,0 +1,66 @@
+package org.samba.recordstore;
+
+import eu.prismacapacity.spring.cqs.Violations;
+import eu.prismacapacity.spring.cqs.cmd.CommandVerificationException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.validation.Validator;
+
+// Checks a single AddRecord: the javax.validation constraints of AddRecord plus AddRecordHandler.verify.
+//
+// Fast path: the constraints written out by hand, a few null checks and one clock read, no allocation.
+// Only a record failing it goes through javax.validation (reflective, builds a violation set, interpolates
+// messages), so a broken record gets the very same error as before. recordstore.validation.fast-path=false
+// always takes the reflective way.
+// AddRecordValidatorTest breaks when AddRecord gets a constraint the fast path does not know about.
+@Component
+public class AddRecordValidator {
+
+    private final Validator validator;
+    private final AddRecordHandler addRecordHandler;
+    private final StoreClock clock;
+    private final boolean fastPath;
+
+    public AddRecordValidator(Validator validator,
+                              AddRecordHandler addRecordHandler,
+                              StoreClock clock,
+                              @Value("${recordstore.validation.fast-path:true}") boolean fastPath) {
+        this.validator = validator;
+        this.addRecordHandler = addRecordHandler;
+        this.clock = clock;
+        this.fastPath = fastPath;
+    }
+
+    // null if the record is valid, otherwise the reason
+    public String validate(AddRecord addRecord) {
+        if (fastPath && isValid(addRecord)) {
+            return null;
+        }
+        return validateReflectively(addRecord);
+    }
+
+    // the @NotNull fields of AddRecord, then the rule of AddRecordHandler.verify
+    boolean isValid(AddRecord addRecord) {
+        return addRecord.getArtist() != null
+                && addRecord.getTitle() != null
+                && addRecord.getLabel() != null
+                && addRecord.getFormat() != null
+                && addRecord.getReleaseDate() != null
+                && addRecord.getAddedToStore() != null
+                && !addRecord.getAddedToStore().isAfter(clock.now());
+    }
+
+    String validateReflectively(AddRecord addRecord) {
+        var violations = validator.validate(addRecord);
+        if (!violations.isEmpty()) {
+            return Violations.render(violations);
+        }
+        try {
+            addRecordHandler.verify(addRecord);
+            return null;
+        } catch (IllegalArgumentException | CommandVerificationException e) {
+            return e.getMessage();
+        }
+    }
+}
@@ -0,0 +1,15 @@
+package org.samba.recordstore;
+
+import eu.prismacapacity.spring.cqs.cmd.Command;
+import lombok.Value;
+
+import javax.validation.constraints.NotNull;
+import java.util.List;
+
+// the single records are deliberately not annotated with @Valid:
+// one broken record must not reject the whole batch, so they are validated one by one in the handler
+@Value(staticConstructor = "of")
+public class AddRecords implements Command {
+    @NotNull
+    List<AddRecord> records;
+}
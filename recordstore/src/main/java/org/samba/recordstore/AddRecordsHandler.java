@@ -0,0 +1,168 @@
+package org.samba.recordstore;
+
+import eu.prismacapacity.spring.cqs.cmd.CommandHandlingException;
+import eu.prismacapacity.spring.cqs.cmd.CommandValueResponse;
+import eu.prismacapacity.spring.cqs.cmd.CommandVerificationException;
+import eu.prismacapacity.spring.cqs.cmd.RespondingCommandHandler;
+import lombok.NonNull;
+import lombok.extern.slf4j.Slf4j;
+import org.factcast.factus.Factus;
+import org.factcast.factus.event.EventObject;
+import org.samba.recordstore.dedup.RecordFingerprint;
+import org.samba.recordstore.dedup.RecordFingerprintIndex;
+import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.journal.WriteBehindPublisher;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+
+// Publishes a whole batch of records with as few FactCast round-trips as possible:
+// every chunk of "recordstore.batch.chunk-size" events is sent with a single factus.publish(List).
+// In write-behind mode the chunks go into the local journal instead, see WriteBehindPublisher
+@Slf4j
+@Component
+public class AddRecordsHandler implements RespondingCommandHandler<AddRecords, List<AddRecordResult>> {
+
+    private final Factus factus;
+    private final AddRecordHandler addRecordHandler;
+    private final AddRecordValidator validator;
+    private final RecordFingerprintIndex fingerprints;
+    private final RecordStoreMetrics metrics;
+    private final WriteBehindPublisher writeBehind;  // null: publish directly
+    private final int chunkSize;
+    private final int maxBatchSize;
+
+    public AddRecordsHandler(Factus factus,
+                             AddRecordHandler addRecordHandler,
+                             AddRecordValidator validator,
+                             RecordFingerprintIndex fingerprints,
+                             RecordStoreMetrics metrics,
+                             Optional<WriteBehindPublisher> writeBehind,
+                             @Value("${recordstore.batch.chunk-size:500}") int chunkSize,
+                             @Value("${recordstore.batch.max-size:50000}") int maxBatchSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("recordstore.batch.chunk-size must be positive");
+        }
+        this.factus = factus;
+        this.addRecordHandler = addRecordHandler;
+        this.validator = validator;
+        this.fingerprints = fingerprints;
+        this.metrics = metrics;
+        this.writeBehind = writeBehind.orElse(null);
+        this.chunkSize = chunkSize;
+        this.maxBatchSize = maxBatchSize;
+    }
+
+    // lets a streaming caller stop reading a body as soon as it is too big
+    public int getMaxBatchSize() {
+        return maxBatchSize;
+    }
+
+    @Override
+    public void verify(@NonNull AddRecords addRecords) throws CommandVerificationException {
+        var size = addRecords.getRecords().size();
+        if (size == 0) {
+            throw new IllegalArgumentException("Batch does not contain any record");
+        }
+        if (size > maxBatchSize) {
+            throw new IllegalArgumentException("Batch contains " + size + " records, maximum is " + maxBatchSize);
+        }
+    }
+
+    @Override
+    public CommandValueResponse<List<AddRecordResult>> handle(@NonNull AddRecords addRecords) throws CommandHandlingException {
+        var records = addRecords.getRecords();
+        var results = new AddRecordResult[records.size()];
+
+        // 1. validate the whole batch up front, only valid records make it into a chunk.
+        // Retries (also within the same batch) get the id of the original record and are not published again
+        var indices = new ArrayList<Integer>(records.size());
+        var retries = new ArrayList<Integer>();
+        var originals = new ArrayList<CompletableFuture<UUID>>();
+        var events = new ArrayList<RecordAdded>(records.size());
+        var fingerprintsOfEvents = new long[records.size()];
+        for (int i = 0; i < records.size(); i++) {
+            var record = records.get(i);
+            var error = metrics.time("verify", () -> validator.validate(record));
+            if (error != null) {
+                results[i] = AddRecordResult.rejected(i, error);
+                continue;
+            }
+            var event = metrics.time("map-event", () -> addRecordHandler.toEvent(record));
+            var fingerprint = RecordFingerprint.of(record);
+            var original = fingerprints.reserve(fingerprint, event.getRecordId());
+            if (original != null) {
+                retries.add(i);
+                originals.add(original);
+                continue;
+            }
+            fingerprintsOfEvents[events.size()] = fingerprint;
+            indices.add(i);
+            events.add(event);
+        }
+
+        // 2. one publish (or journal append) per chunk. A failing chunk only fails its own records
+        for (int from = 0; from < events.size(); from += chunkSize) {
+            var to = Math.min(from + chunkSize, events.size());
+            var chunk = events.subList(from, to);
+            try {
+                publish(chunk);
+                for (int i = from; i < to; i++) {
+                    fingerprints.confirm(fingerprintsOfEvents[i], events.get(i).getRecordId());
+                    results[indices.get(i)] = AddRecordResult.accepted(indices.get(i), events.get(i).getRecordId());
+                }
+            } catch (RuntimeException e) {
+                log.warn("Publishing chunk of {} records failed", chunk.size(), e);
+                metrics.failure("publish", e);
+                for (int i = from; i < to; i++) {
+                    fingerprints.release(fingerprintsOfEvents[i], events.get(i).getRecordId());
+                    results[indices.get(i)] = AddRecordResult.failed(indices.get(i), e.getMessage());
+                }
+            }
+        }
+
+        // 3. retries of records still in flight (here or in another request) share the outcome of the original.
+        // Only waits for publishes already running, this batch's own chunks are done
+        for (int r = 0; r < retries.size(); r++) {
+            var i = retries.get(r);
+            try {
+                results[i] = AddRecordResult.accepted(i, originals.get(r).join());
+            } catch (CompletionException e) {
+                results[i] = AddRecordResult.failed(i, e.getCause().getMessage());
+            }
+        }
+
+        countByStatus(results);
+
+        // no state token, the result is not meant to be read back from a projection
+        return CommandValueResponse.of(null, Arrays.asList(results));
+    }
+
+    private void publish(List<RecordAdded> chunk) {
+        if (writeBehind != null) {
+            metrics.time("journal", () -> writeBehind.append(chunk));
+            return;
+        }
+        metrics.publishBatch(chunk.size());
+        metrics.time("publish", () -> factus.publish(new ArrayList<EventObject>(chunk)));
+    }
+
+    private void countByStatus(AddRecordResult[] results) {
+        var counts = new int[AddRecordResult.Status.values().length];
+        for (var result : results) {
+            counts[result.getStatus().ordinal()]++;
+        }
+        for (var status : AddRecordResult.Status.values()) {
+            if (counts[status.ordinal()] > 0) {
+                metrics.records(status, counts[status.ordinal()]);
+            }
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package org.samba.recordstore;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+// One background thread updates the time every tick, readers just get the cached instance.
+// ZonedDateTime.now() looks up the default zone and allocates on each call, at 20k req/s this adds up.
+// Precision is the tick (1ms by default), which is plenty for addedToStore.
+public class CachedStoreClock implements StoreClock {
+
+    private final ZoneId zone = ZoneId.systemDefault();
+    private final long tickMillis;
+    private final ScheduledExecutorService ticker = Executors.newSingleThreadScheduledExecutor(runnable -> {
+        var thread = new Thread(runnable, "store-clock");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    private volatile ZonedDateTime now = ZonedDateTime.now(zone);
+
+    public CachedStoreClock(long tickMillis) {
+        if (tickMillis < 1) {
+            throw new IllegalArgumentException("recordstore.clock.tick-millis must be positive");
+        }
+        this.tickMillis = tickMillis;
+    }
+
+    @PostConstruct
+    public void start() {
+        ticker.scheduleAtFixedRate(() -> now = ZonedDateTime.now(zone), tickMillis, tickMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        ticker.shutdownNow();
+    }
+
+    @Override
+    public ZonedDateTime now() {
+        return now;
+    }
+}
@@ -0,0 +1,26 @@
+package org.samba.recordstore;
+
+import io.micrometer.core.instrument.Meter;
+import io.micrometer.core.instrument.config.MeterFilter;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.Set;
+
+@Configuration
+public class MetricsConfiguration {
+
+    // spring-cqs registers its handler timers once without tags and then times every call with a "class" tag.
+    // Prometheus refuses one name with two sets of tag keys, the first command would fail. The untagged ones
+    // never record anything, so they are dropped.
+    @Bean
+    public MeterFilter untaggedCqsTimers(
+            @Value("${cqs.command.timer-name:commandHandler.timed}") String commandTimer,
+            @Value("${cqs.query.timer-name:queryHandler.timed}") String queryTimer) {
+        var names = Set.of(commandTimer, queryTimer);
+        return MeterFilter.deny(id -> id.getType() == Meter.Type.TIMER
+                && names.contains(id.getName())
+                && id.getTag("class") == null);
+    }
+}
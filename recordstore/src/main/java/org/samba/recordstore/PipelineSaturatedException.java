@@ -0,0 +1,12 @@
+package org.samba.recordstore;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// the node is busy: tell the client to come back later instead of queueing without limit
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class PipelineSaturatedException extends RuntimeException {
+    public PipelineSaturatedException(String message) {
+        super(message);
+    }
+}
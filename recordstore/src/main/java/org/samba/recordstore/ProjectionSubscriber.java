@@ -0,0 +1,30 @@
+package org.samba.recordstore;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.factcast.factus.Factus;
+import org.factcast.factus.projection.SubscribedProjection;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Subscribed projections are not picked up by Factus on their own, someone has to call subscribe().
+// Done once the application is up, the subscription then catches up in the background.
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class ProjectionSubscriber {
+
+    private final Factus factus;
+    private final List<SubscribedProjection> projections;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void subscribe() {
+        projections.forEach(projection -> {
+            log.info("Subscribing {}", projection.getClass().getSimpleName());
+            factus.subscribe(projection);
+        });
+    }
+}
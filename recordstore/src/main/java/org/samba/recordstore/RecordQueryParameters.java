@@ -0,0 +1,88 @@
+package org.samba.recordstore;
+
+import org.samba.recordstore.catalog.CatalogPosition;
+import org.samba.recordstore.catalog.FindRecords;
+import org.samba.recordstore.search.SearchField;
+import org.samba.recordstore.search.SearchRecords;
+import org.samba.recordstore.stats.CountRecords;
+import org.samba.recordstore.stats.StatisticsDimension;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
+
+import java.time.YearMonth;
+import java.time.format.DateTimeParseException;
+import java.util.List;
+import java.util.Locale;
+
+// Query parameters -> queries, and the catalogue position -> response headers. Shared by the Spring MVC
+// and the WebFlux controller, so both answer the same request the same way. Bad parameters are a 400.
+public final class RecordQueryParameters {
+
+    private RecordQueryParameters() {
+    }
+
+    public static FindRecords findRecords(String artist, String label, String format, Integer releaseYear, Integer offset, Integer limit) {
+        var query = FindRecords.builder()
+                .artist(artist)
+                .label(label)
+                .format(format)
+                .releaseYear(releaseYear);
+        if (offset != null) {
+            query.offset(offset);
+        }
+        if (limit != null) {
+            query.limit(limit);
+        }
+        return query.build();
+    }
+
+    public static SearchRecords searchRecords(String q, String field, Boolean fuzzy, Integer offset, Integer limit) {
+        var query = SearchRecords.builder()
+                .text(q)
+                .fuzzy(Boolean.TRUE.equals(fuzzy));
+        try {
+            if (field != null) {
+                query.field(SearchField.valueOf(field.toUpperCase(Locale.ROOT)));
+            }
+        } catch (IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        if (offset != null) {
+            query.offset(offset);
+        }
+        if (limit != null) {
+            query.limit(limit);
+        }
+        return query.build();
+    }
+
+    public static CountRecords countRecords(List<String> groupBy, String label, String format, Integer releaseYear, String addedMonth) {
+        var query = CountRecords.builder()
+                .label(label)
+                .format(format)
+                .releaseYear(releaseYear);
+        try {
+            if (addedMonth != null) {
+                query.addedMonth(YearMonth.parse(addedMonth));
+            }
+            if (groupBy != null) {
+                // releaseYear -> RELEASE_YEAR
+                groupBy.forEach(dimension -> query.groupBy(
+                        StatisticsDimension.valueOf(dimension.replaceAll("([A-Z])", "_$1").toUpperCase(Locale.ROOT))));
+            }
+        } catch (DateTimeParseException | IllegalArgumentException e) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, e.getMessage());
+        }
+        return query.build();
+    }
+
+    public static HttpHeaders positionHeaders(CatalogPosition position) {
+        var headers = new HttpHeaders();
+        if (position.getFactId() != null) {
+            headers.set("X-Catalog-Fact-Id", position.getFactId().toString());
+        }
+        headers.set("X-Catalog-Serial", Long.toString(position.getSerial()));
+        return headers;
+    }
+}
@@ -2,44 +2,192 @@ package org.samba.recordstore;
 
 import lombok.RequiredArgsConstructor;
 import org.mapstruct.AfterMapping;
+import org.mapstruct.Context;
 import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
 import org.mapstruct.MappingTarget;
-import org.mapstruct.factory.Mappers;
+import org.samba.recordstore.catalog.*;
+import org.samba.recordstore.history.GetRecordHistory;
+import org.samba.recordstore.history.GetRecordHistoryHandler;
+import org.samba.recordstore.history.RecordAggregate;
+import org.samba.recordstore.search.SearchRecordsHandler;
+import org.samba.recordstore.stats.CountRecordsHandler;
+import org.samba.recordstore.stats.RecordCount;
+import org.samba.recordstore.gen.model.RecordBatchItemResult;
+import org.samba.recordstore.gen.model.RecordBatchResult;
+import org.samba.recordstore.gen.model.RecordCounts;
+import org.samba.recordstore.gen.model.RecordHistory;
+import org.samba.recordstore.gen.model.RecordPage;
 import org.samba.recordstore.gen.model.RecordRead;
+import org.samba.recordstore.gen.model.RecordSearchPage;
 import org.samba.recordstore.gen.model.RecordWrite;
 import org.samba.recordstore.gen.rest.RecordstoreApi;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.server.ResponseStatusException;
 
 import javax.validation.Valid;
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
 import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static org.samba.recordstore.RecordQueryParameters.positionHeaders;
 
 @RestController
 @RequiredArgsConstructor
 public class RecordStoreController implements RecordstoreApi {
 
-    private final AddRecordHandler addRecordHandler;
+    private final AddRecordPipeline addRecordPipeline;
+    private final AddRecordsHandler addRecordsHandler;
+    private final FindRecordsHandler findRecordsHandler;
+    private final GetRecordHandler getRecordHandler;
+    private final GetRecordHistoryHandler getRecordHistoryHandler;
+    private final SearchRecordsHandler searchRecordsHandler;
+    private final CountRecordsHandler countRecordsHandler;
+    private final ReceivedJsonToCommandMapper mapper;
+    private final StoreClock clock;
+    private final RecordStoreMetrics metrics;
+
+    @Override
+    public CompletableFuture<ResponseEntity<RecordRead>> addRecord(@Valid RecordWrite recordWrite, String idempotencyKey) {
+        var start = System.nanoTime();
+        var cmd = metrics.time("map-json", () -> mapper.addRecordJsonToCommand(recordWrite, clock).setIdempotencyKey(idempotencyKey));
+
+        // the servlet thread is released here, the response is written once the record was published
+        return addRecordPipeline.submit(cmd)
+                .whenComplete((result, e) -> metrics.record("request", System.nanoTime() - start))
+                .thenApply(result -> {
+                    switch (result.getStatus()) {
+                        case REJECTED:
+                            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, result.getError());
+                        case FAILED:
+                            throw new ResponseStatusException(HttpStatus.SERVICE_UNAVAILABLE, result.getError());
+                        default:
+                            return ResponseEntity
+                                    .ok()
+                                    .body(mapper.addRecordJsonToResponse(recordWrite).recordId(result.getRecordId()));
+                    }
+                });
+    }
 
     @Override
-    public ResponseEntity<RecordRead> addRecord(@Valid RecordWrite recordWrite) {
-        var mapper = Mappers.getMapper(ReceivedJsonToCommandMapper.class);
-        var cmd = mapper.addRecordJsonToCommand(recordWrite);
+    public CompletableFuture<ResponseEntity<RecordBatchResult>> addRecords(@Valid List<RecordWrite> recordWrites) {
+        var start = System.nanoTime();
+        var cmd = AddRecords.of(recordWrites.stream()
+                .map(recordWrite -> metrics.time("map-json", () -> mapper.addRecordJsonToCommand(recordWrite, clock)))
+                .collect(Collectors.toList()));
 
-        addRecordHandler.handle(cmd);
+        var results = addRecordsHandler.handle(cmd).getValue();
+        metrics.record("request-batch", System.nanoTime() - start);
 
-        return ResponseEntity
+        var body = new RecordBatchResult()
+                .accepted(count(results, AddRecordResult.Status.ACCEPTED))
+                .rejected(count(results, AddRecordResult.Status.REJECTED))
+                .failed(count(results, AddRecordResult.Status.FAILED))
+                .items(results.stream()
+                        .map(mapper::addRecordResultToResponse)
+                        .collect(Collectors.toList()));
+
+        // 207: the client has to look at the single items to find out what went wrong
+        var status = body.getAccepted() == results.size() ? HttpStatus.OK : HttpStatus.MULTI_STATUS;
+        // a batch is big enough on its own, it is not coalesced with anything else
+        return CompletableFuture.completedFuture(ResponseEntity
+                .status(status)
+                .body(body));
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<RecordPage>> findRecords(String artist, String label, String format, Integer releaseYear, Integer offset, Integer limit) {
+        var page = findRecordsHandler.handle(RecordQueryParameters.findRecords(artist, label, format, releaseYear, offset, limit));
+
+        // the catalogue is in memory, there is nothing to wait for
+        return CompletableFuture.completedFuture(ResponseEntity
+                .ok()
+                .headers(positionHeaders(page.getPosition()))
+                .body(mapper.pageToResponse(page)));
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<RecordSearchPage>> searchRecords(String q, String field, Boolean fuzzy, Integer offset, Integer limit) {
+        var page = searchRecordsHandler.handle(RecordQueryParameters.searchRecords(q, field, fuzzy, offset, limit));
+
+        return CompletableFuture.completedFuture(ResponseEntity
                 .ok()
-                .body(mapper.addRecordJsonToResponse(recordWrite));
+                .headers(positionHeaders(page.getPosition()))
+                .body(mapper.searchPageToResponse(page)));
     }
 
-    @Mapper
+    @Override
+    public CompletableFuture<ResponseEntity<RecordCounts>> countRecords(List<String> groupBy, String label, String format, Integer releaseYear, String addedMonth) {
+        var counts = countRecordsHandler.handle(RecordQueryParameters.countRecords(groupBy, label, format, releaseYear, addedMonth));
+
+        return CompletableFuture.completedFuture(ResponseEntity
+                .ok()
+                .headers(positionHeaders(counts.getPosition()))
+                .body(mapper.countsToResponse(counts)));
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<RecordRead>> getRecord(UUID recordId) {
+        var lookup = getRecordHandler.handle(GetRecord.of(recordId));
+
+        var headers = positionHeaders(lookup.getPosition());
+        var response = lookup.getRecord()
+                .map(record -> ResponseEntity.ok().headers(headers).body(mapper.catalogRecordToResponse(record)))
+                // could also be a record which was added but is not yet in the catalogue, the headers tell
+                .orElseGet(() -> ResponseEntity.notFound().headers(headers).build());
+        return CompletableFuture.completedFuture(response);
+    }
+
+    @Override
+    public CompletableFuture<ResponseEntity<RecordHistory>> getRecordHistory(UUID recordId) {
+        var response = getRecordHistoryHandler.handle(GetRecordHistory.of(recordId))
+                .map(aggregate -> ResponseEntity.ok(mapper.aggregateToResponse(aggregate)))
+                .orElseGet(() -> ResponseEntity.notFound().build());
+        return CompletableFuture.completedFuture(response);
+    }
+
+    private static int count(List<AddRecordResult> results, AddRecordResult.Status status) {
+        return (int) results.stream().filter(it -> it.getStatus() == status).count();
+    }
+
+    @Mapper(componentModel = "spring")
     public interface ReceivedJsonToCommandMapper {
-        AddRecord addRecordJsonToCommand(RecordWrite receivedJson);
+        @Mapping(target = "addedToStore", ignore = true)  // see fillField
+        @Mapping(target = "idempotencyKey", ignore = true)  // a header, not part of the JSON
+        AddRecord addRecordJsonToCommand(RecordWrite receivedJson, @Context StoreClock clock);
+        // recordId comes from the result; factId and factSerial: the record is not published yet
+        @Mapping(target = "recordId", ignore = true)
+        @Mapping(target = "addedToStore", ignore = true)
+        @Mapping(target = "factId", ignore = true)
+        @Mapping(target = "factSerial", ignore = true)
         RecordRead addRecordJsonToResponse(RecordWrite receivedJson);
+        RecordBatchItemResult addRecordResultToResponse(AddRecordResult result);
+        @Mapping(source = "serial", target = "factSerial")
+        @Mapping(target = "factId", ignore = true)  // the catalogue only keeps the serial
+        RecordRead catalogRecordToResponse(CatalogRecord record);
+        RecordHistory aggregateToResponse(RecordAggregate aggregate);
+        RecordPage pageToResponse(org.samba.recordstore.catalog.RecordPage page);
+        RecordSearchPage searchPageToResponse(org.samba.recordstore.search.RecordSearchPage page);
+        RecordCounts countsToResponse(org.samba.recordstore.stats.RecordCounts counts);
+        org.samba.recordstore.gen.model.RecordCount recordCountToResponse(RecordCount count);
+
+        default OffsetDateTime toOffsetDateTime(ZonedDateTime zonedDateTime) {
+            return zonedDateTime == null ? null : zonedDateTime.toOffsetDateTime();
+        }
+
+        default String toString(YearMonth month) {
+            return month == null ? null : month.toString();
+        }
 
         @AfterMapping
-        default void fillField(@MappingTarget AddRecord addRecord, RecordWrite receivedJson) {
-            addRecord.setAddedToStore(ZonedDateTime.now());
+        default void fillField(@MappingTarget AddRecord addRecord, @Context StoreClock clock) {
+            addRecord.setAddedToStore(clock.now());
         }
     }
 }
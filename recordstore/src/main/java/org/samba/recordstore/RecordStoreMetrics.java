@@ -0,0 +1,95 @@
+package org.samba.recordstore;
+
+import io.micrometer.core.instrument.*;
+import org.samba.recordstore.journal.RecordJournal;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+// Meters of the write path, all below "recordstore.write":
+//
+//   request        controller until the response is ready (single record incl. waiting in the pipeline)
+//   request-batch  the same for a whole batch
+//   map-json       RecordWrite -> AddRecord
+//   queue          waiting in the AddRecordPipeline until a publisher thread takes the record
+//   verify         javax validation + AddRecordHandler.verify
+//   map-event      AddRecord -> RecordAdded
+//   publish        factus.publish of one chunk
+//   journal        appending a chunk to the RecordJournal (write-behind mode, publish then happens in the background)
+//
+// Timers publish p50/p95/p99 plus a histogram, so percentiles can also be aggregated across nodes in Prometheus.
+@Component
+public class RecordStoreMetrics {
+
+    public static final String STAGE_TIMER = "recordstore.write.stage";
+
+    private final MeterRegistry registry;
+    private final ConcurrentHashMap<String, Timer> stages = new ConcurrentHashMap<>();
+    private final DistributionSummary publishBatchSize;
+
+    public RecordStoreMetrics(MeterRegistry registry) {
+        this.registry = registry;
+        this.publishBatchSize = DistributionSummary.builder("recordstore.write.publish.batch.size")
+                .description("number of records published with a single factus.publish")
+                .publishPercentiles(0.5, 0.99)
+                .register(registry);
+    }
+
+    public <T> T time(String stage, Supplier<T> supplier) {
+        var start = System.nanoTime();
+        try {
+            return supplier.get();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void time(String stage, Runnable runnable) {
+        var start = System.nanoTime();
+        try {
+            runnable.run();
+        } finally {
+            record(stage, System.nanoTime() - start);
+        }
+    }
+
+    public void record(String stage, long nanos) {
+        stages.computeIfAbsent(stage, this::stageTimer).record(nanos, TimeUnit.NANOSECONDS);
+    }
+
+    public void publishBatch(int size) {
+        publishBatchSize.record(size);
+    }
+
+    public void records(AddRecordResult.Status status, int count) {
+        registry.counter("recordstore.write.records", "status", status.name().toLowerCase()).increment(count);
+    }
+
+    // cause is the exception class, messages would explode the number of time series
+    public void failure(String stage, Throwable cause) {
+        registry.counter("recordstore.write.failures", "stage", stage, "cause", cause.getClass().getSimpleName()).increment();
+    }
+
+    public void queue(Collection<?> queue) {
+        Gauge.builder("recordstore.write.queue.size", queue, Collection::size).register(registry);
+    }
+
+    public void journal(RecordJournal journal) {
+        Gauge.builder("recordstore.write.journal.unpublished", journal, RecordJournal::unpublished)
+                .description("records acknowledged to clients but not yet published to FactCast")
+                .register(registry);
+    }
+
+    private Timer stageTimer(String stage) {
+        return Timer.builder(STAGE_TIMER)
+                .tag("stage", stage)
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .publishPercentileHistogram()
+                .maximumExpectedValue(Duration.ofSeconds(10))
+                .register(registry);
+    }
+}
@@ -0,0 +1,109 @@
+package org.samba.recordstore;
+
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+
+// recordstore.threads.mode:
+//   platform (default) - ordinary threads, Tomcat's pool of recordstore-sized worker threads
+//   virtual            - a virtual thread per request and per published batch, needs a JDK with virtual threads (21+)
+//
+// The code is compiled for Java 11, so virtual threads are created via reflection.
+// Most of a request is spent waiting for FactCast, a blocked virtual thread does not hold on to an OS thread.
+@Slf4j
+@Component
+public class RecordStoreThreads {
+
+    private final boolean virtual;
+
+    public RecordStoreThreads(@Value("${recordstore.threads.mode:platform}") String mode) {
+        switch (mode) {
+            case "platform":
+                virtual = false;
+                break;
+            case "virtual":
+                virtual = true;
+                VirtualThreads.requireSupport();
+                break;
+            default:
+                throw new IllegalArgumentException("Unknown recordstore.threads.mode " + mode + ", use platform or virtual");
+        }
+        log.info("Using {} threads", mode);
+    }
+
+    public static RecordStoreThreads platform() {
+        return new RecordStoreThreads("platform");
+    }
+
+    public boolean isVirtual() {
+        return virtual;
+    }
+
+    // daemon threads named name-1, name-2, ...
+    public ThreadFactory factory(String name) {
+        return virtual ? VirtualThreads.factory(name + "-") : new PlatformThreadFactory(name + "-");
+    }
+
+    private static class PlatformThreadFactory implements ThreadFactory {
+        private final String prefix;
+        private final AtomicInteger counter = new AtomicInteger();
+
+        PlatformThreadFactory(String prefix) {
+            this.prefix = prefix;
+        }
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            var thread = new Thread(runnable, prefix + counter.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+    }
+
+    // Thread.ofVirtual().name(prefix, 1).factory(), without compiling against it
+    private static final class VirtualThreads {
+
+        private static final Method OF_VIRTUAL;
+        private static final Method NAME;
+        private static final Method FACTORY;
+
+        static {
+            Method ofVirtual = null;
+            Method name = null;
+            Method factory = null;
+            try {
+                var builder = Class.forName("java.lang.Thread$Builder");
+                ofVirtual = Thread.class.getMethod("ofVirtual");
+                name = builder.getMethod("name", String.class, long.class);
+                factory = builder.getMethod("factory");
+            } catch (ReflectiveOperationException e) {
+                // JDK without virtual threads, see requireSupport()
+            }
+            OF_VIRTUAL = ofVirtual;
+            NAME = name;
+            FACTORY = factory;
+        }
+
+        static void requireSupport() {
+            if (OF_VIRTUAL == null) {
+                throw new IllegalStateException("recordstore.threads.mode virtual needs a JDK with virtual threads, this is "
+                        + System.getProperty("java.version"));
+            }
+        }
+
+        static ThreadFactory factory(String prefix) {
+            requireSupport();
+            try {
+                var builder = OF_VIRTUAL.invoke(null);
+                NAME.invoke(builder, prefix, 1L);
+                return (ThreadFactory) FACTORY.invoke(builder);
+            } catch (ReflectiveOperationException e) {
+                throw new IllegalStateException("Could not create virtual threads", e);
+            }
+        }
+    }
+}
@@ -6,9 +6,11 @@ import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 // TODO come up with local setup
 @SpringBootApplication
+@EnableScheduling  // catalogue snapshots
 public class RecordstoreApplication {
     public static void main(String[] args) {
         SpringApplication.run(RecordstoreApplication.class, args);
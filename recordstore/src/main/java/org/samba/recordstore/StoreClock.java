@@ -0,0 +1,17 @@
+package org.samba.recordstore;
+
+import java.time.ZonedDateTime;
+
+// The recordstore's notion of "now", used for addedToStore and its verification.
+// Injected instead of calling ZonedDateTime.now() everywhere, see StoreClockConfiguration for the modes.
+@FunctionalInterface
+public interface StoreClock {
+
+    StoreClock SYSTEM = ZonedDateTime::now;
+
+    ZonedDateTime now();
+
+    static StoreClock fixed(ZonedDateTime now) {
+        return () -> now;
+    }
+}
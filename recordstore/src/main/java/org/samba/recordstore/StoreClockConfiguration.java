@@ -0,0 +1,34 @@
+package org.samba.recordstore;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.ZonedDateTime;
+
+// recordstore.clock.mode:
+//   cached (default) - ticks every recordstore.clock.tick-millis, no allocation per request
+//   system           - ZonedDateTime.now() on every call
+//   fixed            - always recordstore.clock.fixed-at (ISO date time), for tests
+@Configuration
+public class StoreClockConfiguration {
+
+    @Bean
+    @ConditionalOnProperty(name = "recordstore.clock.mode", havingValue = "cached", matchIfMissing = true)
+    public StoreClock cachedStoreClock(@Value("${recordstore.clock.tick-millis:1}") long tickMillis) {
+        return new CachedStoreClock(tickMillis);
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "recordstore.clock.mode", havingValue = "system")
+    public StoreClock systemStoreClock() {
+        return StoreClock.SYSTEM;
+    }
+
+    @Bean
+    @ConditionalOnProperty(name = "recordstore.clock.mode", havingValue = "fixed")
+    public StoreClock fixedStoreClock(@Value("${recordstore.clock.fixed-at}") String fixedAt) {
+        return StoreClock.fixed(ZonedDateTime.parse(fixedAt));
+    }
+}
@@ -0,0 +1,20 @@
+package org.samba.recordstore;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.embedded.tomcat.TomcatProtocolHandlerCustomizer;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// see RecordStoreThreads
+@Configuration
+public class ThreadsConfiguration {
+
+    // Tomcat runs every request on a new virtual thread instead of its worker pool. server.tomcat.threads.max
+    // no longer limits the concurrent requests, server.tomcat.max-connections and the pipeline queue still do.
+    @Bean
+    @ConditionalOnProperty(name = "recordstore.threads.mode", havingValue = "virtual")
+    public TomcatProtocolHandlerCustomizer<?> virtualThreadsPerRequest(RecordStoreThreads threads) {
+        var factory = threads.factory("http");
+        return protocolHandler -> protocolHandler.setExecutor(task -> factory.newThread(task).start());
+    }
+}
@@ -0,0 +1,15 @@
+package org.samba.recordstore.catalog;
+
+import lombok.Value;
+
+import java.util.UUID;
+
+// the last fact the catalogue has applied. A client which just added a record can compare
+// the serial with the one of its own fact to know if the catalogue already contains it
+@Value(staticConstructor = "of")
+public class CatalogPosition {
+    public static final CatalogPosition EMPTY = of(null, 0);
+
+    UUID factId;
+    long serial;
+}
@@ -0,0 +1,22 @@
+package org.samba.recordstore.catalog;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+// immutable, so it can be handed out to any number of readers while the projection keeps on updating
+@Value
+@Builder
+public class CatalogRecord {
+    UUID recordId;
+    String artist;
+    String title;
+    String label;
+    String format;
+    LocalDate releaseDate;
+    ZonedDateTime addedToStore;
+    long serial;  // serial of the RecordAdded fact, gives a stable insertion order
+}
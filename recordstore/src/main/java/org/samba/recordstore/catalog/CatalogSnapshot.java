@@ -0,0 +1,12 @@
+package org.samba.recordstore.catalog;
+
+import lombok.Value;
+
+import java.util.List;
+
+// all records the catalogue contained at the given position
+@Value(staticConstructor = "of")
+public class CatalogSnapshot {
+    CatalogPosition position;
+    List<CatalogRecord> records;
+}
@@ -0,0 +1,144 @@
+package org.samba.recordstore.catalog;
+
+import org.samba.recordstore.dictionary.FieldDictionary;
+
+import java.io.DataInput;
+import java.io.DataOutput;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+// Hand written binary layout of a CatalogSnapshot. Much smaller and faster to read than the JSON of the facts,
+// which is the whole point of the snapshot. Bump VERSION on any change, old files are then simply ignored.
+// Labels and formats are written once in a table up front, the records refer to them by index.
+final class CatalogSnapshotFormat {
+
+    private static final int MAGIC = 0x52435331;  // "RCS1"
+    private static final int VERSION = 2;
+
+    private CatalogSnapshotFormat() {
+    }
+
+    static void write(CatalogSnapshot snapshot, DataOutput out) throws IOException {
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        writeUuid(snapshot.getPosition().getFactId(), out);
+        out.writeLong(snapshot.getPosition().getSerial());
+        var labels = writeTable(snapshot.getRecords(), CatalogRecord::getLabel, out);
+        var formats = writeTable(snapshot.getRecords(), CatalogRecord::getFormat, out);
+        out.writeInt(snapshot.getRecords().size());
+        for (var record : snapshot.getRecords()) {
+            writeUuid(record.getRecordId(), out);
+            writeString(record.getArtist(), out);
+            writeString(record.getTitle(), out);
+            out.writeInt(labels.getOrDefault(record.getLabel(), -1));
+            out.writeInt(formats.getOrDefault(record.getFormat(), -1));
+            out.writeBoolean(record.getReleaseDate() != null);
+            if (record.getReleaseDate() != null) {
+                out.writeLong(record.getReleaseDate().toEpochDay());
+            }
+            out.writeBoolean(record.getAddedToStore() != null);
+            if (record.getAddedToStore() != null) {
+                out.writeLong(record.getAddedToStore().toEpochSecond());
+                out.writeInt(record.getAddedToStore().getNano());
+                out.writeUTF(record.getAddedToStore().getZone().getId());
+            }
+            out.writeLong(record.getSerial());
+        }
+    }
+
+    static CatalogSnapshot read(DataInput in) throws IOException {
+        if (in.readInt() != MAGIC) {
+            throw new IOException("Not a catalogue snapshot");
+        }
+        var version = in.readInt();
+        if (version != VERSION) {
+            throw new IOException("Unsupported catalogue snapshot version " + version);
+        }
+        var position = CatalogPosition.of(readUuid(in), in.readLong());
+        var labels = readTable(FieldDictionary.LABELS, in);
+        var formats = readTable(FieldDictionary.FORMATS, in);
+        var count = in.readInt();
+        var records = new ArrayList<CatalogRecord>(count);
+        for (int i = 0; i < count; i++) {
+            var record = CatalogRecord.builder()
+                    .recordId(readUuid(in))
+                    .artist(readString(in))
+                    .title(readString(in))
+                    .label(lookup(labels, in.readInt()))
+                    .format(lookup(formats, in.readInt()));
+            if (in.readBoolean()) {
+                record.releaseDate(LocalDate.ofEpochDay(in.readLong()));
+            }
+            if (in.readBoolean()) {
+                var instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+                record.addedToStore(ZonedDateTime.ofInstant(instant, ZoneId.of(in.readUTF())));
+            }
+            records.add(record.serial(in.readLong()).build());
+        }
+        return CatalogSnapshot.of(position, records);
+    }
+
+    // distinct non null values in the order of their first use, mapped to their index in the table
+    private static Map<String, Integer> writeTable(List<CatalogRecord> records, Function<CatalogRecord, String> field,
+                                                   DataOutput out) throws IOException {
+        var table = new LinkedHashMap<String, Integer>();
+        for (var record : records) {
+            var value = field.apply(record);
+            if (value != null) {
+                table.putIfAbsent(value, table.size());
+            }
+        }
+        out.writeInt(table.size());
+        for (var value : table.keySet()) {
+            out.writeUTF(value);
+        }
+        return table;
+    }
+
+    private static String[] readTable(FieldDictionary dictionary, DataInput in) throws IOException {
+        var table = new String[in.readInt()];
+        for (int i = 0; i < table.length; i++) {
+            table[i] = dictionary.canonical(in.readUTF());
+        }
+        return table;
+    }
+
+    private static String lookup(String[] table, int index) throws IOException {
+        if (index < -1 || index >= table.length) {
+            throw new IOException("Corrupt catalogue snapshot, no table entry " + index);
+        }
+        return index == -1 ? null : table[index];
+    }
+
+    private static void writeUuid(UUID uuid, DataOutput out) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(String value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
@@ -0,0 +1,97 @@
+package org.samba.recordstore.catalog;
+
+import lombok.extern.slf4j.Slf4j;
+import org.samba.recordstore.shard.ShardAssignment;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.*;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import static java.nio.file.StandardCopyOption.ATOMIC_MOVE;
+import static java.nio.file.StandardCopyOption.REPLACE_EXISTING;
+
+// Periodically writes the catalogue to local disk and restores it at boot, so a restarted node only
+// has to catch up the facts published since the last snapshot instead of replaying all of them.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "recordstore.catalog.snapshot.enabled", havingValue = "true", matchIfMissing = true)
+public class CatalogSnapshotter {
+
+    static final String FILE_NAME = "record-catalog.snapshot";
+
+    private final RecordCatalogProjection catalog;
+    private final Path directory;
+    private final String fileName;
+
+    private volatile long lastSnapshotSerial;
+
+    public CatalogSnapshotter(RecordCatalogProjection catalog,
+                              @Value("${recordstore.catalog.snapshot.directory:snapshots}") Path directory) {
+        this.catalog = catalog;
+        this.directory = directory;
+        this.fileName = fileName(catalog.shard());
+    }
+
+    // a snapshot only fits the partitions it was taken for, after a re-sharding the catalogue is replayed
+    static String fileName(ShardAssignment shard) {
+        if (!shard.isSharded()) {
+            return FILE_NAME;
+        }
+        return "record-catalog-" + Long.toHexString(shard.ownedPartitions()) + ".snapshot";
+    }
+
+    // runs before ProjectionSubscriber subscribes the catalogue (ApplicationReadyEvent)
+    @PostConstruct
+    public void restore() {
+        var file = directory.resolve(fileName);
+        if (!Files.exists(file)) {
+            log.info("No catalogue snapshot at {}, replaying all facts", file);
+            return;
+        }
+        try (var in = new DataInputStream(new BufferedInputStream(Files.newInputStream(file)))) {
+            var snapshot = CatalogSnapshotFormat.read(in);
+            catalog.restore(snapshot);
+            lastSnapshotSerial = snapshot.getPosition().getSerial();
+            log.info("Restored {} records from catalogue snapshot at serial {}",
+                    snapshot.getRecords().size(), lastSnapshotSerial);
+        } catch (IOException | RuntimeException e) {
+            // the snapshot is only an optimization, the facts are still there
+            log.warn("Ignoring unreadable catalogue snapshot {}, replaying all facts", file, e);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${recordstore.catalog.snapshot.interval-millis:60000}",
+            initialDelayString = "${recordstore.catalog.snapshot.interval-millis:60000}")
+    public void snapshot() {
+        var snapshot = catalog.snapshot();
+        var serial = snapshot.getPosition().getSerial();
+        if (serial == lastSnapshotSerial) {
+            return;
+        }
+
+        // write to a temp file first, a crash in between must never leave a half written snapshot behind
+        try {
+            Files.createDirectories(directory);
+            var tmp = Files.createTempFile(directory, fileName, ".tmp");
+            try (var out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(tmp)))) {
+                CatalogSnapshotFormat.write(snapshot, out);
+            }
+            Files.move(tmp, directory.resolve(fileName), ATOMIC_MOVE, REPLACE_EXISTING);
+            lastSnapshotSerial = serial;
+            log.debug("Wrote catalogue snapshot of {} records at serial {}", snapshot.getRecords().size(), serial);
+        } catch (IOException e) {
+            log.warn("Writing catalogue snapshot to {} failed", directory, e);
+        }
+    }
+
+    @PreDestroy
+    public void close() {
+        snapshot();
+    }
+}
@@ -0,0 +1,29 @@
+package org.samba.recordstore.catalog;
+
+import eu.prismacapacity.spring.cqs.query.Query;
+import lombok.Builder;
+import lombok.Value;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+
+// all filters are optional, the ones given are combined with AND
+@Value
+@Builder
+public class FindRecords implements Query {
+    String artist;
+    String label;
+    String format;
+    Integer releaseYear;
+
+    // bounded like SearchRecords: with several nodes every shard sends its first offset + limit matches
+    @Builder.Default
+    @Min(0)
+    @Max(10000)
+    int offset = 0;
+
+    @Builder.Default
+    @Min(1)
+    @Max(1000)
+    int limit = 100;
+}
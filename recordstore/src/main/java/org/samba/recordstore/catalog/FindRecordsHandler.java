@@ -0,0 +1,28 @@
+package org.samba.recordstore.catalog;
+
+import eu.prismacapacity.spring.cqs.query.QueryHandler;
+import eu.prismacapacity.spring.cqs.query.QueryHandlingException;
+import eu.prismacapacity.spring.cqs.query.QueryTimeoutException;
+import eu.prismacapacity.spring.cqs.query.QueryVerificationException;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.shard.ShardedCatalog;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class FindRecordsHandler implements QueryHandler<FindRecords, RecordPage> {
+
+    private final ShardedCatalog catalog;
+
+    @Override
+    public void verify(@NonNull FindRecords query) throws QueryVerificationException {
+        // every client may search the catalogue
+    }
+
+    @Override
+    public RecordPage handle(@NonNull FindRecords query) throws QueryHandlingException, QueryTimeoutException {
+        // all nodes when sharded, paging happens on the merged matches
+        return catalog.find(query);
+    }
+}
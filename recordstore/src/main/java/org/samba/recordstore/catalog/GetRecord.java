@@ -0,0 +1,13 @@
+package org.samba.recordstore.catalog;
+
+import eu.prismacapacity.spring.cqs.query.Query;
+import lombok.Value;
+
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+@Value(staticConstructor = "of")
+public class GetRecord implements Query {
+    @NotNull
+    UUID recordId;
+}
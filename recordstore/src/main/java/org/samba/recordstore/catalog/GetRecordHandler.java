@@ -0,0 +1,28 @@
+package org.samba.recordstore.catalog;
+
+import eu.prismacapacity.spring.cqs.query.QueryHandler;
+import eu.prismacapacity.spring.cqs.query.QueryHandlingException;
+import eu.prismacapacity.spring.cqs.query.QueryTimeoutException;
+import eu.prismacapacity.spring.cqs.query.QueryVerificationException;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.shard.ShardedCatalog;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class GetRecordHandler implements QueryHandler<GetRecord, RecordLookup> {
+
+    private final ShardedCatalog catalog;
+
+    @Override
+    public void verify(@NonNull GetRecord query) throws QueryVerificationException {
+        // every client may read a record
+    }
+
+    @Override
+    public RecordLookup handle(@NonNull GetRecord query) throws QueryHandlingException, QueryTimeoutException {
+        // the node owning the record's partition when sharded
+        return catalog.get(query.getRecordId());
+    }
+}
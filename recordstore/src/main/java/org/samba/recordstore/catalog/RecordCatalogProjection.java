@@ -0,0 +1,218 @@
+package org.samba.recordstore.catalog;
+
+import lombok.NonNull;
+import org.factcast.core.Fact;
+import org.factcast.core.spec.FactSpec;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.LocalSubscribedProjection;
+import org.samba.recordstore.dictionary.FieldDictionary;
+import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.shard.ShardAssignment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+// In-memory read model of all records. Kept up to date by a Factus subscription (see ProjectionSubscriber),
+// queries are answered from the maps below and never reach FactCast.
+// All indexes keep their records in fact serial order, so a page is read off an index without sorting anything.
+// With several nodes each one only holds the records of its partitions, see ShardAssignment and ShardedCatalog.
+@Component
+public class RecordCatalogProjection extends LocalSubscribedProjection {
+
+    private final ShardAssignment shard;
+
+    private final Map<UUID, CatalogRecord> records = new ConcurrentHashMap<>();
+    private final SerialIndex all = new SerialIndex();
+    private final Map<String, SerialIndex> byArtist = new ConcurrentHashMap<>();
+    private final Map<String, SerialIndex> byLabel = new ConcurrentHashMap<>();
+    private final Map<String, SerialIndex> byFormat = new ConcurrentHashMap<>();
+    private final Map<Integer, SerialIndex> byReleaseYear = new ConcurrentHashMap<>();
+
+    // written last in apply(), so a reader which sees a position also sees everything up to it
+    private volatile CatalogPosition position = CatalogPosition.EMPTY;
+
+    public RecordCatalogProjection() {
+        this(ShardAssignment.SINGLE);
+    }
+
+    @Autowired
+    public RecordCatalogProjection(ShardAssignment shard) {
+        this.shard = shard;
+    }
+
+    // same idea as an aggregate id filter: FactCast only sends the facts of this node's partitions
+    // (and the ones without partition meta data, see ShardAssignment)
+    @Override
+    public @NonNull List<FactSpec> postprocess(@NonNull List<FactSpec> specsAsDiscovered) {
+        return shard.restrict(specsAsDiscovered);
+    }
+
+    public ShardAssignment shard() {
+        return shard;
+    }
+
+    @Handler
+    void apply(RecordAdded event, Fact fact) {
+        if (!shard.ownsRecord(event.getRecordId())) {
+            // a fact without partition meta data of another node's partition
+            position = CatalogPosition.of(fact.id(), fact.serial());
+            return;
+        }
+        var record = CatalogRecord.builder()
+                .recordId(event.getRecordId())
+                .artist(event.getArtist())
+                .title(event.getTitle())
+                // one instance per distinct label and format instead of one per record
+                .label(FieldDictionary.LABELS.canonical(event.getLabel()))
+                .format(FieldDictionary.FORMATS.canonical(event.getFormat()))
+                .releaseDate(event.getReleaseDate())
+                .addedToStore(event.getAddedToStore())
+                .serial(fact.serial())
+                .build();
+
+        add(record);
+        position = CatalogPosition.of(fact.id(), fact.serial());
+    }
+
+    // Consistent without locking: records are only ever added, in serial order, and the position is
+    // written after the record. So everything up to the position read here is already in the map.
+    public CatalogSnapshot snapshot() {
+        var at = position;
+        var included = all.upTo(at.getSerial()).collect(Collectors.toList());
+        return CatalogSnapshot.of(at, included);
+    }
+
+    // only before subscribing: Factus then continues after the snapshot's fact
+    public void restore(CatalogSnapshot snapshot) {
+        if (position.getSerial() > 0) {
+            throw new IllegalStateException("Catalogue already applied facts, it can't be restored anymore");
+        }
+        snapshot.getRecords().forEach(this::add);
+        position = snapshot.getPosition();
+        if (position.getFactId() != null) {
+            state(position.getFactId());
+        }
+    }
+
+    public Optional<CatalogRecord> get(UUID recordId) {
+        return Optional.ofNullable(records.get(recordId));
+    }
+
+    // Matches are ordered by fact serial, i.e. in the order the records were added. The page stops after
+    // offset + limit matches; only the total of a filtered query walks all of its candidates, without sorting.
+    public RecordPage find(FindRecords query) {
+        // read the position first: the matches are at least as recent as the reported position
+        var at = position;
+        var page = matching(query)
+                .skip(query.getOffset())
+                .limit(query.getLimit())
+                .collect(Collectors.toList());
+        var total = unfiltered(query) ? records.size() : (int) matching(query).count();
+        return RecordPage.of(page, total, at);
+    }
+
+    public CatalogPosition position() {
+        return position;
+    }
+
+    public int size() {
+        return records.size();
+    }
+
+    private void add(CatalogRecord record) {
+        // a record is only ever added once, so there is no old index entry to remove
+        if (records.putIfAbsent(record.getRecordId(), record) == null) {
+            all.add(record);
+            index(byArtist, key(record.getArtist()), record);
+            index(byLabel, key(record.getLabel()), record);
+            index(byFormat, key(record.getFormat()), record);
+            if (record.getReleaseDate() != null) {
+                index(byReleaseYear, record.getReleaseDate().getYear(), record);
+            }
+        }
+    }
+
+    private Stream<CatalogRecord> matching(FindRecords query) {
+        return candidates(query).filter(record -> matches(query, record));
+    }
+
+    // start from the smallest index which is restricted by the query instead of scanning all records
+    private Stream<CatalogRecord> candidates(FindRecords query) {
+        return Stream.of(
+                        lookup(byArtist, key(query.getArtist())),
+                        lookup(byLabel, key(query.getLabel())),
+                        lookup(byFormat, key(query.getFormat())),
+                        lookup(byReleaseYear, query.getReleaseYear()))
+                .filter(Objects::nonNull)
+                .min(Comparator.comparingInt(SerialIndex::size))
+                .orElse(all)
+                .stream();
+    }
+
+    private static boolean unfiltered(FindRecords query) {
+        return query.getArtist() == null && query.getLabel() == null && query.getFormat() == null
+                && query.getReleaseYear() == null;
+    }
+
+    private static boolean matches(FindRecords query, CatalogRecord record) {
+        return matches(query.getArtist(), record.getArtist())
+                && matches(query.getLabel(), record.getLabel())
+                && matches(query.getFormat(), record.getFormat())
+                && (query.getReleaseYear() == null
+                    || (record.getReleaseDate() != null && record.getReleaseDate().getYear() == query.getReleaseYear()));
+    }
+
+    private static boolean matches(String wanted, String actual) {
+        return wanted == null || Objects.equals(key(wanted), key(actual));
+    }
+
+    private static <K> SerialIndex lookup(Map<K, SerialIndex> index, K key) {
+        if (key == null) {
+            return null;
+        }
+        return index.getOrDefault(key, SerialIndex.EMPTY);
+    }
+
+    private static <K> void index(Map<K, SerialIndex> index, K key, CatalogRecord record) {
+        if (key != null) {
+            index.computeIfAbsent(key, k -> new SerialIndex()).add(record);
+        }
+    }
+
+    // artist, label and format are matched case insensitive
+    private static String key(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // the records of one index key, ordered by fact serial
+    private static class SerialIndex {
+        private static final SerialIndex EMPTY = new SerialIndex();
+
+        private final ConcurrentSkipListMap<Long, CatalogRecord> bySerial = new ConcurrentSkipListMap<>();
+        private final AtomicInteger size = new AtomicInteger();  // ConcurrentSkipListMap.size() walks the map
+
+        private void add(CatalogRecord record) {
+            if (bySerial.putIfAbsent(record.getSerial(), record) == null) {
+                size.incrementAndGet();
+            }
+        }
+
+        private int size() {
+            return size.get();
+        }
+
+        private Stream<CatalogRecord> stream() {
+            return bySerial.values().stream();
+        }
+
+        private Stream<CatalogRecord> upTo(long serial) {
+            return bySerial.headMap(serial, true).values().stream();
+        }
+    }
+}
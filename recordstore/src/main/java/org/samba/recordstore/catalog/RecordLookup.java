@@ -0,0 +1,11 @@
+package org.samba.recordstore.catalog;
+
+import lombok.Value;
+
+import java.util.Optional;
+
+@Value(staticConstructor = "of")
+public class RecordLookup {
+    Optional<CatalogRecord> record;
+    CatalogPosition position;
+}
@@ -0,0 +1,12 @@
+package org.samba.recordstore.catalog;
+
+import lombok.Value;
+
+import java.util.List;
+
+@Value(staticConstructor = "of")
+public class RecordPage {
+    List<CatalogRecord> records;
+    int total;  // number of matches without offset and limit
+    CatalogPosition position;
+}
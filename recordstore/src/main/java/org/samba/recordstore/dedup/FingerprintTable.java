@@ -0,0 +1,121 @@
+package org.samba.recordstore.dedup;
+
+import java.util.UUID;
+
+// Open addressing hash table from a 64 bit fingerprint to a record id, stored in three parallel long arrays.
+// 24 bytes per slot instead of ~100 bytes per entry in a HashMap<Long, UUID>, and no object per entry for the GC.
+// Not thread safe, see RecordFingerprintIndex.
+final class FingerprintTable {
+
+    private static final long EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.75f;
+
+    private long[] keys;
+    private long[] mostSignificant;
+    private long[] leastSignificant;
+    private int size;
+
+    FingerprintTable(int initialCapacity) {
+        allocate(Integer.highestOneBit(Math.max(16, initialCapacity) - 1) << 1);
+    }
+
+    UUID get(long fingerprint) {
+        var key = key(fingerprint);
+        var mask = keys.length - 1;
+        for (int slot = slot(key, mask); keys[slot] != EMPTY; slot = (slot + 1) & mask) {
+            if (keys[slot] == key) {
+                return new UUID(mostSignificant[slot], leastSignificant[slot]);
+            }
+        }
+        return null;
+    }
+
+    // returns the id already stored for the fingerprint, or null if the given one was added
+    UUID putIfAbsent(long fingerprint, UUID recordId) {
+        var existing = get(fingerprint);
+        if (existing != null) {
+            return existing;
+        }
+        if (size + 1 > keys.length * LOAD_FACTOR) {
+            grow();
+        }
+        insert(key(fingerprint), recordId.getMostSignificantBits(), recordId.getLeastSignificantBits());
+        size++;
+        return null;
+    }
+
+    // linear probing, so instead of tombstones the following entries of the cluster are shifted back
+    boolean remove(long fingerprint, UUID recordId) {
+        var key = key(fingerprint);
+        var mask = keys.length - 1;
+        var slot = slot(key, mask);
+        while (keys[slot] != key) {
+            if (keys[slot] == EMPTY) {
+                return false;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (mostSignificant[slot] != recordId.getMostSignificantBits()
+                || leastSignificant[slot] != recordId.getLeastSignificantBits()) {
+            return false;
+        }
+
+        var gap = slot;
+        for (int next = (gap + 1) & mask; keys[next] != EMPTY; next = (next + 1) & mask) {
+            var home = slot(keys[next], mask);
+            // move the entry into the gap unless its home slot lies cyclically in (gap, next]
+            if (((next - home) & mask) >= ((next - gap) & mask)) {
+                keys[gap] = keys[next];
+                mostSignificant[gap] = mostSignificant[next];
+                leastSignificant[gap] = leastSignificant[next];
+                gap = next;
+            }
+        }
+        keys[gap] = EMPTY;
+        size--;
+        return true;
+    }
+
+    int size() {
+        return size;
+    }
+
+    private void grow() {
+        var oldKeys = keys;
+        var oldMost = mostSignificant;
+        var oldLeast = leastSignificant;
+        allocate(oldKeys.length << 1);
+        for (int i = 0; i < oldKeys.length; i++) {
+            if (oldKeys[i] != EMPTY) {
+                insert(oldKeys[i], oldMost[i], oldLeast[i]);
+            }
+        }
+    }
+
+    private void insert(long key, long most, long least) {
+        var mask = keys.length - 1;
+        var slot = slot(key, mask);
+        while (keys[slot] != EMPTY) {
+            slot = (slot + 1) & mask;
+        }
+        keys[slot] = key;
+        mostSignificant[slot] = most;
+        leastSignificant[slot] = least;
+    }
+
+    private void allocate(int capacity) {
+        keys = new long[capacity];
+        mostSignificant = new long[capacity];
+        leastSignificant = new long[capacity];
+    }
+
+    // 0 marks an empty slot
+    private static long key(long fingerprint) {
+        return fingerprint == EMPTY ? 1 : fingerprint;
+    }
+
+    // fingerprints are already uniformly distributed hashes, the low bits are good enough
+    private static int slot(long key, int mask) {
+        return (int) key & mask;
+    }
+}
@@ -0,0 +1,13 @@
+package org.samba.recordstore.dedup;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+// a retry arrived while the original record was being published, and publishing the original failed:
+// neither of them is stored, the client has to send the record again
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class OriginalRecordNotStoredException extends RuntimeException {
+    public OriginalRecordNotStoredException(String message) {
+        super(message);
+    }
+}
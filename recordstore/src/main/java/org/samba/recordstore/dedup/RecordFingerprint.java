@@ -0,0 +1,59 @@
+package org.samba.recordstore.dedup;
+
+import org.samba.recordstore.AddRecord;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+
+// 64 bit fingerprint identifying an add request across retries. Either the client sent an idempotency key,
+// or the content of the record is used. The content includes addedToStore: a retry repeats the request as it
+// was, a second copy of the same pressing is added at another time and is a record of its own.
+// The prefixes keep both kinds apart.
+// SHA-256, so a client can't craft a key colliding with someone else's record.
+public final class RecordFingerprint {
+
+    public static final String META_KEY = "idempotencyKey";
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    });
+
+    private RecordFingerprint() {
+    }
+
+    public static long of(AddRecord addRecord) {
+        return of(addRecord.getIdempotencyKey(), addRecord.getArtist(), addRecord.getTitle(),
+                addRecord.getLabel(), addRecord.getFormat(), addRecord.getReleaseDate(), addRecord.getAddedToStore());
+    }
+
+    // the idempotency key is not part of the event payload, it travels in the fact's meta data
+    public static long of(RecordAdded event, String idempotencyKey) {
+        return of(idempotencyKey, event.getArtist(), event.getTitle(),
+                event.getLabel(), event.getFormat(), event.getReleaseDate(), event.getAddedToStore());
+    }
+
+    private static long of(String idempotencyKey, String artist, String title, String label, String format,
+                           LocalDate releaseDate, ZonedDateTime addedToStore) {
+        if (idempotencyKey != null) {
+            return hash("key\u0000" + idempotencyKey);
+        }
+        // as an instant: the fact may come back in another zone
+        var added = addedToStore == null ? null : addedToStore.toInstant();
+        return hash("content\u0000" + artist + '\u0000' + title + '\u0000' + label + '\u0000' + format + '\u0000' + releaseDate
+                + '\u0000' + added);
+    }
+
+    private static long hash(String value) {
+        var digest = SHA_256.get().digest(value.getBytes(StandardCharsets.UTF_8));
+        return ByteBuffer.wrap(digest).getLong();
+    }
+}
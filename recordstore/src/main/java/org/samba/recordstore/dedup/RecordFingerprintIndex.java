@@ -0,0 +1,127 @@
+package org.samba.recordstore.dedup;
+
+import org.factcast.core.Fact;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.LocalSubscribedProjection;
+import org.samba.recordstore.events.RecordAdded;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+// Remembers which record was added for a fingerprint, so a retried request gets the original record id back
+// instead of publishing a duplicate. Filled from the fact stream (records added by other nodes or before
+// a restart) and by the handlers right before they publish (requests still in flight).
+//
+// A retry of a record still in flight must not be told it was stored before the original is: it gets a future
+// which completes with the original's id once that is published, or fails if publishing it fails.
+//
+// Bounded: two generations of tables. Once the current one holds half of "max-entries" the older one is dropped.
+// So at least the latest max-entries / 2 fingerprints are known, which is plenty for client retries.
+// Not sharded: a retry may reach any node, see ShardedCatalog.
+@Component
+public class RecordFingerprintIndex extends LocalSubscribedProjection {
+
+    private final int generationSize;
+
+    private FingerprintTable current = new FingerprintTable(1024);
+    private FingerprintTable previous = new FingerprintTable(16);
+
+    // reservations of this node whose publish is still running, a few per in-flight request at most
+    private final Map<Long, InFlight> inFlight = new HashMap<>();
+
+    public RecordFingerprintIndex(@Value("${recordstore.dedup.max-entries:20000000}") int maxEntries) {
+        this.generationSize = Math.max(1, maxEntries / 2);
+    }
+
+    @Handler
+    void apply(RecordAdded event, Fact fact) {
+        remember(RecordFingerprint.of(event, fact.meta(RecordFingerprint.META_KEY)), event.getRecordId());
+    }
+
+    // a record which is stored already, or as good as stored (write-behind journal)
+    public void remember(long fingerprint, UUID recordId) {
+        InFlight stored;
+        synchronized (this) {
+            if (find(fingerprint) == null) {
+                put(fingerprint, recordId);
+            }
+            stored = removeInFlight(fingerprint, recordId);
+        }
+        if (stored != null) {
+            stored.outcome.complete(recordId);
+        }
+    }
+
+    // Returns null if the caller is the first: it publishes recordId and then calls confirm() or release().
+    // Otherwise the id of the original record, as soon as that is stored.
+    public synchronized CompletableFuture<UUID> reserve(long fingerprint, UUID recordId) {
+        var pending = inFlight.get(fingerprint);
+        if (pending != null) {
+            return pending.outcome;
+        }
+        var original = find(fingerprint);
+        if (original != null) {
+            return CompletableFuture.completedFuture(original);
+        }
+        put(fingerprint, recordId);
+        inFlight.put(fingerprint, new InFlight(recordId, new CompletableFuture<>()));
+        return null;
+    }
+
+    // the reserved record is published (or in the journal)
+    public void confirm(long fingerprint, UUID recordId) {
+        InFlight stored;
+        synchronized (this) {
+            stored = removeInFlight(fingerprint, recordId);
+        }
+        if (stored != null) {
+            stored.outcome.complete(recordId);
+        }
+    }
+
+    // publishing failed: a retry must be able to try again, and so must the ones waiting for this record
+    public void release(long fingerprint, UUID recordId) {
+        InFlight failed;
+        synchronized (this) {
+            if (!current.remove(fingerprint, recordId)) {
+                previous.remove(fingerprint, recordId);
+            }
+            failed = removeInFlight(fingerprint, recordId);
+        }
+        if (failed != null) {
+            failed.outcome.completeExceptionally(new OriginalRecordNotStoredException(
+                    "Publishing the original record " + recordId + " failed, try again"));
+        }
+    }
+
+    private UUID find(long fingerprint) {
+        var original = previous.get(fingerprint);
+        return original != null ? original : current.get(fingerprint);
+    }
+
+    private void put(long fingerprint, UUID recordId) {
+        if (current.size() >= generationSize) {
+            previous = current;
+            current = new FingerprintTable(1024);
+        }
+        current.putIfAbsent(fingerprint, recordId);
+    }
+
+    private InFlight removeInFlight(long fingerprint, UUID recordId) {
+        var pending = inFlight.get(fingerprint);
+        if (pending == null || !pending.recordId.equals(recordId)) {
+            return null;
+        }
+        return inFlight.remove(fingerprint);
+    }
+
+    @lombok.Value
+    private static class InFlight {
+        UUID recordId;
+        CompletableFuture<UUID> outcome;
+    }
+}
@@ -0,0 +1,97 @@
+package org.samba.recordstore.dictionary;
+
+import lombok.extern.slf4j.Slf4j;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+// Label and format are free text, but a catalogue of millions of records only has a few hundred different ones.
+// Instead of a String per record and read model, every distinct value is kept once and handed out as the
+// canonical instance, or as a small int code for code that wants to count or group by it.
+//
+// Codes are only valid within this JVM, they are never written to FactCast. The dictionary only grows:
+// once full, values are passed through unchanged and get OVERFLOW instead of a code of their own, counted
+// in overflows() (see FieldDictionaryMetrics).
+@Slf4j
+public final class FieldDictionary {
+
+    public static final int NONE = -1;
+    public static final int OVERFLOW = -2;
+
+    public static final FieldDictionary LABELS = new FieldDictionary("label", 1 << 16);
+    public static final FieldDictionary FORMATS = new FieldDictionary("format", 1 << 12);
+    // the statistics group case insensitive, by the trimmed and lower case value
+    public static final FieldDictionary LABEL_KEYS = new FieldDictionary("label key", 1 << 16);
+    public static final FieldDictionary FORMAT_KEYS = new FieldDictionary("format key", 1 << 12);
+
+    private final String name;
+    private final int maxSize;
+    private final Map<String, Integer> codes = new ConcurrentHashMap<>();
+    private final LongAdder overflows = new LongAdder();
+    // written before the code is put into the map, a reader which got a code also sees its value
+    private volatile String[] values = new String[64];
+    private int size;  // guarded by this
+
+    FieldDictionary(String name, int maxSize) {
+        this.name = name;
+        this.maxSize = maxSize;
+    }
+
+    // NONE for null, OVERFLOW for new values once the dictionary is full
+    public int code(String value) {
+        if (value == null) {
+            return NONE;
+        }
+        var code = codes.get(value);
+        return code != null ? code : add(value);
+    }
+
+    // null for NONE and OVERFLOW
+    public String value(int code) {
+        return code < 0 ? null : values[code];
+    }
+
+    public String canonical(String value) {
+        var code = code(value);
+        return code < 0 ? value : values[code];
+    }
+
+    public String name() {
+        return name;
+    }
+
+    public int size() {
+        return codes.size();
+    }
+
+    // how often a value got OVERFLOW
+    public long overflows() {
+        return overflows.sum();
+    }
+
+    private synchronized int add(String value) {
+        var code = codes.get(value);
+        if (code != null) {
+            return code;
+        }
+        if (size == maxSize) {
+            overflows.increment();
+            return OVERFLOW;
+        }
+        if (size == values.length) {
+            var grown = Arrays.copyOf(values, Math.min(size * 2, maxSize));
+            grown[size] = value;
+            values = grown;
+        } else {
+            values[size] = value;
+        }
+        codes.put(value, size);
+        if (++size == maxSize) {
+            log.warn("Dictionary of {} values is full with {} entries, new values are not shared anymore "
+                    + "and counted as overflow", name, size);
+        }
+        return size - 1;
+    }
+}
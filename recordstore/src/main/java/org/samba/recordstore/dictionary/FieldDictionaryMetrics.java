@@ -0,0 +1,31 @@
+package org.samba.recordstore.dictionary;
+
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.MeterBinder;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+// Size of every dictionary and the values it had no room for. Overflows mean the statistics count values
+// in the OTHER group of StatisticsKey, and the catalogue keeps a String per record for them.
+@Component
+public class FieldDictionaryMetrics implements MeterBinder {
+
+    private static final List<FieldDictionary> DICTIONARIES = List.of(
+            FieldDictionary.LABELS, FieldDictionary.FORMATS, FieldDictionary.LABEL_KEYS, FieldDictionary.FORMAT_KEYS);
+
+    @Override
+    public void bindTo(MeterRegistry registry) {
+        for (var dictionary : DICTIONARIES) {
+            Gauge.builder("recordstore.dictionary.size", dictionary, FieldDictionary::size)
+                    .tag("dictionary", dictionary.name())
+                    .register(registry);
+            FunctionCounter.builder("recordstore.dictionary.overflows", dictionary, FieldDictionary::overflows)
+                    .description("values which got no code because the dictionary was full")
+                    .tag("dictionary", dictionary.name())
+                    .register(registry);
+        }
+    }
+}
@@ -0,0 +1,53 @@
+package org.samba.recordstore.events;
+
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.factcast.factus.event.EventObject;
+import org.factcast.factus.event.EventSerializer;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.Base64;
+
+// Writes RecordAdded in the binary layout of RecordAddedCodec instead of Jackson JSON, everything else is left
+// to the given serializer. FactCast only stores JSON, so the bytes travel Base64 encoded in a one field
+// object: {"compact":"..."}. The fact header (ns, type, version from @Specification) is not touched.
+//
+// Reading understands both forms, so it can be switched on for a store which already contains JSON facts.
+// Switching it off again needs this serializer to stay for reading. Note that FactCast schema validation
+// or transformations of RecordAdded would see the envelope, not the fields.
+@RequiredArgsConstructor
+public class CompactEventSerializer implements EventSerializer {
+
+    static final String ENVELOPE_START = "{\"compact\":\"";
+    static final String ENVELOPE_END = "\"}";
+
+    @NonNull
+    private final EventSerializer json;
+
+    @Override
+    public <T extends EventObject> T deserialize(@NonNull Class<T> targetClass, @NonNull String payload) {
+        if (targetClass != RecordAdded.class || !payload.startsWith(ENVELOPE_START)) {
+            return json.deserialize(targetClass, payload);
+        }
+        var encoded = payload.substring(ENVELOPE_START.length(), payload.length() - ENVELOPE_END.length());
+        try {
+            return targetClass.cast(RecordAddedCodec.decode(Base64.getDecoder().decode(encoded)));
+        } catch (IOException e) {
+            throw new UncheckedIOException("Unreadable compact RecordAdded payload", e);
+        }
+    }
+
+    @Override
+    public <T extends EventObject> String serialize(@NonNull T event) {
+        if (!(event instanceof RecordAdded)) {
+            return json.serialize(event);
+        }
+        try {
+            var encoded = Base64.getEncoder().encodeToString(RecordAddedCodec.encode((RecordAdded) event));
+            return ENVELOPE_START + encoded + ENVELOPE_END;
+        } catch (IOException e) {
+            throw new UncheckedIOException("Could not encode " + event, e);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package org.samba.recordstore.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.factcast.factus.event.DefaultEventSerializer;
+import org.factcast.factus.event.EventSerializer;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+// recordstore.events.codec: json (default, FactCast's own Jackson serializer) | compact
+// FactCast's auto configuration only creates its serializer if there is none yet.
+@Configuration
+@ConditionalOnProperty(name = "recordstore.events.codec", havingValue = "compact")
+public class EventSerializerConfiguration {
+
+    @Bean
+    public EventSerializer eventSerializer(ObjectMapper objectMapper) {
+        return new CompactEventSerializer(new DefaultEventSerializer(objectMapper));
+    }
+}
@@ -1,17 +1,23 @@
 package org.samba.recordstore.events;
 
+import com.fasterxml.jackson.annotation.JsonIgnore;
 import lombok.*;
 import org.factcast.factus.event.EventObject;
 import org.factcast.factus.event.Specification;
+import org.samba.recordstore.dedup.RecordFingerprint;
+import org.samba.recordstore.shard.RecordPartition;
 
 import java.time.LocalDate;
 import java.time.ZonedDateTime;
+import java.util.HashMap;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
 
 @Data
 @Builder
+@NoArgsConstructor(access = AccessLevel.PROTECTED)  // required by jackson when the projection deserializes the fact
+@AllArgsConstructor
 @Specification(ns = "recordstore")
 public class RecordAdded implements EventObject {
 
@@ -23,6 +29,22 @@ public class RecordAdded implements EventObject {
     private LocalDate releaseDate;
     private ZonedDateTime addedToStore;
 
+    @JsonIgnore  // not part of the payload, published as fact meta data
+    private String idempotencyKey;
+
+    @Override
+    public Map<String, String> additionalMetaMap() {
+        var meta = new HashMap<String, String>(4);
+        if (idempotencyKey != null) {
+            meta.put(RecordFingerprint.META_KEY, idempotencyKey);
+        }
+        if (recordId != null) {
+            // lets sharded nodes subscribe to their partitions only
+            meta.put(RecordPartition.META_KEY, String.valueOf(RecordPartition.of(recordId)));
+        }
+        return meta;
+    }
+
     @Override
     public Set<UUID> aggregateIds() {
         return Set.of(recordId);
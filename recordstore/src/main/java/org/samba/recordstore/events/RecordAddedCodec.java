@@ -0,0 +1,95 @@
+package org.samba.recordstore.events;
+
+import org.samba.recordstore.dictionary.FieldDictionary;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInput;
+import java.io.DataInputStream;
+import java.io.DataOutput;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+// Hand written binary layout of a RecordAdded payload, the same field by field approach as the catalogue
+// snapshot. Dates are numbers instead of ISO strings and there are no field names.
+// The layout is versioned on its own: add a VERSION and keep reading the old ones, facts are kept forever.
+final class RecordAddedCodec {
+
+    static final int VERSION = 1;
+
+    private RecordAddedCodec() {
+    }
+
+    static byte[] encode(RecordAdded event) throws IOException {
+        var bytes = new ByteArrayOutputStream(96);
+        var out = new DataOutputStream(bytes);
+        out.writeByte(VERSION);
+        writeUuid(event.getRecordId(), out);
+        writeString(event.getArtist(), out);
+        writeString(event.getTitle(), out);
+        writeString(event.getLabel(), out);
+        writeString(event.getFormat(), out);
+        out.writeBoolean(event.getReleaseDate() != null);
+        if (event.getReleaseDate() != null) {
+            out.writeInt((int) event.getReleaseDate().toEpochDay());
+        }
+        out.writeBoolean(event.getAddedToStore() != null);
+        if (event.getAddedToStore() != null) {
+            out.writeLong(event.getAddedToStore().toEpochSecond());
+            out.writeInt(event.getAddedToStore().getNano());
+            out.writeUTF(event.getAddedToStore().getZone().getId());
+        }
+        return bytes.toByteArray();
+    }
+
+    static RecordAdded decode(byte[] bytes) throws IOException {
+        var in = new DataInputStream(new ByteArrayInputStream(bytes));
+        var version = in.readUnsignedByte();
+        if (version != VERSION) {
+            throw new IOException("Unsupported RecordAdded encoding version " + version);
+        }
+        var event = RecordAdded.builder()
+                .recordId(readUuid(in))
+                .artist(readString(in))
+                .title(readString(in))
+                // label and format come out as the shared instances, projections keep them as they are
+                .label(FieldDictionary.LABELS.canonical(readString(in)))
+                .format(FieldDictionary.FORMATS.canonical(readString(in)));
+        if (in.readBoolean()) {
+            event.releaseDate(LocalDate.ofEpochDay(in.readInt()));
+        }
+        if (in.readBoolean()) {
+            var instant = Instant.ofEpochSecond(in.readLong(), in.readInt());
+            event.addedToStore(ZonedDateTime.ofInstant(instant, ZoneId.of(in.readUTF())));
+        }
+        return event.build();
+    }
+
+    private static void writeUuid(UUID uuid, DataOutput out) throws IOException {
+        out.writeBoolean(uuid != null);
+        if (uuid != null) {
+            out.writeLong(uuid.getMostSignificantBits());
+            out.writeLong(uuid.getLeastSignificantBits());
+        }
+    }
+
+    private static UUID readUuid(DataInput in) throws IOException {
+        return in.readBoolean() ? new UUID(in.readLong(), in.readLong()) : null;
+    }
+
+    private static void writeString(String value, DataOutput out) throws IOException {
+        out.writeBoolean(value != null);
+        if (value != null) {
+            out.writeUTF(value);
+        }
+    }
+
+    private static String readString(DataInput in) throws IOException {
+        return in.readBoolean() ? in.readUTF() : null;
+    }
+}
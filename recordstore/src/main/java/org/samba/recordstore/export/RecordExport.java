@@ -0,0 +1,36 @@
+package org.samba.recordstore.export;
+
+import com.fasterxml.jackson.databind.SequenceWriter;
+import lombok.RequiredArgsConstructor;
+import lombok.SneakyThrows;
+import org.factcast.core.Fact;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.LocalManagedProjection;
+import org.samba.recordstore.events.RecordAdded;
+
+// A throw-away projection per export: every RecordAdded is written to the client as soon as Factus delivers it,
+// nothing is kept in memory. Resuming from a fact id is done by Factus (state), from a serial by skipping.
+@RequiredArgsConstructor
+class RecordExport extends LocalManagedProjection {
+
+    private final SequenceWriter writer;
+    private final RecordExportController.EventToRowMapper mapper;
+    private final long afterSerial;
+
+    private long exported;
+
+    @Handler
+    @SneakyThrows  // the client went away, aborts the export
+    void apply(RecordAdded event, Fact fact) {
+        var serial = fact.serial();
+        if (serial <= afterSerial) {
+            return;
+        }
+        writer.write(mapper.eventToRow(event).factId(fact.id()).factSerial(serial));
+        exported++;
+    }
+
+    long exported() {
+        return exported;
+    }
+}
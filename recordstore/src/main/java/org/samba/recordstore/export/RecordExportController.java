@@ -0,0 +1,92 @@
+package org.samba.recordstore.export;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import lombok.extern.slf4j.Slf4j;
+import org.factcast.factus.Factus;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.gen.model.RecordRead;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+// Streams the whole catalogue as newline delimited JSON, one RecordRead per line, read directly from FactCast.
+// Not part of open-api.yml: the generated interface can't return a StreamingResponseBody.
+//
+// Every line carries factId and factSerial. After an interrupted export the client passes the last
+// one it received as "afterFactId" (preferred, FactCast starts right there) or "afterSerial".
+@Slf4j
+@RestController
+public class RecordExportController {
+
+    static final MediaType NDJSON = MediaType.parseMediaType("application/x-ndjson");
+
+    private final Factus factus;
+    private final EventToRowMapper mapper;
+    private final ObjectWriter rowWriter;
+
+    public RecordExportController(Factus factus, EventToRowMapper mapper, ObjectMapper objectMapper) {
+        this.factus = factus;
+        this.mapper = mapper;
+        // plain lines, the HAL links of RecordRead make no sense in an export
+        this.rowWriter = objectMapper.copy()
+                .addMixIn(RecordRead.class, WithoutLinks.class)
+                .writerFor(RecordRead.class)
+                .withRootValueSeparator("\n");
+    }
+
+    @GetMapping(path = "/recordstore/export", produces = "application/x-ndjson")
+    public ResponseEntity<StreamingResponseBody> export(@RequestParam(required = false) UUID afterFactId,
+                                                        @RequestParam(required = false, defaultValue = "0") long afterSerial) {
+        return ResponseEntity.ok()
+                .contentType(NDJSON)
+                .body(out -> export(out, afterFactId, afterSerial));
+    }
+
+    long export(OutputStream out, UUID afterFactId, long afterSerial) throws IOException {
+        var buffered = new BufferedOutputStream(out, 64 * 1024);
+        try (var writer = rowWriter.writeValues(buffered)) {
+            var export = new RecordExport(writer, mapper, afterSerial);
+            if (afterFactId != null) {
+                export.state(afterFactId);
+            }
+            factus.update(export);
+            // SequenceWriter only separates values, terminate the last line as well
+            writer.flush();
+            if (export.exported() > 0) {
+                buffered.write('\n');
+            }
+            log.info("Exported {} records", export.exported());
+            return export.exported();
+        }
+    }
+
+    @JsonIgnoreProperties("links")
+    interface WithoutLinks {
+    }
+
+    @Mapper(componentModel = "spring")
+    public interface EventToRowMapper {
+        // factId and factSerial come from the fact, see RecordExport
+        @Mapping(target = "factId", ignore = true)
+        @Mapping(target = "factSerial", ignore = true)
+        RecordRead eventToRow(RecordAdded event);
+
+        default OffsetDateTime toOffsetDateTime(ZonedDateTime zonedDateTime) {
+            return zonedDateTime == null ? null : zonedDateTime.toOffsetDateTime();
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package org.samba.recordstore.history;
+
+import eu.prismacapacity.spring.cqs.query.Query;
+import lombok.Value;
+
+import javax.validation.constraints.NotNull;
+import java.util.UUID;
+
+@Value(staticConstructor = "of")
+public class GetRecordHistory implements Query {
+    @NotNull
+    UUID recordId;
+}
@@ -0,0 +1,28 @@
+package org.samba.recordstore.history;
+
+import eu.prismacapacity.spring.cqs.query.QueryHandler;
+import eu.prismacapacity.spring.cqs.query.QueryHandlingException;
+import eu.prismacapacity.spring.cqs.query.QueryTimeoutException;
+import eu.prismacapacity.spring.cqs.query.QueryVerificationException;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.Optional;
+
+@Component
+@RequiredArgsConstructor
+public class GetRecordHistoryHandler implements QueryHandler<GetRecordHistory, Optional<RecordAggregate>> {
+
+    private final RecordAggregateCache aggregates;
+
+    @Override
+    public void verify(@NonNull GetRecordHistory query) throws QueryVerificationException {
+        // every client may read the history of a record
+    }
+
+    @Override
+    public Optional<RecordAggregate> handle(@NonNull GetRecordHistory query) throws QueryHandlingException, QueryTimeoutException {
+        return aggregates.find(query.getRecordId());
+    }
+}
@@ -0,0 +1,81 @@
+package org.samba.recordstore.history;
+
+import com.fasterxml.jackson.annotation.JsonIgnore;
+import lombok.Getter;
+import lombok.Setter;
+import org.factcast.core.Fact;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.Aggregate;
+import org.factcast.factus.snapshot.SerializeUsing;
+import org.samba.recordstore.dictionary.FieldDictionary;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// A single record with all the facts that made it what it is. Found via factus.find(RecordAggregate.class, recordId),
+// usually through the RecordAggregateCache.
+@Getter
+@Setter  // no @Data: equals/hashCode would ignore the aggregate id of the superclass
+@SerializeUsing(RecordAggregateSnapshotSerializer.class)
+public class RecordAggregate extends Aggregate {
+    private String artist;
+    private String title;
+    private String label;
+    private String format;
+    private LocalDate releaseDate;
+    private ZonedDateTime addedToStore;
+    private List<RecordHistoryEntry> history = new ArrayList<>();
+
+    @Handler
+    void apply(RecordAdded event, Fact fact) {
+        this.artist = event.getArtist();
+        this.title = event.getTitle();
+        setLabel(event.getLabel());
+        setFormat(event.getFormat());
+        this.releaseDate = event.getReleaseDate();
+        this.addedToStore = event.getAddedToStore();
+        record(fact);
+    }
+
+    // also used by Jackson when an aggregate is read from a snapshot
+    public void setLabel(String label) {
+        this.label = FieldDictionary.LABELS.canonical(label);
+    }
+
+    public void setFormat(String format) {
+        this.format = FieldDictionary.FORMATS.canonical(format);
+    }
+
+    @JsonIgnore  // Factus keeps the aggregate id itself
+    public UUID getRecordId() {
+        return aggregateId();
+    }
+
+    // serial of the last applied fact, 0 for a fresh aggregate
+    @JsonIgnore
+    public long getVersion() {
+        return history.isEmpty() ? 0 : history.get(history.size() - 1).getFactSerial();
+    }
+
+    // cached aggregates are never changed in place, readers may hold on to them
+    RecordAggregate copy() {
+        var copy = new RecordAggregate();
+        copy.aggregateId(aggregateId());
+        copy.artist = artist;
+        copy.title = title;
+        copy.label = label;
+        copy.format = format;
+        copy.releaseDate = releaseDate;
+        copy.addedToStore = addedToStore;
+        copy.history = new ArrayList<>(history);
+        return copy;
+    }
+
+    private void record(Fact fact) {
+        history.add(new RecordHistoryEntry(fact.id(), fact.serial(), fact.type()));
+    }
+}
@@ -0,0 +1,113 @@
+package org.samba.recordstore.history;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.factcast.core.Fact;
+import org.factcast.core.FactCast;
+import org.factcast.core.subscription.Subscription;
+import org.factcast.core.subscription.SubscriptionRequest;
+import org.factcast.factus.Factus;
+import org.factcast.factus.Handler;
+import org.factcast.factus.event.EventSerializer;
+import org.factcast.factus.projection.Projection;
+import org.factcast.factus.projector.DefaultProjectorFactory;
+import org.factcast.factus.projector.Projector;
+import org.samba.recordstore.events.RecordAdded;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+// Hot RecordAggregates without a FactCast round-trip. A miss loads the aggregate with factus.find(),
+// after that the subscription applies new facts to the cached instance (copy on write, readers never see a change).
+// Caffeine's W-TinyLFU keeps the frequently read records, expire-after-write bounds the staleness in the rare case
+// a fact slips in between find() and the cache put.
+// The cache starts empty, so older facts have nothing to update: it follows the store from now on instead of
+// replaying the whole history on every start (not a SubscribedProjection, ProjectionSubscriber leaves it alone).
+@Component
+public class RecordAggregateCache implements Projection {
+
+    private final Factus factus;
+    private final FactCast factCast;
+    private final Projector<RecordAggregateCache> projector;
+    private final Cache<UUID, RecordAggregate> cache;
+    private final Timer staleness;
+    private Subscription subscription;
+
+    public RecordAggregateCache(Factus factus,
+                                FactCast factCast,
+                                EventSerializer eventSerializer,
+                                MeterRegistry meterRegistry,
+                                @Value("${recordstore.aggregate.cache.max-size:100000}") long maxSize,
+                                @Value("${recordstore.aggregate.cache.expire-after-write-seconds:600}") long expireAfterWriteSeconds) {
+        this.factus = factus;
+        this.factCast = factCast;
+        this.projector = new DefaultProjectorFactory(eventSerializer).create(this);
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteSeconds, TimeUnit.SECONDS)
+                .recordStats()
+                .build();
+
+        // hits, misses, evictions, size
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "recordstore.aggregates");
+        Gauge.builder("recordstore.aggregates.hit.ratio", cache, it -> it.stats().hitRate())
+                .register(meterRegistry);
+        // time from publishing a fact until the cached aggregates reflect it
+        this.staleness = Timer.builder("recordstore.aggregates.staleness")
+                .publishPercentiles(0.5, 0.99)
+                .register(meterRegistry);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void start() {
+        if (subscription == null) {
+            subscription = factCast.subscribe(
+                    SubscriptionRequest.follow(projector.createFactSpecs()).fromNowOn(),
+                    projector::apply);
+        }
+    }
+
+    @PreDestroy
+    public synchronized void stop() throws Exception {
+        if (subscription != null) {
+            subscription.close();
+            subscription = null;
+        }
+    }
+
+    public Optional<RecordAggregate> find(UUID recordId) {
+        // a null result (unknown record) is not cached, the record might show up any moment
+        return Optional.ofNullable(cache.get(recordId, id -> factus.find(RecordAggregate.class, id).orElse(null)));
+    }
+
+    @Handler
+    void apply(RecordAdded event, Fact fact) {
+        var updated = new boolean[1];
+        cache.asMap().computeIfPresent(event.getRecordId(), (id, cached) -> {
+            // the aggregate may have been loaded after this fact was published
+            if (fact.serial() <= cached.getVersion()) {
+                return cached;
+            }
+            var copy = cached.copy();
+            copy.apply(event, fact);
+            updated[0] = true;
+            return copy;
+        });
+
+        // only facts a reader could have seen stale, not the ones for records nobody asked for
+        var timestamp = fact.timestamp();
+        if (updated[0] && timestamp != null) {
+            staleness.record(Math.max(0, System.currentTimeMillis() - timestamp), TimeUnit.MILLISECONDS);
+        }
+    }
+}
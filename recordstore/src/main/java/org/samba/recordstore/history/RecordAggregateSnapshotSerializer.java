@@ -0,0 +1,16 @@
+package org.samba.recordstore.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.factcast.factus.serializer.JacksonSnapshotSerializer;
+
+// Factus' default snapshot ObjectMapper does not know java.time (ends in an infinite recursion on ZoneRules)
+public class RecordAggregateSnapshotSerializer extends JacksonSnapshotSerializer {
+
+    public RecordAggregateSnapshotSerializer() {
+        super(new ObjectMapper()
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .registerModule(new JavaTimeModule()));
+    }
+}
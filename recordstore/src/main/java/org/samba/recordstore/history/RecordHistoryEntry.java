@@ -0,0 +1,18 @@
+package org.samba.recordstore.history;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.UUID;
+
+// one fact which was applied to a RecordAggregate
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)  // required by jackson, aggregates are snapshotted
+public class RecordHistoryEntry {
+    private UUID factId;
+    private long factSerial;
+    private String type;
+}
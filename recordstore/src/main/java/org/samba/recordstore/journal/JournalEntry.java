@@ -0,0 +1,33 @@
+package org.samba.recordstore.journal;
+
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Value;
+import org.factcast.core.Fact;
+
+import java.util.UUID;
+
+// a fact waiting in the RecordJournal. Fingerprint and record id come along, so the RecordFingerprintIndex
+// can be refilled with the records which were accepted but not yet published before a restart
+@Value
+@AllArgsConstructor(access = AccessLevel.PACKAGE)
+public class JournalEntry {
+
+    long sequence;  // assigned by the journal, 0 until appended
+    long fingerprint;
+    UUID recordId;
+    String header;
+    String payload;
+
+    public static JournalEntry of(long fingerprint, UUID recordId, Fact fact) {
+        return new JournalEntry(0, fingerprint, recordId, fact.jsonHeader(), fact.jsonPayload());
+    }
+
+    public UUID factId() {
+        return toFact().id();
+    }
+
+    public Fact toFact() {
+        return Fact.of(header, payload);
+    }
+}
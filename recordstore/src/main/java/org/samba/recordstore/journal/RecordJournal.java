@@ -0,0 +1,375 @@
+package org.samba.recordstore.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.samba.recordstore.PipelineSaturatedException;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.stream.Collectors;
+import java.util.zip.CRC32;
+
+// Append-only journal of the facts waiting to be published, memory mapped files in one directory:
+//
+//   journal-<sequence of the first entry>.log   fixed size segments, zero filled, entries back to back
+//   published                                   sequence of the last entry FactCast has accepted
+//
+// Entry: int length | int crc32 | long sequence | long fingerprint | uuid recordId | header | payload
+//
+// A length of 0 is the end of the entries. After a crash the first entry with a broken length, checksum or
+// sequence is the torn end of the journal, it and everything after it was never acknowledged to a client.
+// Segments are deleted once all their entries are published.
+@Slf4j
+public class RecordJournal implements Closeable {
+
+    static final String PUBLISHED_FILE = "published";
+    private static final String SEGMENT_PREFIX = "journal-";
+    private static final String SEGMENT_SUFFIX = ".log";
+    private static final int ENTRY_HEADER = 2 * Integer.BYTES;  // length + crc
+
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean sync;
+    private final MappedByteBuffer published;
+    private final List<Segment> segments = new ArrayList<>();
+
+    private long publishedSequence;
+    private long lastSequence;
+
+    // the drainer's position, entries before it have been handed out by read()
+    private Segment readSegment;
+    private int readPosition;
+    private long readSequence;
+
+    // sync: force every append to disk before it returns. Without it a crash of the machine (not of the JVM)
+    // can lose acknowledged records
+    public RecordJournal(Path directory, int segmentSize, int maxSegments, boolean sync) throws IOException {
+        if (segmentSize < 1024 || maxSegments < 1) {
+            throw new IllegalArgumentException("Journal segments must be at least 1 KiB and at least one segment is needed");
+        }
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.sync = sync;
+        Files.createDirectories(directory);
+        this.published = map(directory.resolve(PUBLISHED_FILE), Long.BYTES);
+        this.publishedSequence = published.getLong(0);
+        recover();
+    }
+
+    public synchronized long publishedSequence() {
+        return publishedSequence;
+    }
+
+    public synchronized long lastSequence() {
+        return lastSequence;
+    }
+
+    public synchronized long unpublished() {
+        return lastSequence - publishedSequence;
+    }
+
+    // all or nothing: either every entry is in the journal or none is
+    public synchronized void append(List<JournalEntry> entries) {
+        var encoded = entries.stream().map(RecordJournal::encode).collect(Collectors.toList());
+        requireSpaceFor(encoded);
+
+        var active = active();
+        var touched = new ArrayList<Segment>(2);
+        touched.add(active);
+        for (var entry : encoded) {
+            if (active.position + entry.capacity() > active.buffer.capacity()) {
+                active = roll();
+                touched.add(active);
+            }
+            var sequence = lastSequence + 1;
+            entry.putLong(ENTRY_HEADER, sequence);
+            entry.putInt(Integer.BYTES, crc(entry));
+            // the length goes in last, until then the entry ends the journal
+            var buffer = active.buffer.duplicate();
+            buffer.position(active.position + Integer.BYTES);
+            buffer.put(entry.position(Integer.BYTES));
+            active.buffer.putInt(active.position, entry.getInt(0));
+            active.position += entry.capacity();
+            active.lastSequence = sequence;
+            lastSequence = sequence;
+        }
+        if (sync) {
+            touched.forEach(it -> it.buffer.force());
+        }
+        notifyAll();
+    }
+
+    // the next entries after the ones handed out before, waits up to timeout for the first one
+    public synchronized List<JournalEntry> read(int max, long timeout, TimeUnit unit) throws InterruptedException {
+        var deadline = System.nanoTime() + unit.toNanos(timeout);
+        while (readSequence == lastSequence) {
+            var remaining = deadline - System.nanoTime();
+            if (remaining <= 0) {
+                return List.of();
+            }
+            TimeUnit.NANOSECONDS.timedWait(this, remaining);
+        }
+        var entries = new ArrayList<JournalEntry>(Math.min(max, (int) Math.min(Integer.MAX_VALUE, lastSequence - readSequence)));
+        while (entries.size() < max && readSequence < lastSequence) {
+            if (readPosition >= readSegment.position) {
+                readSegment = segments.get(segments.indexOf(readSegment) + 1);
+                readPosition = 0;
+            }
+            var entry = decode(readSegment.buffer, readPosition);
+            readPosition += ENTRY_HEADER + readSegment.buffer.getInt(readPosition);
+            readSequence = entry.getSequence();
+            entries.add(entry);
+        }
+        return entries;
+    }
+
+    // the entries not yet published, without moving the read position
+    public synchronized void forEachUnpublished(Consumer<JournalEntry> consumer) {
+        for (var segment : segments) {
+            if (segment.lastSequence <= publishedSequence) {
+                continue;
+            }
+            for (int position = 0; position < segment.position; ) {
+                var entry = decode(segment.buffer, position);
+                position += ENTRY_HEADER + segment.buffer.getInt(position);
+                if (entry.getSequence() > publishedSequence) {
+                    consumer.accept(entry);
+                }
+            }
+        }
+    }
+
+    public synchronized void markPublished(long sequence) {
+        if (sequence <= publishedSequence) {
+            return;
+        }
+        publishedSequence = sequence;
+        published.putLong(0, sequence);
+        if (sync) {
+            published.force();
+        }
+        while (segments.size() > 1 && segments.get(0).lastSequence <= publishedSequence && segments.get(0) != readSegment) {
+            delete(segments.remove(0));
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        segments.forEach(it -> it.buffer.force());
+        published.force();
+    }
+
+    private void recover() throws IOException {
+        List<Path> files;
+        try (var listing = Files.list(directory)) {
+            files = listing
+                    .filter(it -> it.getFileName().toString().startsWith(SEGMENT_PREFIX))
+                    .filter(it -> it.getFileName().toString().endsWith(SEGMENT_SUFFIX))
+                    .sorted()  // zero padded sequence
+                    .collect(Collectors.toList());
+        }
+
+        lastSequence = publishedSequence;
+        var torn = false;
+        for (var file : files) {
+            if (torn) {
+                log.error("Discarding journal segment {} behind the torn end of the journal", file);
+                Files.delete(file);
+                continue;
+            }
+            var segment = new Segment(file, map(file, (int) Files.size(file)), firstSequenceOf(file));
+            if (!segments.isEmpty() && segment.firstSequence != lastSequence + 1) {
+                log.error("Discarding journal segment {}, expected it to start at {}", file, lastSequence + 1);
+                Files.delete(file);
+                torn = true;
+                continue;
+            }
+            torn = !scan(segment);
+            segments.add(segment);
+            lastSequence = segment.lastSequence;
+        }
+        if (segments.isEmpty()) {
+            segments.add(create(publishedSequence + 1));
+        }
+        lastSequence = Math.max(lastSequence, publishedSequence);
+
+        while (segments.size() > 1 && segments.get(0).lastSequence <= publishedSequence) {
+            delete(segments.remove(0));
+        }
+
+        // the drainer starts right after the published entries
+        readSegment = segments.get(0);
+        readPosition = 0;
+        readSequence = readSegment.firstSequence - 1;
+        while (readSequence < publishedSequence && readPosition < readSegment.position) {
+            readSequence = readSegment.buffer.getLong(readPosition + ENTRY_HEADER);
+            readPosition += ENTRY_HEADER + readSegment.buffer.getInt(readPosition);
+        }
+        readSequence = Math.max(readSequence, publishedSequence);
+
+        if (unpublished() > 0) {
+            log.info("Journal {} holds {} unpublished records after sequence {}", directory, unpublished(), publishedSequence);
+        }
+    }
+
+    // finds the end of the segment's entries, false if it ends with a torn entry
+    private static boolean scan(Segment segment) {
+        var buffer = segment.buffer;
+        var position = 0;
+        var sequence = segment.firstSequence - 1;
+        while (position + ENTRY_HEADER <= buffer.capacity()) {
+            var length = buffer.getInt(position);
+            if (length == 0) {
+                break;
+            }
+            if (length < 0 || position + ENTRY_HEADER + length > buffer.capacity()
+                    || buffer.getInt(position + Integer.BYTES) != crc(buffer, position, length)
+                    || buffer.getLong(position + ENTRY_HEADER) != sequence + 1) {
+                log.warn("Journal segment {} ends with a torn entry at {}, discarding it", segment.file, position);
+                for (int i = position; i < buffer.capacity(); i++) {
+                    buffer.put(i, (byte) 0);
+                }
+                buffer.force();
+                segment.position = position;
+                segment.lastSequence = sequence;
+                return false;
+            }
+            sequence++;
+            position += ENTRY_HEADER + length;
+        }
+        segment.position = position;
+        segment.lastSequence = sequence;
+        return true;
+    }
+
+    private void requireSpaceFor(List<ByteBuffer> entries) {
+        var position = active().position;
+        var segmentsNeeded = segments.size();
+        for (var entry : entries) {
+            if (entry.capacity() > segmentSize) {
+                throw new IllegalArgumentException("Record of " + entry.capacity() + " bytes does not fit into a journal segment");
+            }
+            if (position + entry.capacity() > active().buffer.capacity()) {
+                segmentsNeeded++;
+                position = 0;
+            }
+            position += entry.capacity();
+        }
+        if (segmentsNeeded > maxSegments) {
+            throw new PipelineSaturatedException("Journal is full, too many records waiting to be published");
+        }
+    }
+
+    private Segment active() {
+        return segments.get(segments.size() - 1);
+    }
+
+    private Segment roll() {
+        try {
+            var previous = active();
+            if (sync) {
+                previous.buffer.force();
+            }
+            var segment = create(lastSequence + 1);
+            segments.add(segment);
+            return segment;
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    private Segment create(long firstSequence) throws IOException {
+        var file = directory.resolve(String.format("%s%020d%s", SEGMENT_PREFIX, firstSequence, SEGMENT_SUFFIX));
+        return new Segment(file, map(file, segmentSize), firstSequence);
+    }
+
+    private void delete(Segment segment) {
+        try {
+            Files.deleteIfExists(segment.file);
+        } catch (IOException e) {
+            log.warn("Could not delete published journal segment {}", segment.file, e);
+        }
+    }
+
+    private static long firstSequenceOf(Path file) {
+        var name = file.getFileName().toString();
+        return Long.parseLong(name.substring(SEGMENT_PREFIX.length(), name.length() - SEGMENT_SUFFIX.length()));
+    }
+
+    // the mapping stays valid after the channel is closed
+    private static MappedByteBuffer map(Path file, int size) throws IOException {
+        try (var channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            return channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        }
+    }
+
+    // the whole entry incl. its header, sequence and crc are filled in by append
+    private static ByteBuffer encode(JournalEntry entry) {
+        var header = entry.getHeader().getBytes(StandardCharsets.UTF_8);
+        var payload = entry.getPayload().getBytes(StandardCharsets.UTF_8);
+        var length = 4 * Long.BYTES + 2 * Integer.BYTES + header.length + payload.length;
+        var buffer = ByteBuffer.allocate(ENTRY_HEADER + length);
+        buffer.putInt(length)
+                .putInt(0)
+                .putLong(0)
+                .putLong(entry.getFingerprint())
+                .putLong(entry.getRecordId().getMostSignificantBits())
+                .putLong(entry.getRecordId().getLeastSignificantBits())
+                .putInt(header.length).put(header)
+                .putInt(payload.length).put(payload);
+        return buffer.flip();
+    }
+
+    private static JournalEntry decode(ByteBuffer buffer, int position) {
+        var in = buffer.duplicate().position(position + ENTRY_HEADER);
+        var sequence = in.getLong();
+        var fingerprint = in.getLong();
+        var recordId = new UUID(in.getLong(), in.getLong());
+        var header = new byte[in.getInt()];
+        in.get(header);
+        var payload = new byte[in.getInt()];
+        in.get(payload);
+        return new JournalEntry(sequence, fingerprint, recordId,
+                new String(header, StandardCharsets.UTF_8), new String(payload, StandardCharsets.UTF_8));
+    }
+
+    private static int crc(ByteBuffer entry) {
+        return crc(entry, 0, entry.getInt(0));
+    }
+
+    // over everything behind length and crc
+    private static int crc(ByteBuffer buffer, int position, int length) {
+        var crc = new CRC32();
+        crc.update(buffer.duplicate().position(position + ENTRY_HEADER).limit(position + ENTRY_HEADER + length));
+        return (int) crc.getValue();
+    }
+
+    private static class Segment {
+        final Path file;
+        final MappedByteBuffer buffer;
+        final long firstSequence;
+        int position;  // end of the entries
+        long lastSequence;
+
+        Segment(Path file, MappedByteBuffer buffer, long firstSequence) {
+            this.file = file;
+            this.buffer = buffer;
+            this.firstSequence = firstSequence;
+            this.lastSequence = firstSequence - 1;
+        }
+    }
+}
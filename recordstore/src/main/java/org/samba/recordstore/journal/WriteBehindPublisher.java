@@ -0,0 +1,203 @@
+package org.samba.recordstore.journal;
+
+import lombok.extern.slf4j.Slf4j;
+import org.factcast.core.Fact;
+import org.factcast.core.FactCast;
+import org.factcast.core.store.RetryableException;
+import org.factcast.factus.Factus;
+import org.samba.recordstore.RecordStoreMetrics;
+import org.samba.recordstore.RecordStoreThreads;
+import org.samba.recordstore.dedup.RecordFingerprint;
+import org.samba.recordstore.dedup.RecordFingerprintIndex;
+import org.samba.recordstore.events.RecordAdded;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+// recordstore.write-behind.enabled=true: AddRecordsHandler appends the accepted records to the RecordJournal
+// and answers right away, a drainer thread publishes them to FactCast in the background:
+//
+//   AddRecordsHandler --append (+ force)--> journal --drainer--> factCast.publish(List) --> "published" marker
+//
+// A slow or unavailable FactCast only delays the drainer, it retries with a growing backoff until the facts are
+// accepted. The facts (incl. their ids) are created before they go into the journal: after a crash, and after
+// a failed publish which FactCast may have stored anyway, the entries are looked up by id first, the ones
+// FactCast already has are not published a second time.
+// A fact FactCast refuses (IllegalArgumentException, e.g. a FactValidationException) is refused on every retry:
+// it is written to dead-letters.jsonl in the journal directory and counted as a failure, the others go on.
+// The projections only see a record once it is drained, so a read right after the write may not find it yet.
+@Slf4j
+@Component
+@ConditionalOnProperty(name = "recordstore.write-behind.enabled", havingValue = "true")
+public class WriteBehindPublisher {
+
+    static final String DEAD_LETTERS = "dead-letters.jsonl";
+
+    private final Factus factus;
+    private final FactCast factCast;
+    private final RecordFingerprintIndex fingerprints;
+    private final RecordStoreMetrics metrics;
+    private final Path directory;
+    private final int segmentSize;
+    private final int maxSegments;
+    private final boolean sync;
+    private final int batchSize;
+    private final long retryMinMillis;
+    private final long retryMaxMillis;
+    private final ExecutorService executor;
+
+    private RecordJournal journal;
+    private long recoveredSequence;  // the end of the journal as found at startup
+    private volatile boolean running = true;
+
+    public WriteBehindPublisher(Factus factus,
+                                FactCast factCast,
+                                RecordFingerprintIndex fingerprints,
+                                RecordStoreMetrics metrics,
+                                RecordStoreThreads threads,
+                                @Value("${recordstore.write-behind.directory:journal}") Path directory,
+                                @Value("${recordstore.write-behind.segment-size:67108864}") int segmentSize,
+                                @Value("${recordstore.write-behind.max-segments:64}") int maxSegments,
+                                @Value("${recordstore.write-behind.sync:true}") boolean sync,
+                                @Value("${recordstore.write-behind.batch-size:500}") int batchSize,
+                                @Value("${recordstore.write-behind.retry-min-millis:100}") long retryMinMillis,
+                                @Value("${recordstore.write-behind.retry-max-millis:10000}") long retryMaxMillis) {
+        this.factus = factus;
+        this.factCast = factCast;
+        this.fingerprints = fingerprints;
+        this.metrics = metrics;
+        this.directory = directory;
+        this.segmentSize = segmentSize;
+        this.maxSegments = maxSegments;
+        this.sync = sync;
+        this.batchSize = batchSize;
+        this.retryMinMillis = retryMinMillis;
+        this.retryMaxMillis = retryMaxMillis;
+        this.executor = Executors.newSingleThreadExecutor(threads.factory("journal-drainer"));
+    }
+
+    // runs before the web server takes requests
+    @PostConstruct
+    public void start() throws IOException {
+        journal = new RecordJournal(directory, segmentSize, maxSegments, sync);
+        recoveredSequence = journal.lastSequence();
+        // until they are published and the fact stream has them, retries of these records are only known from here
+        journal.forEachUnpublished(entry -> fingerprints.remember(entry.getFingerprint(), entry.getRecordId()));
+        metrics.journal(journal);
+        executor.execute(this::drainLoop);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        executor.shutdownNow();
+        executor.awaitTermination(5, TimeUnit.SECONDS);
+        // whatever is left is published after the next start
+        journal.close();
+    }
+
+    // returns once the records are in the journal, throws PipelineSaturatedException when it is full
+    public void append(List<RecordAdded> events) {
+        var entries = events.stream()
+                .map(event -> JournalEntry.of(
+                        RecordFingerprint.of(event, event.getIdempotencyKey()), event.getRecordId(), factus.toFact(event)))
+                .collect(Collectors.toList());
+        journal.append(entries);
+    }
+
+    private void drainLoop() {
+        while (running) {
+            try {
+                var batch = journal.read(batchSize, 100, TimeUnit.MILLISECONDS);
+                if (batch.isEmpty()) {
+                    continue;
+                }
+                publish(batch, false);
+                journal.markPublished(batch.get(batch.size() - 1).getSequence());
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            }
+        }
+    }
+
+    // Does not give up on FactCast, the records were acknowledged to the clients already.
+    // mayBeStored: an earlier attempt failed, FactCast may have stored (some of) the facts nevertheless
+    private void publish(List<JournalEntry> batch, boolean mayBeStored) throws InterruptedException {
+        var backoff = retryMinMillis;
+        var failed = mayBeStored;
+        while (true) {
+            try {
+                var facts = unpublishedFacts(batch, failed);
+                if (!facts.isEmpty()) {
+                    metrics.publishBatch(facts.size());
+                    metrics.time("publish", () -> factCast.publish(facts));
+                }
+                return;
+            } catch (RuntimeException e) {
+                metrics.failure("write-behind", e);
+                if (isRefusal(e)) {
+                    deadLetter(batch, e);
+                    return;
+                }
+                log.warn("Publishing {} journaled records failed, retrying in {} ms", batch.size(), backoff, e);
+                failed = true;
+                TimeUnit.MILLISECONDS.sleep(backoff);
+                backoff = Math.min(2 * backoff, retryMaxMillis);
+            }
+        }
+    }
+
+    // the connection problems of FactCast's client come as RetryableException
+    private static boolean isRefusal(RuntimeException e) {
+        return e instanceof IllegalArgumentException && !(e instanceof RetryableException);
+    }
+
+    // a refused batch is published entry by entry, to dead-letter only the ones which are refused themselves
+    private void deadLetter(List<JournalEntry> batch, RuntimeException e) throws InterruptedException {
+        if (batch.size() > 1) {
+            for (var entry : batch) {
+                publish(List.of(entry), true);
+            }
+            return;
+        }
+        var entry = batch.get(0);
+        log.error("FactCast refused journaled record {}, moved to {}", entry.getRecordId(), DEAD_LETTERS, e);
+        metrics.failure("write-behind-dead-letter", e);
+        // the record is not stored, a retry of the client must be able to add it again
+        fingerprints.release(entry.getFingerprint(), entry.getRecordId());
+        var line = "{\"header\":" + entry.getHeader() + ",\"payload\":" + entry.getPayload() + "}\n";
+        try {
+            Files.writeString(directory.resolve(DEAD_LETTERS), line, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException io) {
+            log.error("Could not write the dead letter, the fact was {}", line, io);
+        }
+    }
+
+    // A crash right after a publish leaves published entries behind the marker. So does a publish which failed
+    // after FactCast had stored the facts (e.g. the connection dropped before the answer came back).
+    private List<Fact> unpublishedFacts(List<JournalEntry> batch, boolean mayBeStored) {
+        var facts = new ArrayList<Fact>(batch.size());
+        for (var entry : batch) {
+            var check = mayBeStored || entry.getSequence() <= recoveredSequence;
+            if (check && factCast.serialOf(entry.factId()).isPresent()) {
+                continue;
+            }
+            facts.add(entry.toFact());
+        }
+        return facts;
+    }
+}
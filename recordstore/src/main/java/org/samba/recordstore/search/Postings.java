@@ -0,0 +1,38 @@
+package org.samba.recordstore.search;
+
+import java.util.Arrays;
+import java.util.function.IntPredicate;
+
+// The records of one term, as ordinals (see RecordIds). Append only, written by the subscription thread
+// of the index and read by any number of query threads without locking: the array is replaced before
+// the size is raised, so a reader which sees a size sees an array at least that long.
+final class Postings {
+
+    private int[] ordinals = new int[1];
+    private volatile int size;
+
+    void add(int ordinal) {
+        var n = size;
+        // a title like "Love Love Love" yields the same record for one term more than once
+        if (n > 0 && ordinals[n - 1] == ordinal) {
+            return;
+        }
+        if (n == ordinals.length) {
+            ordinals = Arrays.copyOf(ordinals, n * 2);
+        }
+        ordinals[n] = ordinal;
+        size = n + 1;
+    }
+
+    // in the order the records were added, stops as soon as the consumer returns false
+    boolean forEach(IntPredicate consumer) {
+        var n = size;
+        var current = ordinals;
+        for (var i = 0; i < n; i++) {
+            if (!consumer.test(current[i])) {
+                return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,42 @@
+package org.samba.recordstore.search;
+
+import java.util.UUID;
+
+// Maps the ordinals used in the postings back to record ids. The ids are kept as plain longs in chunks of
+// 64k records: 16 bytes per record, and the table never has to be copied while it grows.
+// Same threading as Postings: one writer, readers only look at ordinals they got from a posting.
+final class RecordIds {
+
+    private static final int CHUNK_BITS = 16;
+    private static final int CHUNK_SIZE = 1 << CHUNK_BITS;
+
+    private final long[][] chunks = new long[1 << (31 - CHUNK_BITS)][];
+    private volatile int size;
+
+    int add(UUID recordId) {
+        var ordinal = size;
+        var chunk = chunks[ordinal >>> CHUNK_BITS];
+        if (chunk == null) {
+            chunk = new long[2 * CHUNK_SIZE];
+            chunks[ordinal >>> CHUNK_BITS] = chunk;
+        }
+        var offset = 2 * (ordinal & (CHUNK_SIZE - 1));
+        chunk[offset] = recordId.getMostSignificantBits();
+        chunk[offset + 1] = recordId.getLeastSignificantBits();
+        size = ordinal + 1;
+        return ordinal;
+    }
+
+    UUID get(int ordinal) {
+        if (ordinal >= size) {
+            throw new IndexOutOfBoundsException("No record with ordinal " + ordinal);
+        }
+        var chunk = chunks[ordinal >>> CHUNK_BITS];
+        var offset = 2 * (ordinal & (CHUNK_SIZE - 1));
+        return new UUID(chunk[offset], chunk[offset + 1]);
+    }
+
+    int size() {
+        return size;
+    }
+}
@@ -0,0 +1,136 @@
+package org.samba.recordstore.search;
+
+import lombok.NonNull;
+import org.factcast.core.Fact;
+import org.factcast.core.spec.FactSpec;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.LocalSubscribedProjection;
+import org.samba.recordstore.catalog.CatalogPosition;
+import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.shard.ShardAssignment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentNavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.stream.Collectors;
+
+// Prefix search over artist, title and label, kept up to date by a Factus subscription like the catalogue.
+// Per field a sorted map from term to the records which contain it: a prefix is a range of that map, found
+// in O(log terms), and a page of results only walks as many postings as it needs.
+// Heap: every distinct term costs a skip list node, the String and its Postings, around 120 bytes plus the
+// characters (at most MAX_TERM_LENGTH). Artist and label terms are shared by many records, title terms mostly
+// are not: a value yields itself and each suffix starting at a word (see SearchTerms), so a long title adds up
+// to MAX_WORDS terms of its own. On top of that one int per record and term in a posting (up to two, the arrays
+// double) and 16 bytes per record for its id. RecordSearchBenchmark in the performance module measures it.
+// Sharded like the catalogue, every node indexes the records of its partitions (see ShardedCatalog.search).
+@Component
+public class RecordSearchIndex extends LocalSubscribedProjection {
+
+    private final ShardAssignment shard;
+    private final Map<SearchField, ConcurrentNavigableMap<String, Postings>> terms = new EnumMap<>(SearchField.class);
+    private final RecordIds recordIds = new RecordIds();
+
+    private volatile CatalogPosition position = CatalogPosition.EMPTY;
+
+    public RecordSearchIndex() {
+        this(ShardAssignment.SINGLE);
+    }
+
+    @Autowired
+    public RecordSearchIndex(ShardAssignment shard) {
+        this.shard = shard;
+        for (var field : SearchField.values()) {
+            terms.put(field, new ConcurrentSkipListMap<>());
+        }
+    }
+
+    @Override
+    public @NonNull List<FactSpec> postprocess(@NonNull List<FactSpec> specsAsDiscovered) {
+        return shard.restrict(specsAsDiscovered);
+    }
+
+    @Handler
+    void apply(RecordAdded event, Fact fact) {
+        if (!shard.ownsRecord(event.getRecordId())) {
+            position = CatalogPosition.of(fact.id(), fact.serial());
+            return;
+        }
+        var ordinal = recordIds.add(event.getRecordId());
+        index(SearchField.ARTIST, event.getArtist(), ordinal);
+        index(SearchField.TITLE, event.getTitle(), ordinal);
+        index(SearchField.LABEL, event.getLabel(), ordinal);
+        position = CatalogPosition.of(fact.id(), fact.serial());
+    }
+
+    // Exact prefix matches come first, then (if asked for) the ones within one typo. Within that by field
+    // in the order artist, title, label, then alphabetically by typo variant and term, then in the order the
+    // records were added. See SearchHit.ORDER
+    public SearchHits search(SearchRecords query) {
+        var prefix = SearchTerms.prefix(query.getText());
+        var fields = query.getField() == null ? List.of(SearchField.values()) : List.of(query.getField());
+        var wanted = query.getOffset() + query.getLimit() + 1;  // one more to know if there is a next page
+
+        var hits = new LinkedHashMap<Integer, SearchHit>();
+        if (!prefix.isEmpty()) {
+            var more = collect(fields, Set.of(prefix), false, hits, wanted);
+            if (more && query.isFuzzy()) {
+                collect(fields, new TreeSet<>(SearchTerms.variants(prefix)), true, hits, wanted);
+            }
+        }
+
+        var page = hits.values().stream()
+                .skip(query.getOffset())
+                .limit(query.getLimit())
+                .collect(Collectors.toList());
+        return SearchHits.of(page, hits.size() == wanted);
+    }
+
+    public CatalogPosition position() {
+        return position;
+    }
+
+    public int size() {
+        return recordIds.size();
+    }
+
+    private void index(SearchField field, String value, int ordinal) {
+        for (var term : SearchTerms.terms(value)) {
+            terms.get(field).computeIfAbsent(term, t -> new Postings()).add(ordinal);
+        }
+    }
+
+    // false as soon as the page is full. A record only counts where it matched first
+    private boolean collect(List<SearchField> fields, Set<String> prefixes, boolean fuzzy, Map<Integer, SearchHit> hits, int wanted) {
+        for (var field : fields) {
+            var index = terms.get(field);
+            for (var prefix : prefixes) {
+                // most typo variants match nothing, find that out without creating a range view
+                var first = index.ceilingKey(prefix);
+                if (first == null || !first.startsWith(prefix)) {
+                    continue;
+                }
+                var range = index.subMap(first, true, prefix + Character.MAX_VALUE, false);
+                for (var entry : range.entrySet()) {
+                    var term = entry.getKey();
+                    var more = entry.getValue().forEach(ordinal -> {
+                        if (!hits.containsKey(ordinal)) {
+                            hits.put(ordinal, SearchHit.of(recordIds.get(ordinal), fuzzy, field, prefix, term));
+                        }
+                        return hits.size() < wanted;
+                    });
+                    if (!more) {
+                        return false;
+                    }
+                }
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,16 @@
+package org.samba.recordstore.search;
+
+import lombok.Value;
+import org.samba.recordstore.catalog.CatalogPosition;
+import org.samba.recordstore.catalog.CatalogRecord;
+
+import java.util.List;
+
+// There is no total like in RecordPage: counting all records starting with "a" is exactly the work
+// the index avoids.
+@Value(staticConstructor = "of")
+public class RecordSearchPage {
+    List<CatalogRecord> records;
+    boolean more;
+    CatalogPosition position;
+}
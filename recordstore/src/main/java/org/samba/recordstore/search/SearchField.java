@@ -0,0 +1,5 @@
+package org.samba.recordstore.search;
+
+public enum SearchField {
+    ARTIST, TITLE, LABEL
+}
@@ -0,0 +1,23 @@
+package org.samba.recordstore.search;
+
+import lombok.Value;
+
+import java.util.Comparator;
+import java.util.UUID;
+
+// A match and where it was found. ORDER plus the fact serial is the order RecordSearchIndex returns its matches
+// in, so the first matches of several shards merge into the first matches of all of them (see ShardedCatalog).
+@Value(staticConstructor = "of")
+public class SearchHit {
+
+    public static final Comparator<SearchHit> ORDER = Comparator.comparing(SearchHit::isFuzzy)
+            .thenComparing(SearchHit::getField)
+            .thenComparing(SearchHit::getPrefix)
+            .thenComparing(SearchHit::getTerm);
+
+    UUID recordId;
+    boolean fuzzy;
+    SearchField field;
+    String prefix;  // the typo variant for a fuzzy match
+    String term;
+}
@@ -0,0 +1,17 @@
+package org.samba.recordstore.search;
+
+import lombok.Value;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+@Value(staticConstructor = "of")
+public class SearchHits {
+    List<SearchHit> hits;
+    boolean more;   // there is at least one more match after this page
+
+    public List<UUID> getRecordIds() {
+        return hits.stream().map(SearchHit::getRecordId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,31 @@
+package org.samba.recordstore.search;
+
+import eu.prismacapacity.spring.cqs.query.Query;
+import lombok.Builder;
+import lombok.Value;
+
+import javax.validation.constraints.Max;
+import javax.validation.constraints.Min;
+import javax.validation.constraints.NotBlank;
+
+// records whose artist, title or label has a word starting with the text, as people type
+@Value
+@Builder
+public class SearchRecords implements Query {
+    @NotBlank
+    String text;
+
+    SearchField field;  // all fields if not given
+
+    boolean fuzzy;      // also match with one typo
+
+    @Builder.Default
+    @Min(0)
+    @Max(10000)
+    int offset = 0;
+
+    @Builder.Default
+    @Min(1)
+    @Max(1000)
+    int limit = 20;
+}
@@ -0,0 +1,28 @@
+package org.samba.recordstore.search;
+
+import eu.prismacapacity.spring.cqs.query.QueryHandler;
+import eu.prismacapacity.spring.cqs.query.QueryHandlingException;
+import eu.prismacapacity.spring.cqs.query.QueryTimeoutException;
+import eu.prismacapacity.spring.cqs.query.QueryVerificationException;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.shard.ShardedCatalog;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class SearchRecordsHandler implements QueryHandler<SearchRecords, RecordSearchPage> {
+
+    private final ShardedCatalog catalog;
+
+    @Override
+    public void verify(@NonNull SearchRecords query) throws QueryVerificationException {
+        // every client may search the catalogue
+    }
+
+    @Override
+    public RecordSearchPage handle(@NonNull SearchRecords query) throws QueryHandlingException, QueryTimeoutException {
+        // all nodes when sharded, every one searches its own partitions
+        return catalog.search(query);
+    }
+}
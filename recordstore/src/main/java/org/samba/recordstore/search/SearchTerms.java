@@ -0,0 +1,85 @@
+package org.samba.recordstore.search;
+
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Set;
+import java.util.regex.Pattern;
+
+// How artist, title and label strings are turned into index terms, and queries into prefixes.
+final class SearchTerms {
+
+    // terms are cut to this length, it keeps the keys of the index small. Longer queries are cut as well,
+    // so they may return a few records more than asked for.
+    static final int MAX_TERM_LENGTH = 32;
+    // "the dark side of the moon" is found by "dark", "side", ... too, but not by every word of a long title
+    static final int MAX_WORDS = 8;
+    // below that a single typo matches half of the catalogue
+    static final int MIN_FUZZY_LENGTH = 3;
+
+    private static final Pattern MARKS = Pattern.compile("\\p{M}+");
+    private static final Pattern SEPARATORS = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final String ALPHABET = "abcdefghijklmnopqrstuvwxyz0123456789 ";
+
+    private SearchTerms() {
+    }
+
+    // "Motörhead - Ace of Spades" -> "motorhead ace of spades"
+    static String normalize(String value) {
+        if (value == null) {
+            return "";
+        }
+        var decomposed = Normalizer.normalize(value, Normalizer.Form.NFD);
+        var plain = MARKS.matcher(decomposed).replaceAll("").toLowerCase(Locale.ROOT);
+        return SEPARATORS.matcher(plain).replaceAll(" ").trim();
+    }
+
+    // the whole value and every suffix which starts at a word: "pink floyd" -> "pink floyd", "floyd"
+    static List<String> terms(String value) {
+        var normalized = normalize(value);
+        var terms = new ArrayList<String>();
+        if (normalized.isEmpty()) {
+            return terms;
+        }
+        var start = 0;
+        while (start >= 0 && terms.size() < MAX_WORDS) {
+            terms.add(cut(normalized.substring(start)));
+            var space = normalized.indexOf(' ', start);
+            start = space < 0 ? -1 : space + 1;
+        }
+        return terms;
+    }
+
+    static String prefix(String query) {
+        return cut(normalize(query));
+    }
+
+    // every prefix within one edit (deletion, substitution, insertion, transposition) of the given one,
+    // without the prefix itself. An insertion at the end is left out, the prefix itself already matches it.
+    static Set<String> variants(String prefix) {
+        var variants = new LinkedHashSet<String>();
+        if (prefix.length() < MIN_FUZZY_LENGTH) {
+            return variants;
+        }
+        var chars = prefix.toCharArray();
+        for (var i = 0; i < chars.length; i++) {
+            variants.add(prefix.substring(0, i) + prefix.substring(i + 1));
+            for (var c : ALPHABET.toCharArray()) {
+                variants.add(prefix.substring(0, i) + c + prefix.substring(i + 1));
+                variants.add(prefix.substring(0, i) + c + prefix.substring(i));
+            }
+            if (i + 1 < chars.length) {
+                variants.add(prefix.substring(0, i) + chars[i + 1] + chars[i] + prefix.substring(i + 2));
+            }
+        }
+        variants.remove(prefix);
+        variants.removeIf(variant -> variant.isBlank() || variant.startsWith(" "));
+        return variants;
+    }
+
+    private static String cut(String term) {
+        return term.length() <= MAX_TERM_LENGTH ? term : term.substring(0, MAX_TERM_LENGTH);
+    }
+}
@@ -0,0 +1,27 @@
+package org.samba.recordstore.shard;
+
+import org.samba.recordstore.catalog.FindRecords;
+import org.samba.recordstore.catalog.RecordLookup;
+import org.samba.recordstore.catalog.RecordPage;
+import org.samba.recordstore.search.SearchRecords;
+import org.samba.recordstore.stats.CountRecords;
+import org.samba.recordstore.stats.RecordCounts;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+// the part of the catalogue, search index and statistics one node holds. Asynchronous, so ShardedCatalog can
+// ask all of them at once
+public interface CatalogShard {
+
+    // the first offset + limit matches of this shard (a merged page may need all of them) and its total
+    CompletableFuture<RecordPage> find(FindRecords query);
+
+    CompletableFuture<RecordLookup> get(UUID recordId);
+
+    // the first offset + limit matches of this shard's search index, with their records
+    CompletableFuture<ShardSearchPage> search(SearchRecords query);
+
+    // the counts of this shard's records, grouped like asked for
+    CompletableFuture<RecordCounts> count(CountRecords query);
+}
@@ -0,0 +1,193 @@
+package org.samba.recordstore.shard;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.samba.recordstore.catalog.CatalogPosition;
+import org.samba.recordstore.catalog.CatalogRecord;
+import org.samba.recordstore.catalog.FindRecords;
+import org.samba.recordstore.catalog.RecordLookup;
+import org.samba.recordstore.catalog.RecordPage;
+import org.samba.recordstore.search.SearchField;
+import org.samba.recordstore.search.SearchHit;
+import org.samba.recordstore.search.SearchRecords;
+import org.samba.recordstore.stats.CountRecords;
+import org.samba.recordstore.stats.RecordCount;
+import org.samba.recordstore.stats.RecordCounts;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URLEncoder;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Locale;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+
+// the shard of another node, read through the node's ShardController
+public class HttpCatalogShard implements CatalogShard {
+
+    private final URI node;
+    private final HttpClient client;
+    private final ObjectMapper objectMapper;
+    private final Duration timeout;
+    private final String token;
+
+    public HttpCatalogShard(URI node, HttpClient client, ObjectMapper objectMapper, Duration timeout, String token) {
+        this.node = node;
+        this.client = client;
+        this.objectMapper = objectMapper;
+        this.timeout = timeout;
+        this.token = token;
+    }
+
+    @Override
+    public CompletableFuture<RecordPage> find(FindRecords query) {
+        var uri = new StringBuilder(ShardEndpoint.PATH).append("/records")
+                .append("?offset=").append(query.getOffset())
+                .append("&limit=").append(query.getLimit());
+        parameter(uri, "artist", query.getArtist());
+        parameter(uri, "label", query.getLabel());
+        parameter(uri, "format", query.getFormat());
+        parameter(uri, "releaseYear", query.getReleaseYear());
+        return fetch(request(uri.toString()).GET(), HttpCatalogShard::toPage);
+    }
+
+    @Override
+    public CompletableFuture<RecordLookup> get(UUID recordId) {
+        return fetch(request(ShardEndpoint.PATH + "/records/" + recordId).GET(), HttpCatalogShard::toPage)
+                .thenApply(page -> RecordLookup.of(page.getRecords().stream().findFirst(), page.getPosition()));
+    }
+
+    @Override
+    public CompletableFuture<ShardSearchPage> search(SearchRecords query) {
+        var uri = new StringBuilder(ShardEndpoint.PATH).append("/search")
+                .append("?q=").append(URLEncoder.encode(query.getText(), StandardCharsets.UTF_8))
+                .append("&fuzzy=").append(query.isFuzzy())
+                .append("&offset=").append(query.getOffset())
+                .append("&limit=").append(query.getLimit());
+        parameter(uri, "field", query.getField());
+        return fetch(request(uri.toString()).GET(), HttpCatalogShard::toSearchPage);
+    }
+
+    @Override
+    public CompletableFuture<RecordCounts> count(CountRecords query) {
+        var uri = new StringBuilder(ShardEndpoint.PATH).append("/statistics");
+        // the names of the public API, e.g. releaseYear
+        query.getGroupBy().forEach(dimension -> parameter(uri, "groupBy", camelCase(dimension.name())));
+        parameter(uri, "label", query.getLabel());
+        parameter(uri, "format", query.getFormat());
+        parameter(uri, "releaseYear", query.getReleaseYear());
+        parameter(uri, "addedMonth", query.getAddedMonth());
+        return fetch(request(uri.toString()).GET(), HttpCatalogShard::toCounts);
+    }
+
+    private HttpRequest.Builder request(String path) {
+        return HttpRequest.newBuilder(node.resolve(path))
+                .timeout(timeout)
+                .header("Accept", "application/json")
+                .header(ShardEndpoint.TOKEN_HEADER, token);
+    }
+
+    private <T> CompletableFuture<T> fetch(HttpRequest.Builder request, Function<JsonNode, T> parse) {
+        return client.sendAsync(request.build(), HttpResponse.BodyHandlers.ofByteArray())
+                .thenApply(response -> {
+                    if (response.statusCode() != 200) {
+                        throw new IllegalStateException("Catalogue shard " + node + " answered " + response.statusCode());
+                    }
+                    try {
+                        return parse.apply(objectMapper.readTree(response.body()));
+                    } catch (IOException e) {
+                        throw new UncheckedIOException(e);
+                    }
+                });
+    }
+
+    // by hand: the catalogue's value classes have no Jackson creators
+    private static RecordPage toPage(JsonNode json) {
+        var records = new ArrayList<CatalogRecord>();
+        for (var record : json.path("records")) {
+            records.add(toRecord(record));
+        }
+        return RecordPage.of(records, json.path("total").asInt(), toPosition(json.path("position")));
+    }
+
+    private static ShardSearchPage toSearchPage(JsonNode json) {
+        var hits = new ArrayList<SearchHit>();
+        for (var hit : json.path("hits")) {
+            hits.add(SearchHit.of(UUID.fromString(hit.path("recordId").asText()),
+                    hit.path("fuzzy").asBoolean(),
+                    SearchField.valueOf(hit.path("field").asText()),
+                    text(hit, "prefix"),
+                    text(hit, "term")));
+        }
+        var records = new ArrayList<CatalogRecord>();
+        for (var record : json.path("records")) {
+            records.add(toRecord(record));
+        }
+        return ShardSearchPage.of(hits, records, json.path("more").asBoolean(), toPosition(json.path("position")));
+    }
+
+    private static RecordCounts toCounts(JsonNode json) {
+        var counts = new ArrayList<RecordCount>();
+        for (var count : json.path("counts")) {
+            counts.add(RecordCount.builder()
+                    .label(text(count, "label"))
+                    .format(text(count, "format"))
+                    .releaseYear(count.hasNonNull("releaseYear") ? count.get("releaseYear").asInt() : null)
+                    .addedMonth(Optional.ofNullable(text(count, "addedMonth")).map(YearMonth::parse).orElse(null))
+                    .count(count.path("count").asLong())
+                    .build());
+        }
+        return RecordCounts.of(counts, toPosition(json.path("position")));
+    }
+
+    private static CatalogRecord toRecord(JsonNode record) {
+        return CatalogRecord.builder()
+                .recordId(UUID.fromString(record.path("recordId").asText()))
+                .artist(text(record, "artist"))
+                .title(text(record, "title"))
+                .label(text(record, "label"))
+                .format(text(record, "format"))
+                .releaseDate(Optional.ofNullable(text(record, "releaseDate")).map(LocalDate::parse).orElse(null))
+                .addedToStore(Optional.ofNullable(text(record, "addedToStore")).map(ZonedDateTime::parse).orElse(null))
+                .serial(record.path("serial").asLong())
+                .build();
+    }
+
+    private static CatalogPosition toPosition(JsonNode position) {
+        var factId = Optional.ofNullable(text(position, "factId")).map(UUID::fromString).orElse(null);
+        return CatalogPosition.of(factId, position.path("serial").asLong());
+    }
+
+    // RELEASE_YEAR -> releaseYear
+    private static String camelCase(String name) {
+        var words = name.toLowerCase(Locale.ROOT).split("_");
+        var camelCase = new StringBuilder(words[0]);
+        for (int i = 1; i < words.length; i++) {
+            camelCase.append(Character.toUpperCase(words[i].charAt(0))).append(words[i].substring(1));
+        }
+        return camelCase.toString();
+    }
+
+    private static String text(JsonNode json, String field) {
+        var value = json.get(field);
+        return value == null || value.isNull() ? null : value.asText();
+    }
+
+    private static void parameter(StringBuilder uri, String name, Object value) {
+        if (value != null) {
+            uri.append(uri.indexOf("?") < 0 ? '?' : '&')
+                    .append(name).append('=').append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package org.samba.recordstore.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.catalog.CatalogRecord;
+import org.samba.recordstore.catalog.FindRecords;
+import org.samba.recordstore.catalog.RecordCatalogProjection;
+import org.samba.recordstore.catalog.RecordLookup;
+import org.samba.recordstore.catalog.RecordPage;
+import org.samba.recordstore.search.RecordSearchIndex;
+import org.samba.recordstore.search.SearchHit;
+import org.samba.recordstore.search.SearchRecords;
+import org.samba.recordstore.stats.CountRecords;
+import org.samba.recordstore.stats.RecordCounts;
+import org.samba.recordstore.stats.RecordStatisticsProjection;
+
+import java.util.ArrayList;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+// the shard of this node, answered from the projections right away
+@RequiredArgsConstructor
+public class LocalCatalogShard implements CatalogShard {
+
+    private final RecordCatalogProjection catalog;
+    private final RecordSearchIndex index;
+    private final RecordStatisticsProjection statistics;
+
+    @Override
+    public CompletableFuture<RecordPage> find(FindRecords query) {
+        // offset is at most 10000, see FindRecords
+        var first = FindRecords.builder()
+                .artist(query.getArtist())
+                .label(query.getLabel())
+                .format(query.getFormat())
+                .releaseYear(query.getReleaseYear())
+                .offset(0)
+                .limit(query.getOffset() + query.getLimit())
+                .build();
+        return CompletableFuture.completedFuture(catalog.find(first));
+    }
+
+    @Override
+    public CompletableFuture<RecordLookup> get(UUID recordId) {
+        var position = catalog.position();
+        return CompletableFuture.completedFuture(RecordLookup.of(catalog.get(recordId), position));
+    }
+
+    @Override
+    public CompletableFuture<ShardSearchPage> search(SearchRecords query) {
+        // offset is at most 10000, see SearchRecords
+        var first = SearchRecords.builder()
+                .text(query.getText())
+                .field(query.getField())
+                .fuzzy(query.isFuzzy())
+                .offset(0)
+                .limit(query.getOffset() + query.getLimit())
+                .build();
+        var position = index.position();
+        var result = index.search(first);
+
+        // both follow FactCast on their own, a record the catalogue has not seen yet is left out
+        var hits = new ArrayList<SearchHit>(result.getHits().size());
+        var records = new ArrayList<CatalogRecord>(result.getHits().size());
+        for (var hit : result.getHits()) {
+            catalog.get(hit.getRecordId()).ifPresent(record -> {
+                hits.add(hit);
+                records.add(record);
+            });
+        }
+        return CompletableFuture.completedFuture(ShardSearchPage.of(hits, records, result.isMore(), position));
+    }
+
+    @Override
+    public CompletableFuture<RecordCounts> count(CountRecords query) {
+        // see FindRecordsHandler: position first
+        var position = statistics.position();
+        return CompletableFuture.completedFuture(RecordCounts.of(statistics.count(query), position));
+    }
+}
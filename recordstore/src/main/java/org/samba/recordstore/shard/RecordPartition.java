@@ -0,0 +1,30 @@
+package org.samba.recordstore.shard;
+
+import java.util.UUID;
+
+// Every fact of a record carries the record's partition in its meta data, so a node can subscribe to just the
+// partitions it owns with plain FactSpec meta filters, which FactCast evaluates on the server.
+// The number of partitions is baked into the published facts and can't be changed later: 64 allows up to 64 nodes.
+public final class RecordPartition {
+
+    public static final String META_KEY = "partition";
+    public static final int COUNT = 64;
+
+    private RecordPartition() {
+    }
+
+    public static int of(UUID recordId) {
+        // random UUIDs are well distributed already, the mixing keeps other ids from clustering
+        return (int) (mix(recordId.getMostSignificantBits() ^ recordId.getLeastSignificantBits()) & (COUNT - 1));
+    }
+
+    // murmur3 finalizer
+    static long mix(long h) {
+        h ^= h >>> 33;
+        h *= 0xff51afd7ed558ccdL;
+        h ^= h >>> 33;
+        h *= 0xc4ceb9fe1a85ec53L;
+        h ^= h >>> 33;
+        return h;
+    }
+}
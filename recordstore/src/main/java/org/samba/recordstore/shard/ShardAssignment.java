@@ -0,0 +1,130 @@
+package org.samba.recordstore.shard;
+
+import org.factcast.core.spec.FactSpec;
+import org.factcast.core.spec.FilterScript;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+// Which node owns which partition, by rendezvous hashing: every node scores every partition, the highest score wins.
+// Adding or removing a node only moves the partitions it wins or owned, all others stay where they are.
+//
+//   recordstore.shard.nodes   base URLs of all nodes, comma separated, the same list on every node.
+//                             Empty (default): a single node owning everything
+//   recordstore.shard.node    base URL of this node, one of the above
+//   recordstore.shard.token   shared secret the nodes send to each other's ShardController, the same on every
+//                             node. Needed as soon as there is more than one node
+//   recordstore.shard.unpartitioned-facts
+//                             true (default): also subscribe to facts without partition meta data, see below
+//
+// Migration: facts published before RecordAdded carried the partition meta data (and facts can't be changed
+// afterwards) match no partition filter. So every node additionally subscribes to the facts without it, by
+// a filter script, and the projections keep the records of their partitions only (ownsRecord). The script
+// runs on the FactCast server for every fact of the subscribed types. A store which never had such facts can
+// switch it off with recordstore.shard.unpartitioned-facts=false.
+@Component
+public class ShardAssignment {
+
+    public static final ShardAssignment SINGLE = new ShardAssignment(List.of(), "");
+
+    // facts published before the partition meta data existed
+    static final FilterScript UNPARTITIONED = FilterScript.js(
+            "function (h,e) { return !h.meta || h.meta." + RecordPartition.META_KEY + " === undefined; }");
+
+    private final List<String> nodes;
+    private final String node;
+    private final boolean unpartitionedFacts;
+    private final String[] owners = new String[RecordPartition.COUNT];
+    private final long owned;  // bit per partition
+
+    public ShardAssignment(List<String> nodes, String node) {
+        this(nodes, node, true);
+    }
+
+    @Autowired
+    public ShardAssignment(@Value("${recordstore.shard.nodes:}") List<String> nodes,
+                           @Value("${recordstore.shard.node:}") String node,
+                           @Value("${recordstore.shard.unpartitioned-facts:true}") boolean unpartitionedFacts) {
+        this.nodes = nodes.isEmpty() ? List.of(node) : List.copyOf(nodes);
+        this.node = node;
+        this.unpartitionedFacts = unpartitionedFacts;
+        if (!this.nodes.contains(node)) {
+            throw new IllegalArgumentException("recordstore.shard.node " + node + " is not one of recordstore.shard.nodes " + nodes);
+        }
+        var owned = 0L;
+        for (int partition = 0; partition < RecordPartition.COUNT; partition++) {
+            owners[partition] = winner(this.nodes, partition);
+            if (owners[partition].equals(node)) {
+                owned |= 1L << partition;
+            }
+        }
+        this.owned = owned;
+    }
+
+    public boolean isSharded() {
+        return nodes.size() > 1;
+    }
+
+    public String node() {
+        return node;
+    }
+
+    public List<String> nodes() {
+        return nodes;
+    }
+
+    public String ownerOf(int partition) {
+        return owners[partition];
+    }
+
+    public boolean owns(int partition) {
+        return (owned & (1L << partition)) != 0;
+    }
+
+    // what a projection checks before it applies a fact, as the unpartitioned ones reach every node
+    public boolean ownsRecord(UUID recordId) {
+        return !isSharded() || owns(RecordPartition.of(recordId));
+    }
+
+    public long ownedPartitions() {
+        return owned;
+    }
+
+    // one copy of every spec per owned partition, plus one for the facts without partition (see above).
+    // Unsharded the specs stay as they are
+    public List<FactSpec> restrict(List<FactSpec> specs) {
+        if (!isSharded()) {
+            return specs;
+        }
+        var restricted = new ArrayList<FactSpec>(specs.size() * (Long.bitCount(owned) + 1));
+        for (var spec : specs) {
+            for (int partition = 0; partition < RecordPartition.COUNT; partition++) {
+                if (owns(partition)) {
+                    restricted.add(spec.copy().meta(RecordPartition.META_KEY, String.valueOf(partition)));
+                }
+            }
+            if (unpartitionedFacts) {
+                restricted.add(spec.copy().filterScript(UNPARTITIONED));
+            }
+        }
+        return restricted;
+    }
+
+    private static String winner(List<String> nodes, int partition) {
+        String winner = null;
+        var best = 0L;
+        for (var candidate : nodes) {
+            // String.hashCode is specified, so every node comes to the same result
+            var score = RecordPartition.mix(((long) candidate.hashCode() << 32) ^ partition);
+            if (winner == null || Long.compareUnsigned(score, best) > 0) {
+                winner = candidate;
+                best = score;
+            }
+        }
+        return winner;
+    }
+}
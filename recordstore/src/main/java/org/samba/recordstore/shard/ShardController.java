@@ -0,0 +1,65 @@
+package org.samba.recordstore.shard;
+
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.RecordQueryParameters;
+import org.samba.recordstore.catalog.RecordPage;
+import org.samba.recordstore.stats.RecordCounts;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestHeader;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
+import static org.samba.recordstore.shard.ShardEndpoint.TOKEN_HEADER;
+
+// Node to node: the ShardedCatalog of the other nodes reads this node's shard here, no scatter-gather.
+// Not part of the public API in open-api.yml, it shares the port with it (see ShardEndpoint).
+@RestController
+@RequestMapping(ShardEndpoint.PATH)
+@RequiredArgsConstructor
+public class ShardController {
+
+    private final ShardEndpoint endpoint;
+
+    @GetMapping("/records")
+    public CompletableFuture<RecordPage> findRecords(@RequestHeader(name = TOKEN_HEADER, required = false) String token,
+                                                     @RequestParam(required = false) String artist,
+                                                     @RequestParam(required = false) String label,
+                                                     @RequestParam(required = false) String format,
+                                                     @RequestParam(required = false) Integer releaseYear,
+                                                     @RequestParam(required = false) Integer offset,
+                                                     @RequestParam(required = false) Integer limit) {
+        return endpoint.find(token, RecordQueryParameters.findRecords(artist, label, format, releaseYear, offset, limit));
+    }
+
+    @GetMapping("/records/{recordId}")
+    public CompletableFuture<RecordPage> getRecord(@RequestHeader(name = TOKEN_HEADER, required = false) String token,
+                                                   @PathVariable UUID recordId) {
+        return endpoint.get(token, recordId);
+    }
+
+    @GetMapping("/search")
+    public CompletableFuture<ShardSearchPage> searchRecords(@RequestHeader(name = TOKEN_HEADER, required = false) String token,
+                                                            @RequestParam String q,
+                                                            @RequestParam(required = false) String field,
+                                                            @RequestParam(required = false) Boolean fuzzy,
+                                                            @RequestParam(required = false) Integer offset,
+                                                            @RequestParam(required = false) Integer limit) {
+        return endpoint.search(token, RecordQueryParameters.searchRecords(q, field, fuzzy, offset, limit));
+    }
+
+    @GetMapping("/statistics")
+    public CompletableFuture<RecordCounts> countRecords(@RequestHeader(name = TOKEN_HEADER, required = false) String token,
+                                                        @RequestParam(required = false) List<String> groupBy,
+                                                        @RequestParam(required = false) String label,
+                                                        @RequestParam(required = false) String format,
+                                                        @RequestParam(required = false) Integer releaseYear,
+                                                        @RequestParam(required = false) String addedMonth) {
+        return endpoint.count(token, RecordQueryParameters.countRecords(groupBy, label, format, releaseYear, addedMonth));
+    }
+}
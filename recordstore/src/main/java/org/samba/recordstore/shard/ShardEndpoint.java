@@ -0,0 +1,87 @@
+package org.samba.recordstore.shard;
+
+import eu.prismacapacity.spring.cqs.Violations;
+import org.samba.recordstore.catalog.FindRecords;
+import org.samba.recordstore.catalog.RecordCatalogProjection;
+import org.samba.recordstore.catalog.RecordPage;
+import org.samba.recordstore.search.RecordSearchIndex;
+import org.samba.recordstore.search.SearchRecords;
+import org.samba.recordstore.stats.CountRecords;
+import org.samba.recordstore.stats.RecordCounts;
+import org.samba.recordstore.stats.RecordStatisticsProjection;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+import org.springframework.web.server.ResponseStatusException;
+
+import javax.validation.Validator;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+// What the node to node endpoint answers, for ShardController (Spring MVC) and the WebFlux variant alike.
+// Every call has to carry recordstore.shard.token (see ShardAssignment). Without a token configured nobody gets in.
+// Queries are checked against their constraints like on the public API, a shard answers offset + limit matches.
+@Component
+public class ShardEndpoint {
+
+    public static final String PATH = "/internal/catalog";
+    public static final String TOKEN_HEADER = "X-Shard-Token";
+
+    private final LocalCatalogShard shard;
+    private final Validator validator;
+    private final byte[] token;
+
+    public ShardEndpoint(RecordCatalogProjection catalog,
+                         RecordSearchIndex index,
+                         RecordStatisticsProjection statistics,
+                         Validator validator,
+                         @Value("${recordstore.shard.token:}") String token) {
+        this.shard = new LocalCatalogShard(catalog, index, statistics);
+        this.validator = validator;
+        this.token = token.getBytes(StandardCharsets.UTF_8);
+    }
+
+    public CompletableFuture<RecordPage> find(String token, FindRecords query) {
+        authorize(token);
+        validate(query);
+        return shard.find(query);
+    }
+
+    // a page of zero or one record, so the caller only has to read one shape
+    public CompletableFuture<RecordPage> get(String token, UUID recordId) {
+        authorize(token);
+        return shard.get(recordId).thenApply(lookup -> {
+            var records = lookup.getRecord().stream().collect(Collectors.toList());
+            return RecordPage.of(records, records.size(), lookup.getPosition());
+        });
+    }
+
+    public CompletableFuture<ShardSearchPage> search(String token, SearchRecords query) {
+        authorize(token);
+        validate(query);
+        return shard.search(query);
+    }
+
+    public CompletableFuture<RecordCounts> count(String token, CountRecords query) {
+        authorize(token);
+        return shard.count(query);
+    }
+
+    private void validate(Object query) {
+        var violations = validator.validate(query);
+        if (!violations.isEmpty()) {
+            throw new ResponseStatusException(HttpStatus.BAD_REQUEST, Violations.render(violations));
+        }
+    }
+
+    private void authorize(String given) {
+        // constant time, the comparison must not tell how much of a guess was right
+        if (token.length == 0 || given == null || !MessageDigest.isEqual(token, given.getBytes(StandardCharsets.UTF_8))) {
+            throw new ResponseStatusException(HttpStatus.FORBIDDEN);
+        }
+    }
+}
@@ -0,0 +1,18 @@
+package org.samba.recordstore.shard;
+
+import lombok.Value;
+import org.samba.recordstore.catalog.CatalogPosition;
+import org.samba.recordstore.catalog.CatalogRecord;
+import org.samba.recordstore.search.SearchHit;
+
+import java.util.List;
+
+// A shard's first matches of a search with their records, so ShardedCatalog can merge them in index order
+// without asking the shards for the records again.
+@Value(staticConstructor = "of")
+public class ShardSearchPage {
+    List<SearchHit> hits;
+    List<CatalogRecord> records;  // of the hit at the same index
+    boolean more;
+    CatalogPosition position;     // of the search index
+}
@@ -0,0 +1,192 @@
+package org.samba.recordstore.shard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.samba.recordstore.catalog.CatalogPosition;
+import org.samba.recordstore.catalog.CatalogRecord;
+import org.samba.recordstore.catalog.FindRecords;
+import org.samba.recordstore.catalog.RecordCatalogProjection;
+import org.samba.recordstore.catalog.RecordLookup;
+import org.samba.recordstore.catalog.RecordPage;
+import org.samba.recordstore.search.RecordSearchIndex;
+import org.samba.recordstore.search.RecordSearchPage;
+import org.samba.recordstore.search.SearchHit;
+import org.samba.recordstore.search.SearchRecords;
+import org.samba.recordstore.stats.CountRecords;
+import org.samba.recordstore.stats.RecordCount;
+import org.samba.recordstore.stats.RecordCounts;
+import org.samba.recordstore.stats.RecordStatisticsProjection;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.stream.Collectors;
+
+import static java.util.Comparator.comparingLong;
+
+// Scatter-gather over the shards of all nodes:
+//
+//   find    asks every shard for its first offset + limit matches at once (FindRecords bounds the offset), merges
+//           them by fact serial and pages the merged list. total is the sum. The position is the oldest of the
+//           shards' positions: every shard has applied its facts up to there. A shard without recent facts holds
+//           it back, so it is on the safe side.
+//   get     only asks the node owning the record's partition
+//   search  like find, the shards send their first offset + limit matches with the records, merged in the
+//           order of a single search index (SearchHit.ORDER, then fact serial)
+//   count   asks every shard and adds up the counts of each group
+//
+// A node which does not answer fails the query, a partial result would silently miss records.
+// Unsharded there is just the local shard and all of them are plain calls into the projections.
+//
+// RecordFingerprintIndex is the one projection every node keeps whole: a retry may reach any node, and it is
+// keyed by fingerprint, not by record, so it can't be split by record partition. It is bounded by
+// recordstore.dedup.max-entries instead of growing with the catalogue.
+@Component
+public class ShardedCatalog {
+
+    private final ShardAssignment assignment;
+    private final Map<String, CatalogShard> shards;
+
+    @Autowired
+    public ShardedCatalog(RecordCatalogProjection catalog,
+                          RecordSearchIndex index,
+                          RecordStatisticsProjection statistics,
+                          ObjectMapper objectMapper,
+                          @Value("${recordstore.shard.timeout-millis:2000}") long timeoutMillis,
+                          @Value("${recordstore.shard.token:}") String token) {
+        this(catalog.shard(), shards(new LocalCatalogShard(catalog, index, statistics), catalog.shard(),
+                objectMapper, Duration.ofMillis(timeoutMillis), token));
+    }
+
+    // node -> its shard, for every node of the assignment
+    public ShardedCatalog(ShardAssignment assignment, Map<String, CatalogShard> shards) {
+        if (!shards.keySet().equals(Set.copyOf(assignment.nodes()))) {
+            throw new IllegalArgumentException("Need a shard for each of " + assignment.nodes() + ", got " + shards.keySet());
+        }
+        this.assignment = assignment;
+        this.shards = Map.copyOf(shards);
+    }
+
+    // a single node, e.g. for tests
+    public static ShardedCatalog local(RecordCatalogProjection catalog, RecordSearchIndex index, RecordStatisticsProjection statistics) {
+        if (catalog.shard().isSharded()) {
+            throw new IllegalArgumentException("Catalogue is sharded, it needs the shards of the other nodes");
+        }
+        return new ShardedCatalog(catalog.shard(),
+                Map.of(catalog.shard().node(), new LocalCatalogShard(catalog, index, statistics)));
+    }
+
+    public RecordPage find(FindRecords query) {
+        // the page may come from any mix of shards
+        var pending = shards.values().stream()
+                .map(shard -> shard.find(query))
+                .collect(Collectors.toList());
+
+        var matches = new ArrayList<CatalogRecord>();
+        var total = 0;
+        CatalogPosition position = null;
+        for (var page : pending) {
+            var result = page.join();
+            matches.addAll(result.getRecords());
+            total += result.getTotal();
+            position = oldest(position, result.getPosition());
+        }
+        matches.sort(comparingLong(CatalogRecord::getSerial));
+
+        var from = Math.min(query.getOffset(), matches.size());
+        var to = Math.min(from + query.getLimit(), matches.size());
+        return RecordPage.of(List.copyOf(matches.subList(from, to)), total, position);
+    }
+
+    public RecordLookup get(UUID recordId) {
+        var owner = assignment.ownerOf(RecordPartition.of(recordId));
+        return shards.get(owner).get(recordId).join();
+    }
+
+    public RecordSearchPage search(SearchRecords query) {
+        var pending = shards.values().stream()
+                .map(shard -> shard.search(query))
+                .collect(Collectors.toList());
+
+        var matches = new ArrayList<Map.Entry<SearchHit, CatalogRecord>>();
+        var more = false;
+        CatalogPosition position = null;
+        for (var page : pending) {
+            var result = page.join();
+            for (int i = 0; i < result.getHits().size(); i++) {
+                matches.add(Map.entry(result.getHits().get(i), result.getRecords().get(i)));
+            }
+            more |= result.isMore();
+            position = oldest(position, result.getPosition());
+        }
+        Comparator<Map.Entry<SearchHit, CatalogRecord>> order = Map.Entry.comparingByKey(SearchHit.ORDER);
+        matches.sort(order.thenComparingLong(match -> match.getValue().getSerial()));
+
+        var from = Math.min(query.getOffset(), matches.size());
+        var to = Math.min(from + query.getLimit(), matches.size());
+        var records = matches.subList(from, to).stream()
+                .map(Map.Entry::getValue)
+                .collect(Collectors.toList());
+        return RecordSearchPage.of(records, more || matches.size() > to, position);
+    }
+
+    // largest count first, like RecordStatisticsProjection
+    public RecordCounts count(CountRecords query) {
+        var pending = shards.values().stream()
+                .map(shard -> shard.count(query))
+                .collect(Collectors.toList());
+
+        var groups = new HashMap<RecordCount, Long>();
+        CatalogPosition position = null;
+        for (var counts : pending) {
+            var result = counts.join();
+            result.getCounts().forEach(count -> groups.merge(withCount(count, 0), count.getCount(), Long::sum));
+            position = oldest(position, result.getPosition());
+        }
+
+        var merged = groups.entrySet().stream()
+                .map(group -> withCount(group.getKey(), group.getValue()))
+                .sorted(comparingLong(RecordCount::getCount).reversed())
+                .collect(Collectors.toList());
+        return RecordCounts.of(merged, position);
+    }
+
+    private static RecordCount withCount(RecordCount group, long count) {
+        return RecordCount.builder()
+                .label(group.getLabel())
+                .format(group.getFormat())
+                .releaseYear(group.getReleaseYear())
+                .addedMonth(group.getAddedMonth())
+                .count(count)
+                .build();
+    }
+
+    private static CatalogPosition oldest(CatalogPosition position, CatalogPosition other) {
+        return position == null || other.getSerial() < position.getSerial() ? other : position;
+    }
+
+    private static Map<String, CatalogShard> shards(LocalCatalogShard local, ShardAssignment assignment, ObjectMapper objectMapper, Duration timeout, String token) {
+        if (assignment.isSharded() && token.isBlank()) {
+            throw new IllegalArgumentException("recordstore.shard.token is needed to read the shards of the other nodes");
+        }
+        var client = HttpClient.newBuilder().connectTimeout(timeout).build();
+        var shards = new LinkedHashMap<String, CatalogShard>();
+        for (var node : assignment.nodes()) {
+            shards.put(node, node.equals(assignment.node())
+                    ? local
+                    : new HttpCatalogShard(URI.create(node), client, objectMapper, timeout, token));
+        }
+        return shards;
+    }
+}
@@ -0,0 +1,23 @@
+package org.samba.recordstore.stats;
+
+import eu.prismacapacity.spring.cqs.query.Query;
+import lombok.Builder;
+import lombok.Singular;
+import lombok.Value;
+
+import java.time.YearMonth;
+import java.util.Set;
+
+// e.g. 12" records per label and month: groupBy LABEL, ADDED_MONTH and format "12 inch".
+// Without groupBy there is a single count of all matching records.
+@Value
+@Builder
+public class CountRecords implements Query {
+    @Singular("groupBy")
+    Set<StatisticsDimension> groupBy;
+
+    String label;
+    String format;
+    Integer releaseYear;
+    YearMonth addedMonth;
+}
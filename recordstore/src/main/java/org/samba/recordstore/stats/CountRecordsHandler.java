@@ -0,0 +1,28 @@
+package org.samba.recordstore.stats;
+
+import eu.prismacapacity.spring.cqs.query.QueryHandler;
+import eu.prismacapacity.spring.cqs.query.QueryHandlingException;
+import eu.prismacapacity.spring.cqs.query.QueryTimeoutException;
+import eu.prismacapacity.spring.cqs.query.QueryVerificationException;
+import lombok.NonNull;
+import lombok.RequiredArgsConstructor;
+import org.samba.recordstore.shard.ShardedCatalog;
+import org.springframework.stereotype.Component;
+
+@Component
+@RequiredArgsConstructor
+public class CountRecordsHandler implements QueryHandler<CountRecords, RecordCounts> {
+
+    private final ShardedCatalog catalog;
+
+    @Override
+    public void verify(@NonNull CountRecords query) throws QueryVerificationException {
+        // every client may read the statistics
+    }
+
+    @Override
+    public RecordCounts handle(@NonNull CountRecords query) throws QueryHandlingException, QueryTimeoutException {
+        // all nodes when sharded, every one counts its own partitions
+        return catalog.count(query);
+    }
+}
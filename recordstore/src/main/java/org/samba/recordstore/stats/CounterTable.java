@@ -0,0 +1,91 @@
+package org.samba.recordstore.stats;
+
+import java.util.concurrent.atomic.AtomicLongArray;
+
+// Open addressing hash table from a packed 64 bit key (see StatisticsKey) to a count, in a long array for the
+// keys and an AtomicLongArray for the counts. Incrementing an existing key allocates nothing.
+//
+// One writer (the subscription thread of the projection), any number of readers without locking: a key is
+// written before its count, and readers only look at a key once they saw a count for it. When the table
+// grows, the new one is filled completely before it is published.
+final class CounterTable {
+
+    private static final long EMPTY = 0;
+    private static final float LOAD_FACTOR = 0.5f;
+
+    private static final class Slots {
+        final long[] keys;
+        final AtomicLongArray counts;
+
+        Slots(int capacity) {
+            keys = new long[capacity];
+            counts = new AtomicLongArray(capacity);
+        }
+    }
+
+    private volatile Slots slots = new Slots(1024);
+    private int size;  // only read and written by the writer
+
+    void increment(long key) {
+        if (key == EMPTY) {
+            throw new IllegalArgumentException("0 is not a valid key");
+        }
+        var current = slots;
+        var mask = current.keys.length - 1;
+        var slot = slot(key, mask);
+        while (current.counts.get(slot) != 0) {
+            if (current.keys[slot] == key) {
+                current.counts.incrementAndGet(slot);
+                return;
+            }
+            slot = (slot + 1) & mask;
+        }
+        if (size + 1 > current.keys.length * LOAD_FACTOR) {
+            grow();
+            increment(key);
+            return;
+        }
+        current.keys[slot] = key;
+        current.counts.set(slot, 1);
+        size++;
+    }
+
+    interface Consumer {
+        void accept(long key, long count);
+    }
+
+    // every key counted so far, in no particular order
+    void forEach(Consumer consumer) {
+        var current = slots;
+        for (int slot = 0; slot < current.keys.length; slot++) {
+            var count = current.counts.get(slot);
+            if (count != 0) {
+                consumer.accept(current.keys[slot], count);
+            }
+        }
+    }
+
+    private void grow() {
+        var old = slots;
+        var grown = new Slots(old.keys.length * 2);
+        var mask = grown.keys.length - 1;
+        for (int i = 0; i < old.keys.length; i++) {
+            var count = old.counts.get(i);
+            if (count != 0) {
+                var slot = slot(old.keys[i], mask);
+                while (grown.counts.get(slot) != 0) {
+                    slot = (slot + 1) & mask;
+                }
+                grown.keys[slot] = old.keys[i];
+                grown.counts.set(slot, count);
+            }
+        }
+        slots = grown;
+    }
+
+    private static int slot(long key, int mask) {
+        // the packed keys differ in a few bits only, spread them before masking
+        var h = key * 0x9E3779B97F4A7C15L;
+        return (int) (h ^ (h >>> 32)) & mask;
+    }
+}
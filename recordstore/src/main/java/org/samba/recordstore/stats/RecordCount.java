@@ -0,0 +1,17 @@
+package org.samba.recordstore.stats;
+
+import lombok.Builder;
+import lombok.Value;
+
+import java.time.YearMonth;
+
+// dimensions which were not grouped by are null, label and format are trimmed and lower case (see StatisticsKey)
+@Value
+@Builder
+public class RecordCount {
+    String label;
+    String format;
+    Integer releaseYear;
+    YearMonth addedMonth;
+    long count;
+}
@@ -0,0 +1,12 @@
+package org.samba.recordstore.stats;
+
+import lombok.Value;
+import org.samba.recordstore.catalog.CatalogPosition;
+
+import java.util.List;
+
+@Value(staticConstructor = "of")
+public class RecordCounts {
+    List<RecordCount> counts;
+    CatalogPosition position;
+}
@@ -0,0 +1,97 @@
+package org.samba.recordstore.stats;
+
+import lombok.NonNull;
+import org.factcast.core.Fact;
+import org.factcast.core.spec.FactSpec;
+import org.factcast.factus.Handler;
+import org.factcast.factus.projection.LocalSubscribedProjection;
+import org.samba.recordstore.catalog.CatalogPosition;
+import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.shard.ShardAssignment;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+
+// Number of records per label, format, release year and month added, kept up to date by a Factus subscription.
+// Only the combinations which occur are counted, a few thousand cells instead of millions of records, so any
+// grouping is computed from them on request.
+// Sharded like the catalogue, every node counts the records of its partitions (see ShardedCatalog.count).
+@Component
+public class RecordStatisticsProjection extends LocalSubscribedProjection {
+
+    private final ShardAssignment shard;
+    private final CounterTable counts = new CounterTable();
+
+    private volatile CatalogPosition position = CatalogPosition.EMPTY;
+
+    public RecordStatisticsProjection() {
+        this(ShardAssignment.SINGLE);
+    }
+
+    @Autowired
+    public RecordStatisticsProjection(ShardAssignment shard) {
+        this.shard = shard;
+    }
+
+    @Override
+    public @NonNull List<FactSpec> postprocess(@NonNull List<FactSpec> specsAsDiscovered) {
+        return shard.restrict(specsAsDiscovered);
+    }
+
+    @Handler
+    void apply(RecordAdded event, Fact fact) {
+        if (!shard.ownsRecord(event.getRecordId())) {
+            position = CatalogPosition.of(fact.id(), fact.serial());
+            return;
+        }
+        counts.increment(StatisticsKey.of(event));
+        position = CatalogPosition.of(fact.id(), fact.serial());
+    }
+
+    // largest count first
+    public List<RecordCount> count(CountRecords query) {
+        var groupMask = StatisticsKey.PRESENT;
+        for (var dimension : query.getGroupBy()) {
+            groupMask |= dimension.mask();
+        }
+
+        var groups = new HashMap<Long, Long>();
+        var mask = groupMask;
+        counts.forEach((key, count) -> {
+            if (matches(query, key)) {
+                groups.merge(key & mask, count, Long::sum);
+            }
+        });
+
+        var result = new ArrayList<RecordCount>(groups.size());
+        groups.forEach((key, count) -> result.add(RecordCount.builder()
+                .label(StatisticsKey.label(key))
+                .format(StatisticsKey.format(key))
+                .releaseYear(StatisticsKey.releaseYear(key))
+                .addedMonth(StatisticsKey.addedMonth(key))
+                .count(count)
+                .build()));
+        result.sort(Comparator.comparingLong(RecordCount::getCount).reversed());
+        return result;
+    }
+
+    public CatalogPosition position() {
+        return position;
+    }
+
+    private static boolean matches(CountRecords query, long key) {
+        return matches(query.getLabel(), StatisticsKey.label(key))
+                && matches(query.getFormat(), StatisticsKey.format(key))
+                && (query.getReleaseYear() == null || query.getReleaseYear().equals(StatisticsKey.releaseYear(key)))
+                && (query.getAddedMonth() == null || query.getAddedMonth().equals(StatisticsKey.addedMonth(key)));
+    }
+
+    // like the catalogue: case insensitive, the key already holds the normalized value
+    private static boolean matches(String wanted, String actual) {
+        return wanted == null || StatisticsKey.normalize(wanted).equals(actual);
+    }
+}
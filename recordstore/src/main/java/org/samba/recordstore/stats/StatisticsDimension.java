@@ -0,0 +1,29 @@
+package org.samba.recordstore.stats;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+
+// what the counts can be grouped and filtered by, each one a bit range of a StatisticsKey
+@Getter
+@RequiredArgsConstructor
+public enum StatisticsDimension {
+    LABEL(45, 18),
+    FORMAT(32, 13),
+    RELEASE_YEAR(18, 14),
+    ADDED_MONTH(0, 18);
+
+    private final int shift;
+    private final int bits;
+
+    long mask() {
+        return ((1L << bits) - 1) << shift;
+    }
+
+    long get(long key) {
+        return (key & mask()) >>> shift;
+    }
+
+    long put(long value) {
+        return (value << shift) & mask();
+    }
+}
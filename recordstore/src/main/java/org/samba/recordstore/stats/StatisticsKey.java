@@ -0,0 +1,68 @@
+package org.samba.recordstore.stats;
+
+import org.samba.recordstore.dictionary.FieldDictionary;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.time.YearMonth;
+import java.util.Locale;
+
+// All dimensions of a record packed into one long, so counting needs no key object:
+// label and format as dictionary code + 2, release year, month added as months since year 0 + 1.
+// Label and format are matched case insensitive, like in the catalogue, so they are coded trimmed and lower case:
+// "Ape Records" and "ape records" are one group.
+// 0 in a dimension means unknown. For label and format 1 means the dictionary was full: those records are
+// counted in a group of their own, OTHER, which can't be mistaken for a (lower case) label or format.
+// The top bit is always set, 0 marks an empty slot in the CounterTable.
+final class StatisticsKey {
+
+    static final long PRESENT = 1L << 63;
+    static final String OTHER = "OTHER";
+
+    private StatisticsKey() {
+    }
+
+    static long of(RecordAdded event) {
+        var key = PRESENT
+                | StatisticsDimension.LABEL.put(code(FieldDictionary.LABEL_KEYS, event.getLabel()))
+                | StatisticsDimension.FORMAT.put(code(FieldDictionary.FORMAT_KEYS, event.getFormat()));
+        if (event.getReleaseDate() != null) {
+            key |= StatisticsDimension.RELEASE_YEAR.put(event.getReleaseDate().getYear());
+        }
+        if (event.getAddedToStore() != null) {
+            var added = event.getAddedToStore();
+            key |= StatisticsDimension.ADDED_MONTH.put(added.getYear() * 12L + added.getMonthValue());
+        }
+        return key;
+    }
+
+    static String label(long key) {
+        return value(FieldDictionary.LABEL_KEYS, StatisticsDimension.LABEL.get(key));
+    }
+
+    static String format(long key) {
+        return value(FieldDictionary.FORMAT_KEYS, StatisticsDimension.FORMAT.get(key));
+    }
+
+    static String normalize(String value) {
+        return value == null ? null : value.trim().toLowerCase(Locale.ROOT);
+    }
+
+    private static long code(FieldDictionary dictionary, String value) {
+        var code = dictionary.code(normalize(value));
+        return code == FieldDictionary.NONE ? 0 : code == FieldDictionary.OVERFLOW ? 1 : code + 2L;
+    }
+
+    private static String value(FieldDictionary dictionary, long code) {
+        return code == 0 ? null : code == 1 ? OTHER : dictionary.value((int) code - 2);
+    }
+
+    static Integer releaseYear(long key) {
+        var year = StatisticsDimension.RELEASE_YEAR.get(key);
+        return year == 0 ? null : (int) year;
+    }
+
+    static YearMonth addedMonth(long key) {
+        var months = StatisticsDimension.ADDED_MONTH.get(key);
+        return months == 0 ? null : YearMonth.of((int) ((months - 1) / 12), (int) ((months - 1) % 12) + 1);
+    }
+}
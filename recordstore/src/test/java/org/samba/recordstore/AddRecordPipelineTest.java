@@ -0,0 +1,155 @@
+package org.samba.recordstore;
+
+import eu.prismacapacity.spring.cqs.cmd.CommandValueResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.junit.jupiter.api.Assumptions.assumeTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AddRecordPipelineTest {
+
+    @Captor
+    ArgumentCaptor<AddRecords> handlerCaptor;
+
+    @Mock
+    AddRecordsHandler handler;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    RecordStoreMetrics metrics = new RecordStoreMetrics(meterRegistry);
+
+    AddRecordPipeline uut;
+
+    @AfterEach
+    void tearDown() throws InterruptedException {
+        if (uut != null) {
+            uut.stop();
+        }
+    }
+
+    @Test
+    void commandsArrivingTogetherArePublishedTogether() throws Exception {
+        // arrange: one publisher thread lingering long enough to see all commands
+        uut = new AddRecordPipeline(handler, metrics, RecordStoreThreads.platform(), 100, 50, 200, 1, 4);
+        when(handler.handle(any())).thenAnswer(invocation -> acceptAll(invocation.getArgument(0)));
+
+        // act
+        var futures = IntStream.range(0, 10)
+                .mapToObj(i -> uut.submit(record("Artist " + i)))
+                .collect(Collectors.toList());
+        uut.start();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+
+        // assert
+        verify(handler, times(1)).handle(handlerCaptor.capture());
+        assertEquals(10, handlerCaptor.getValue().getRecords().size());
+        futures.forEach(it -> assertEquals(AddRecordResult.Status.ACCEPTED, it.join().getStatus()));
+    }
+
+    @Test
+    void fullQueueIsRejectedImmediately() throws Exception {
+        // arrange: the handler blocks, so nothing gets out of the queue
+        uut = new AddRecordPipeline(handler, metrics, RecordStoreThreads.platform(), 2, 1, 0, 1, 4);
+        var blocked = new CountDownLatch(1);
+        var release = new CountDownLatch(1);
+        when(handler.handle(any())).thenAnswer(invocation -> {
+            blocked.countDown();
+            release.await();
+            return acceptAll(invocation.getArgument(0));
+        });
+        uut.start();
+        uut.submit(record("in flight"));
+        assertTrue(blocked.await(5, TimeUnit.SECONDS));
+
+        // act
+        uut.submit(record("queued 1"));
+        uut.submit(record("queued 2"));
+        var overflow = uut.submit(record("one too many"));
+
+        // assert
+        var thrown = assertThrows(Exception.class, overflow::join);
+        assertTrue(thrown.getCause() instanceof PipelineSaturatedException);
+        release.countDown();
+    }
+
+    @Test
+    void failingPublishFailsAllCoalescedCommands() throws Exception {
+        // arrange
+        uut = new AddRecordPipeline(handler, metrics, RecordStoreThreads.platform(), 100, 50, 200, 1, 4);
+        when(handler.handle(any())).thenThrow(new IllegalStateException("FactCast unavailable"));
+
+        // act
+        var first = uut.submit(record("A"));
+        var second = uut.submit(record("B"));
+        uut.start();
+
+        // assert
+        assertThrows(Exception.class, () -> first.get(5, TimeUnit.SECONDS));
+        assertThrows(Exception.class, () -> second.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void virtualThreadsPublishMoreBatchesAtOnceThanThereArePublisherThreads() throws Exception {
+        // arrange: one publisher thread, batches of one record, FactCast blocks until released
+        assumeTrue(Runtime.version().feature() >= 21, "needs a JDK with virtual threads");
+        uut = new AddRecordPipeline(handler, metrics, new RecordStoreThreads("virtual"), 100, 1, 0, 1, 4);
+        var publishing = new CountDownLatch(4);
+        var release = new CountDownLatch(1);
+        when(handler.handle(any())).thenAnswer(invocation -> {
+            publishing.countDown();
+            release.await();
+            return acceptAll(invocation.getArgument(0));
+        });
+        uut.start();
+
+        // act
+        var futures = IntStream.range(0, 4)
+                .mapToObj(i -> uut.submit(record("Artist " + i)))
+                .collect(Collectors.toList());
+
+        // assert
+        assertTrue(publishing.await(5, TimeUnit.SECONDS));
+        release.countDown();
+        CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).get(5, TimeUnit.SECONDS);
+        verify(handler, times(4)).handle(any());
+    }
+
+    private static CommandValueResponse<List<AddRecordResult>> acceptAll(AddRecords cmd) {
+        var results = new ArrayList<AddRecordResult>();
+        for (int i = 0; i < cmd.getRecords().size(); i++) {
+            results.add(AddRecordResult.accepted(i, UUID.randomUUID()));
+        }
+        return CommandValueResponse.of(null, results);
+    }
+
+    private static AddRecord record(String artist) {
+        return new AddRecord()
+                .setArtist(artist)
+                .setTitle("Monkeys out and about")
+                .setLabel("Ape Records")
+                .setFormat("12")
+                .setReleaseDate(LocalDate.of(2020, 10, 24))
+                .setAddedToStore(ZonedDateTime.now());
+    }
+}
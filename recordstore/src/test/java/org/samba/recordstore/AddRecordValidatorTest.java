@@ -0,0 +1,78 @@
+package org.samba.recordstore;
+
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+
+import javax.validation.Validation;
+import javax.validation.constraints.NotNull;
+import java.lang.reflect.Modifier;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.Arrays;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AddRecordValidatorTest {
+
+    static final ZonedDateTime NOW = ZonedDateTime.of(2020, 10, 24, 12, 0, 0, 0, ZoneOffset.UTC);
+
+    StoreClock clock = StoreClock.fixed(NOW);
+
+    AddRecordValidator uut = new AddRecordValidator(
+            Validation.buildDefaultValidatorFactory().getValidator(),
+            new AddRecordHandler(Mappers.getMapper(AddRecordHandler.RecordCommandToEventMapper.class), clock),
+            clock,
+            true);
+
+    @Test
+    void fastPathAgreesWithTheReflectiveValidation() throws Exception {
+        assertNull(uut.validate(record()));
+        assertTrue(uut.isValid(record()));
+
+        // every @NotNull field on its own
+        for (var field : AddRecord.class.getDeclaredFields()) {
+            if (!field.isAnnotationPresent(NotNull.class)) {
+                continue;
+            }
+            var broken = record();
+            field.setAccessible(true);
+            field.set(broken, null);
+
+            assertFalse(uut.isValid(broken), field.getName());
+            var error = uut.validate(broken);
+            assertNotNull(error);
+            assertEquals(uut.validateReflectively(broken), error);
+        }
+
+        var future = record().setAddedToStore(NOW.plusSeconds(1));
+        assertFalse(uut.isValid(future));
+        assertNotNull(uut.validate(future));
+    }
+
+    // a new constraint on AddRecord needs a check in AddRecordValidator.isValid as well
+    @Test
+    void fastPathKnowsAllConstraintsOfAddRecord() {
+        for (var field : AddRecord.class.getDeclaredFields()) {
+            if (Modifier.isStatic(field.getModifiers())) {
+                continue;
+            }
+            var constraints = Arrays.stream(field.getAnnotations())
+                    .map(annotation -> annotation.annotationType())
+                    .filter(type -> type.getPackageName().startsWith("javax.validation"))
+                    .filter(type -> type != NotNull.class)
+                    .toArray();
+            assertEquals(0, constraints.length, field.getName() + " has constraints unknown to the fast path");
+        }
+    }
+
+    private static AddRecord record() {
+        return new AddRecord()
+                .setArtist("The Singing Monkeys")
+                .setTitle("Monkeys out and about")
+                .setLabel("Ape Records")
+                .setFormat("12")
+                .setReleaseDate(LocalDate.of(2020, 10, 24))
+                .setAddedToStore(NOW);
+    }
+}
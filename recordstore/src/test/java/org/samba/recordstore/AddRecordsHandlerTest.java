@@ -0,0 +1,242 @@
+package org.samba.recordstore;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.factcast.factus.Factus;
+import org.factcast.factus.event.EventObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Captor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.samba.recordstore.dedup.RecordFingerprint;
+import org.samba.recordstore.dedup.RecordFingerprintIndex;
+import org.samba.recordstore.events.RecordAdded;
+
+import javax.validation.Validation;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class AddRecordsHandlerTest {
+
+    // a retry repeats the request, addedToStore included
+    static final ZonedDateTime ADDED_TO_STORE = ZonedDateTime.now().minusHours(1);
+
+    @Captor
+    ArgumentCaptor<List<EventObject>> factusCaptor;
+
+    @Mock
+    Factus mockedFactus;
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    RecordFingerprintIndex fingerprints = new RecordFingerprintIndex(1000);
+
+    AddRecordsHandler uut;
+
+    @BeforeEach
+    void setUp() {
+        var validator = Validation.buildDefaultValidatorFactory().getValidator();
+        var mapper = Mappers.getMapper(AddRecordHandler.RecordCommandToEventMapper.class);
+        var addRecordHandler = new AddRecordHandler(mapper, StoreClock.SYSTEM);
+        var addRecordValidator = new AddRecordValidator(validator, addRecordHandler, StoreClock.SYSTEM, true);
+        uut = new AddRecordsHandler(mockedFactus, addRecordHandler, addRecordValidator, fingerprints, new RecordStoreMetrics(meterRegistry), Optional.empty(), 2, 10);
+    }
+
+    @Test
+    void validRecordsArePublishedInChunks() {
+        // arrange
+        var cmd = AddRecords.of(List.of(record("A"), record("B"), record("C"), record("D"), record("E")));
+
+        // act
+        var results = uut.handle(cmd).getValue();
+
+        // assert: 5 records, chunk size 2 => 3 round-trips instead of 5
+        verify(mockedFactus, times(3)).publish(factusCaptor.capture());
+        var chunkSizes = new ArrayList<Integer>();
+        factusCaptor.getAllValues().forEach(chunk -> chunkSizes.add(chunk.size()));
+        assertEquals(List.of(2, 2, 1), chunkSizes);
+
+        assertEquals(5, results.size());
+        results.forEach(it -> {
+            assertEquals(AddRecordResult.Status.ACCEPTED, it.getStatus());
+            assertNotNull(it.getRecordId());
+        });
+    }
+
+    @Test
+    void singleRecordIsPublishedAsEvent() {
+        // arrange
+        var cmd = AddRecords.of(List.of(record("The Singing Monkeys")));
+
+        // act
+        var results = uut.handle(cmd).getValue();
+
+        // assert
+        verify(mockedFactus).publish(factusCaptor.capture());
+        var publishedEvent = (RecordAdded) factusCaptor.getValue().get(0);
+
+        assertNotNull(publishedEvent.getRecordId());
+        assertEquals(publishedEvent.getRecordId(), results.get(0).getRecordId());
+        assertEquals("The Singing Monkeys", publishedEvent.getArtist());
+        assertEquals("Monkeys out and about", publishedEvent.getTitle());
+    }
+
+    @Test
+    void invalidRecordsAreReportedPerItem() {
+        // arrange
+        var cmd = AddRecords.of(List.of(
+                record("A"),
+                record(null),  // missing artist
+                record("C").setAddedToStore(ZonedDateTime.now().plusYears(10))));  // in the future
+
+        // act
+        var results = uut.handle(cmd).getValue();
+
+        // assert
+        verify(mockedFactus, times(1)).publish(factusCaptor.capture());
+        assertEquals(1, factusCaptor.getValue().size());
+
+        assertEquals(AddRecordResult.Status.ACCEPTED, results.get(0).getStatus());
+        assertEquals(AddRecordResult.Status.REJECTED, results.get(1).getStatus());
+        assertEquals(1, results.get(1).getIndex());
+        assertNull(results.get(1).getRecordId());
+        assertEquals(AddRecordResult.Status.REJECTED, results.get(2).getStatus());
+        assertNotNull(results.get(2).getError());
+    }
+
+    @Test
+    void failingChunkOnlyFailsItsOwnRecords() {
+        // arrange
+        var cmd = AddRecords.of(List.of(record("A"), record("B"), record("C")));
+        doNothing()
+                .doThrow(new IllegalStateException("FactCast unavailable"))
+                .when(mockedFactus).publish(anyList());
+
+        // act
+        var results = uut.handle(cmd).getValue();
+
+        // assert
+        assertEquals(AddRecordResult.Status.ACCEPTED, results.get(0).getStatus());
+        assertEquals(AddRecordResult.Status.ACCEPTED, results.get(1).getStatus());
+        assertEquals(AddRecordResult.Status.FAILED, results.get(2).getStatus());
+        assertEquals("FactCast unavailable", results.get(2).getError());
+
+        assertEquals(1, meterRegistry.get("recordstore.write.failures")
+                .tags("stage", "publish", "cause", "IllegalStateException").counter().count());
+        assertEquals(2, meterRegistry.get("recordstore.write.publish.batch.size").summary().count());
+        assertEquals(2, meterRegistry.get("recordstore.write.records").tag("status", "accepted").counter().count());
+    }
+
+    @Test
+    void retriesReturnTheOriginalRecordId() {
+        // arrange
+        var first = uut.handle(AddRecords.of(List.of(record("A"), record("B").setIdempotencyKey("key-1")))).getValue();
+
+        // act: same content, same key (but different content) and a duplicate within the batch
+        var retry = uut.handle(AddRecords.of(List.of(
+                record("A"),
+                record("Z").setIdempotencyKey("key-1"),
+                record("C"),
+                record("C")))).getValue();
+
+        // assert
+        assertEquals(first.get(0).getRecordId(), retry.get(0).getRecordId());
+        assertEquals(first.get(1).getRecordId(), retry.get(1).getRecordId());
+        assertEquals(retry.get(2).getRecordId(), retry.get(3).getRecordId());
+
+        verify(mockedFactus, times(2)).publish(factusCaptor.capture());
+        assertEquals(1, factusCaptor.getAllValues().get(1).size());  // only the first "C"
+    }
+
+    @Test
+    void anotherCopyOfTheSameRecordIsNoRetry() {
+        // arrange
+        var first = uut.handle(AddRecords.of(List.of(record("A")))).getValue();
+
+        // act: same pressing, added to the store later
+        var copy = uut.handle(AddRecords.of(List.of(record("A").setAddedToStore(ADDED_TO_STORE.plusMinutes(5))))).getValue();
+
+        // assert
+        assertEquals(AddRecordResult.Status.ACCEPTED, copy.get(0).getStatus());
+        assertNotEquals(first.get(0).getRecordId(), copy.get(0).getRecordId());
+        verify(mockedFactus, times(2)).publish(anyList());
+    }
+
+    @Test
+    void failedRecordsCanBeRetried() {
+        // arrange
+        doThrow(new IllegalStateException("FactCast unavailable"))
+                .doNothing()
+                .when(mockedFactus).publish(anyList());
+        var failed = uut.handle(AddRecords.of(List.of(record("A")))).getValue();
+
+        // act
+        var retry = uut.handle(AddRecords.of(List.of(record("A")))).getValue();
+
+        // assert
+        assertEquals(AddRecordResult.Status.FAILED, failed.get(0).getStatus());
+        assertEquals(AddRecordResult.Status.ACCEPTED, retry.get(0).getStatus());
+        verify(mockedFactus, times(2)).publish(anyList());
+    }
+
+    @Test
+    void retriesOfRecordsStillInFlightShareTheirOutcome() throws Exception {
+        // arrange: another request reserved "A" and "B" and is still publishing them
+        var a = RecordFingerprint.of(record("A"));
+        var b = RecordFingerprint.of(record("B"));
+        var originalA = UUID.randomUUID();
+        var originalB = UUID.randomUUID();
+        assertNull(fingerprints.reserve(a, originalA));
+        assertNull(fingerprints.reserve(b, originalB));
+
+        // act
+        var retry = CompletableFuture.supplyAsync(() -> uut.handle(AddRecords.of(List.of(record("A"), record("B")))).getValue());
+
+        // assert: no answer before the originals have one
+        assertThrows(TimeoutException.class, () -> retry.get(200, TimeUnit.MILLISECONDS));
+        fingerprints.release(a, originalA);
+        fingerprints.confirm(b, originalB);
+        var results = retry.get(5, TimeUnit.SECONDS);
+
+        assertEquals(AddRecordResult.Status.FAILED, results.get(0).getStatus());
+        assertEquals(AddRecordResult.Status.ACCEPTED, results.get(1).getStatus());
+        assertEquals(originalB, results.get(1).getRecordId());
+        verify(mockedFactus, never()).publish(anyList());
+    }
+
+    @Test
+    void verifyRejectsEmptyAndOversizedBatches() {
+        assertThrows(IllegalArgumentException.class, () -> uut.verify(AddRecords.of(List.of())));
+
+        var tooMany = new ArrayList<AddRecord>();
+        for (int i = 0; i < 11; i++) {
+            tooMany.add(record("A" + i));
+        }
+        assertThrows(IllegalArgumentException.class, () -> uut.verify(AddRecords.of(tooMany)));
+    }
+
+    private static AddRecord record(String artist) {
+        return new AddRecord()
+                .setArtist(artist)
+                .setTitle("Monkeys out and about")
+                .setLabel("Ape Records")
+                .setFormat("12")
+                .setReleaseDate(LocalDate.of(2020, 10, 24))
+                .setAddedToStore(ADDED_TO_STORE);
+    }
+}
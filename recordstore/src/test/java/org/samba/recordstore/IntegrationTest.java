@@ -1,8 +1,9 @@
 package org.samba.recordstore;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
-import org.factcast.test.AbstractFactCastIntegrationTest;
 import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.samba.factcast.inmemory.InMemoryFactCastExtension;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
@@ -22,7 +23,8 @@ import static org.springframework.test.web.servlet.setup.MockMvcBuilders.*;
 @SpringBootTest
 @ActiveProfiles({"integration"})
 @DirtiesContext(classMode = DirtiesContext.ClassMode.AFTER_CLASS)
-public class IntegrationTest extends AbstractFactCastIntegrationTest {
+@ExtendWith(InMemoryFactCastExtension.class)
+public class IntegrationTest {
 
     @Autowired
     private MockMvc mockMvc;
@@ -40,9 +42,14 @@ public class IntegrationTest extends AbstractFactCastIntegrationTest {
 
         var json = mapper.writeValueAsString(newRecord);
 
-        this.mockMvc.perform(post("/recordstore")
+        // the controller answers with a CompletableFuture, the response comes with the async dispatch
+        var result = this.mockMvc.perform(post("/recordstore")
                 .contentType(MediaType.APPLICATION_JSON)
                 .content(json))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        this.mockMvc.perform(asyncDispatch(result))
                 .andDo(print())
                 .andExpect(status().isOk())
 
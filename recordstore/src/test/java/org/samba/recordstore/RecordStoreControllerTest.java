@@ -1,28 +1,64 @@
 package org.samba.recordstore;
 
+import eu.prismacapacity.spring.cqs.cmd.CommandValueResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mapstruct.factory.Mappers;
 import org.mockito.*;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.samba.recordstore.AddRecord;
 import org.samba.recordstore.AddRecordHandler;
 import org.samba.recordstore.RecordStoreController;
+import org.samba.recordstore.catalog.*;
 import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.gen.model.RecordBatchItemResult;
 import org.samba.recordstore.gen.model.RecordWrite;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.server.ResponseStatusException;
 
 import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
 
 import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 class RecordStoreControllerTest {
 
     @Captor
-    ArgumentCaptor<AddRecord> handlerCaptor;
+    ArgumentCaptor<AddRecord> pipelineCaptor;
 
     @Mock
-    AddRecordHandler handler;
+    AddRecordPipeline pipeline;
+
+    @Mock
+    AddRecordsHandler batchHandler;
+
+    @Captor
+    ArgumentCaptor<AddRecords> batchHandlerCaptor;
+
+    @Mock
+    FindRecordsHandler findRecordsHandler;
+
+    @Mock
+    StoreClock clock;
+
+    @Spy
+    RecordStoreMetrics metrics = new RecordStoreMetrics(new SimpleMeterRegistry());
+
+    @Mock
+    GetRecordHandler getRecordHandler;
+
+    @Spy
+    RecordStoreController.ReceivedJsonToCommandMapper mapper = Mappers.getMapper(RecordStoreController.ReceivedJsonToCommandMapper.class);
 
     @InjectMocks
     RecordStoreController uut;
@@ -37,16 +73,91 @@ class RecordStoreControllerTest {
         receivedJson.setFormat("12");
         receivedJson.setReleaseDate(LocalDate.of(2020, 1, 1));
 
+        var now = ZonedDateTime.of(2020, 10, 24, 12, 0, 0, 0, ZoneOffset.UTC);
+        when(clock.now()).thenReturn(now);
+        when(pipeline.submit(any())).thenReturn(
+                CompletableFuture.completedFuture(AddRecordResult.accepted(0, UUID.randomUUID())));
+
         // act
-        uut.addRecord(receivedJson);
+        var response = uut.addRecord(receivedJson, null).join();
 
         // assert
-        verify(handler, times(1)).handle(isA(AddRecord.class));
+        verify(pipeline, times(1)).submit(isA(AddRecord.class));
 
-        Mockito.verify(handler).handle(handlerCaptor.capture());
-        var receivedCommand = handlerCaptor.getValue();
+        Mockito.verify(pipeline).submit(pipelineCaptor.capture());
+        var receivedCommand = pipelineCaptor.getValue();
 
-        assertNotNull(receivedCommand.getAddedToStore());
+        assertEquals(now, receivedCommand.getAddedToStore());
         assertEquals("Ape Records", receivedCommand.getLabel());
+        assertEquals(HttpStatus.OK, response.getStatusCode());
+    }
+
+    @Test
+    public void rejectedRecordIsBadRequest() {
+        // arrange
+        when(pipeline.submit(any())).thenReturn(
+                CompletableFuture.completedFuture(AddRecordResult.rejected(0, "artist must not be null")));
+
+        // act
+        var response = uut.addRecord(new RecordWrite(), null);
+
+        // assert
+        var thrown = assertThrows(CompletionException.class, response::join);
+        assertEquals(HttpStatus.BAD_REQUEST, ((ResponseStatusException) thrown.getCause()).getStatus());
+    }
+
+    @Test
+    public void batchReportsPartialFailureAsMultiStatus() {
+        // arrange
+        var receivedJson = new RecordWrite();
+        receivedJson.setArtist("The Dancing Monkeys");
+        receivedJson.setTitle("Dancing Time");
+        receivedJson.setLabel("Ape Records");
+        receivedJson.setFormat("12");
+        receivedJson.setReleaseDate(LocalDate.of(2020, 1, 1));
+
+        var recordId = UUID.randomUUID();
+        when(batchHandler.handle(any())).thenReturn(CommandValueResponse.of(null, List.of(
+                AddRecordResult.accepted(0, recordId),
+                AddRecordResult.rejected(1, "artist must not be null"))));
+
+        // act
+        var response = uut.addRecords(List.of(receivedJson, new RecordWrite())).join();
+
+        // assert
+        verify(batchHandler).handle(batchHandlerCaptor.capture());
+        assertEquals(2, batchHandlerCaptor.getValue().getRecords().size());
+
+        assertEquals(HttpStatus.MULTI_STATUS, response.getStatusCode());
+        assertEquals(1, response.getBody().getAccepted());
+        assertEquals(1, response.getBody().getRejected());
+        assertEquals(recordId, response.getBody().getItems().get(0).getRecordId());
+        assertEquals(RecordBatchItemResult.StatusEnum.REJECTED, response.getBody().getItems().get(1).getStatus());
+    }
+
+    @Test
+    public void unknownRecordIsNotFoundAndReportsCatalogPosition() {
+        // arrange
+        var factId = UUID.randomUUID();
+        when(getRecordHandler.handle(any())).thenReturn(
+                RecordLookup.of(Optional.empty(), CatalogPosition.of(factId, 42)));
+
+        // act
+        var response = uut.getRecord(UUID.randomUUID()).join();
+
+        // assert
+        assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        assertEquals("42", response.getHeaders().getFirst("X-Catalog-Serial"));
+        assertEquals(factId.toString(), response.getHeaders().getFirst("X-Catalog-Fact-Id"));
+    }
+
+    @Test
+    public void unknownSearchFieldIsBadRequest() {
+        // act
+        var thrown = assertThrows(ResponseStatusException.class,
+                () -> uut.searchRecords("floyd", "composer", false, null, null));
+
+        // assert
+        assertEquals(HttpStatus.BAD_REQUEST, thrown.getStatus());
     }
-}
\ No newline at end of file
+}
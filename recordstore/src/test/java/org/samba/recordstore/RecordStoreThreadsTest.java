@@ -0,0 +1,37 @@
+package org.samba.recordstore;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordStoreThreadsTest {
+
+    @Test
+    public void platformThreadsAreNamedDaemons() {
+        // act
+        var thread = RecordStoreThreads.platform().factory("worker").newThread(() -> { });
+
+        // assert
+        assertEquals("worker-1", thread.getName());
+        assertTrue(thread.isDaemon());
+    }
+
+    @Test
+    public void virtualThreadsRunOrFailFastDependingOnTheJdk() throws Exception {
+        // arrange
+        var supported = Runtime.version().feature() >= 21;
+
+        // act / assert
+        if (supported) {
+            var uut = new RecordStoreThreads("virtual");
+            var name = new CompletableFuture<String>();
+            uut.factory("http").newThread(() -> name.complete(Thread.currentThread().getName())).start();
+            assertEquals("http-1", name.get(5, TimeUnit.SECONDS));
+        } else {
+            assertThrows(IllegalStateException.class, () -> new RecordStoreThreads("virtual"));
+        }
+    }
+}
@@ -0,0 +1,127 @@
+package org.samba.recordstore.catalog;
+
+import org.factcast.factus.Factus;
+import org.factcast.factus.event.EventObject;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.samba.factcast.inmemory.InMemoryFactStore;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CatalogSnapshotterTest {
+
+    static final int RECORDS = 10_000;
+    static final int TAIL = 100;
+
+    @TempDir
+    Path snapshotDirectory;
+
+    Factus factus;
+
+    @BeforeEach
+    void setUp() {
+        factus = new InMemoryFactStore().factus();
+    }
+
+    @Test
+    public void restoredCatalogEqualsReplayedCatalog() throws Exception {
+        // arrange
+        publish(RECORDS);
+        var original = new RecordCatalogProjection();
+        factus.subscribeAndBlock(original).awaitCatchup(TimeUnit.MINUTES.toMillis(1));
+        new CatalogSnapshotter(original, snapshotDirectory).snapshot();
+        publish(TAIL);
+
+        // act
+        var restored = new RecordCatalogProjection();
+        new CatalogSnapshotter(restored, snapshotDirectory).restore();
+        factus.subscribeAndBlock(restored).awaitCatchup(TimeUnit.MINUTES.toMillis(1));
+
+        // assert
+        assertEquals(RECORDS + TAIL, restored.size());
+        assertEquals(RECORDS + TAIL, restored.position().getSerial());
+        var sample = original.find(FindRecords.builder().offset(RECORDS / 2).limit(1).build()).getRecords().get(0);
+        assertEquals(sample, restored.get(sample.getRecordId()).orElseThrow());
+    }
+
+    // how much faster that is: CatalogStartupBenchmark in the performance module
+    @Test
+    public void restoredCatalogOnlyAppliesTheFactsAfterTheSnapshot() throws Exception {
+        // arrange
+        publish(RECORDS);
+        var original = new RecordCatalogProjection();
+        factus.subscribeAndBlock(original).awaitCatchup(TimeUnit.MINUTES.toMillis(1));
+        new CatalogSnapshotter(original, snapshotDirectory).snapshot();
+        var snapshotFact = original.position().getFactId();
+        publish(TAIL);
+
+        var restored = new CountingCatalog();
+
+        // act
+        new CatalogSnapshotter(restored, snapshotDirectory).restore();
+        var restoredSize = restored.size();
+        var restoredState = restored.state();
+        restored.applied.clear();
+        factus.subscribeAndBlock(restored).awaitCatchup(TimeUnit.MINUTES.toMillis(1));
+
+        // assert: the subscription continued after the snapshot's fact
+        assertEquals(RECORDS, restoredSize);
+        assertEquals(snapshotFact, restoredState);
+        assertEquals(TAIL, restored.applied.size());
+        assertEquals(RECORDS + TAIL, restored.size());
+    }
+
+    @Test
+    public void unreadableSnapshotFallsBackToReplay() throws Exception {
+        // arrange
+        Files.writeString(snapshotDirectory.resolve(CatalogSnapshotter.FILE_NAME), "garbage");
+        publish(10);
+
+        // act
+        var catalog = new RecordCatalogProjection();
+        new CatalogSnapshotter(catalog, snapshotDirectory).restore();
+        factus.subscribeAndBlock(catalog).awaitCatchup(TimeUnit.MINUTES.toMillis(1));
+
+        // assert
+        assertEquals(10, catalog.size());
+    }
+
+    private void publish(int count) {
+        var events = new ArrayList<EventObject>(count);
+        for (int i = 0; i < count; i++) {
+            events.add(RecordAdded.builder()
+                    .recordId(UUID.randomUUID())
+                    .artist("Artist " + (i % 1000))
+                    .title("Title " + i)
+                    .label("Label " + (i % 50))
+                    .format(i % 2 == 0 ? "12 inch" : "7 inch")
+                    .releaseDate(LocalDate.of(1960 + i % 60, 1, 1))
+                    .addedToStore(ZonedDateTime.now())
+                    .build());
+        }
+        factus.publish(events);
+    }
+
+    // Factus moves the state on to every applied fact. A named class: Factus needs a canonical class name
+    static class CountingCatalog extends RecordCatalogProjection {
+        final Set<UUID> applied = ConcurrentHashMap.newKeySet();
+
+        @Override
+        public void state(UUID state) {
+            super.state(state);
+            applied.add(state);
+        }
+    }
+}
@@ -0,0 +1,125 @@
+package org.samba.recordstore.catalog;
+
+import org.factcast.core.Fact;
+import org.junit.jupiter.api.Test;
+import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.search.RecordSearchIndex;
+import org.samba.recordstore.shard.ShardedCatalog;
+import org.samba.recordstore.stats.RecordStatisticsProjection;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordCatalogProjectionTest {
+
+    RecordCatalogProjection uut = new RecordCatalogProjection();
+
+    @Test
+    public void recordCanBeFoundById() {
+        // arrange
+        var event = recordAdded("The Dancing Monkeys", "Ape Records", "12 inch", 2020);
+        var fact = fact(1);
+
+        // act
+        uut.apply(event, fact);
+
+        // assert
+        var record = uut.get(event.getRecordId()).orElseThrow();
+        assertEquals("The Dancing Monkeys", record.getArtist());
+        assertEquals(1, record.getSerial());
+        assertEquals(CatalogPosition.of(fact.id(), 1), uut.position());
+    }
+
+    @Test
+    public void recordsShareLabelAndFormatInstances() {
+        // arrange
+        var first = recordAdded("The Dancing Monkeys", new String("Ape Records"), new String("12 inch"), 2020);
+        var second = recordAdded("The Singing Monkeys", new String("Ape Records"), new String("12 inch"), 2020);
+
+        // act
+        uut.apply(first, fact(1));
+        uut.apply(second, fact(2));
+
+        // assert
+        var one = uut.get(first.getRecordId()).orElseThrow();
+        var other = uut.get(second.getRecordId()).orElseThrow();
+        assertSame(one.getLabel(), other.getLabel());
+        assertSame(one.getFormat(), other.getFormat());
+    }
+
+    @Test
+    public void filtersAreCombinedAndIgnoreCase() {
+        // arrange
+        uut.apply(recordAdded("The Dancing Monkeys", "Ape Records", "12 inch", 2020), fact(1));
+        uut.apply(recordAdded("The Singing Monkeys", "Ape Records", "7 inch", 2020), fact(2));
+        uut.apply(recordAdded("The Singing Monkeys", "Ape Records", "12 inch", 2019), fact(3));
+        uut.apply(recordAdded("The Singing Monkeys", "Gorilla Grooves", "12 inch", 2020), fact(4));
+
+        // act
+        var found = uut.find(FindRecords.builder()
+                .artist("the singing monkeys")
+                .label("APE RECORDS")
+                .releaseYear(2020)
+                .build()).getRecords();
+
+        // assert
+        assertEquals(1, found.size());
+        assertEquals("7 inch", found.get(0).getFormat());
+    }
+
+    @Test
+    public void findWithoutFilterReturnsAllInInsertionOrder() {
+        // arrange
+        uut.apply(recordAdded("C", "Ape Records", "12 inch", 2020), fact(3));
+        uut.apply(recordAdded("A", "Ape Records", "12 inch", 2020), fact(1));
+        uut.apply(recordAdded("B", "Ape Records", "12 inch", 2020), fact(2));
+
+        // act
+        var found = uut.find(FindRecords.builder().build()).getRecords();
+
+        // assert
+        assertEquals("ABC", found.stream().map(CatalogRecord::getArtist).collect(Collectors.joining()));
+    }
+
+    @Test
+    public void pageReportsTotalAndPosition() {
+        // arrange
+        for (int i = 1; i <= 5; i++) {
+            uut.apply(recordAdded("Artist " + i, "Ape Records", "12 inch", 2020), fact(i));
+        }
+        var handler = new FindRecordsHandler(ShardedCatalog.local(uut, new RecordSearchIndex(), new RecordStatisticsProjection()));
+
+        // act
+        var page = handler.handle(FindRecords.builder().label("Ape Records").offset(3).limit(10).build());
+
+        // assert
+        assertEquals(5, page.getTotal());
+        assertEquals(2, page.getRecords().size());
+        assertEquals("Artist 4", page.getRecords().get(0).getArtist());
+        assertEquals(5, page.getPosition().getSerial());
+    }
+
+    private static RecordAdded recordAdded(String artist, String label, String format, int releaseYear) {
+        return RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist(artist)
+                .title("Dancing Time")
+                .label(label)
+                .format(format)
+                .releaseDate(LocalDate.of(releaseYear, 5, 20))
+                .addedToStore(ZonedDateTime.now())
+                .build();
+    }
+
+    private static Fact fact(long serial) {
+        return Fact.builder()
+                .ns("recordstore")
+                .type("RecordAdded")
+                .meta("_ser", Long.toString(serial))
+                .build("{}");
+    }
+}
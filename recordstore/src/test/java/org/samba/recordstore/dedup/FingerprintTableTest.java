@@ -0,0 +1,54 @@
+package org.samba.recordstore.dedup;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FingerprintTableTest {
+
+    FingerprintTable uut = new FingerprintTable(16);
+
+    @Test
+    public void behavesLikeAMapWhileGrowingAndRemoving() {
+        // arrange
+        var random = new Random(42);
+        var expected = new HashMap<Long, UUID>();
+
+        // act: small key range, so there are plenty of collisions, hits and removals
+        for (int i = 0; i < 100_000; i++) {
+            var fingerprint = (long) random.nextInt(5_000) << 40;  // low bits all zero, worst case for the slots
+            if (random.nextInt(4) == 0) {
+                var id = expected.get(fingerprint);
+                if (id != null) {
+                    assertTrue(uut.remove(fingerprint, id));
+                    expected.remove(fingerprint);
+                }
+            } else {
+                var id = UUID.randomUUID();
+                assertEquals(expected.putIfAbsent(fingerprint, id), uut.putIfAbsent(fingerprint, id));
+            }
+        }
+
+        // assert
+        assertEquals(expected.size(), uut.size());
+        expected.forEach((fingerprint, id) -> assertEquals(id, uut.get(fingerprint)));
+    }
+
+    @Test
+    public void removeOnlyRemovesTheGivenRecord() {
+        // arrange
+        var original = UUID.randomUUID();
+        uut.putIfAbsent(4711, original);
+
+        // act
+        var removed = uut.remove(4711, UUID.randomUUID());
+
+        // assert
+        assertFalse(removed);
+        assertEquals(original, uut.get(4711));
+    }
+}
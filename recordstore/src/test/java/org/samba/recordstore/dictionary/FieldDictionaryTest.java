@@ -0,0 +1,44 @@
+package org.samba.recordstore.dictionary;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FieldDictionaryTest {
+
+    FieldDictionary uut = new FieldDictionary("test", 2);
+
+    @Test
+    public void equalValuesShareOneInstanceAndCode() {
+        // arrange
+        var first = new String("Ape Records");
+        var second = new String("Ape Records");
+
+        // act
+        var canonical = uut.canonical(first);
+
+        // assert
+        assertSame(canonical, uut.canonical(second));
+        assertEquals(uut.code(first), uut.code(second));
+        assertSame(canonical, uut.value(uut.code(second)));
+    }
+
+    @Test
+    public void valuesArePassedThroughOnceFull() {
+        // arrange
+        uut.code("12 inch");
+        uut.code("7 inch");
+        var third = new String("10 inch");
+
+        // act
+        var code = uut.code(third);
+
+        // assert
+        assertEquals(FieldDictionary.OVERFLOW, code);
+        assertSame(third, uut.canonical(third));
+        assertEquals(2, uut.size());
+        assertEquals(2, uut.overflows());
+        assertEquals(FieldDictionary.NONE, uut.code(null));
+        assertNull(uut.canonical(null));
+    }
+}
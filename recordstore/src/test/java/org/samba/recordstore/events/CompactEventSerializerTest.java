@@ -0,0 +1,91 @@
+package org.samba.recordstore.events;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.factcast.factus.event.DefaultEventSerializer;
+import org.factcast.factus.event.EventObject;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompactEventSerializerTest {
+
+    // configured like the ObjectMapper of Spring Boot, which FactCast uses by default
+    DefaultEventSerializer json = new DefaultEventSerializer(new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+    CompactEventSerializer uut = new CompactEventSerializer(json);
+
+    @Test
+    public void recordAddedSurvivesTheRoundTripAndIsSmaller() {
+        // arrange
+        var event = recordAdded();
+
+        // act
+        var payload = uut.serialize(event);
+        var read = uut.deserialize(RecordAdded.class, payload);
+
+        // assert
+        assertEquals(event, read);
+        assertTrue(payload.startsWith(CompactEventSerializer.ENVELOPE_START));
+        assertTrue(payload.length() < json.serialize(event).length(), payload);
+    }
+
+    @Test
+    public void jsonFactsWrittenBeforeCanStillBeRead() {
+        // arrange
+        var event = recordAdded();
+        var payload = json.serialize(event);
+
+        // act
+        var read = uut.deserialize(RecordAdded.class, payload);
+
+        // assert
+        assertEquals(event.getArtist(), read.getArtist());
+        // Jackson only keeps the offset, the compact form the zone as well
+        assertEquals(event.getAddedToStore().toInstant(), read.getAddedToStore().toInstant());
+    }
+
+    @Test
+    public void otherEventsAreLeftToJson() {
+        // arrange
+        var event = new OtherEvent();
+
+        // act
+        var payload = uut.serialize(event);
+
+        // assert
+        assertEquals("{\"name\":\"other\"}", payload);
+    }
+
+    private static RecordAdded recordAdded() {
+        return RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist("Motörhead")
+                .title("Ace of Spades")
+                .label("Bronze")
+                .format("12 inch")
+                .releaseDate(LocalDate.of(1980, 11, 8))
+                .addedToStore(ZonedDateTime.of(2020, 5, 20, 10, 15, 30, 123_000_000, ZoneId.of("Europe/Berlin")))
+                .build();
+    }
+
+    public static class OtherEvent implements EventObject {
+        public String getName() {
+            return "other";
+        }
+
+        @Override
+        public Set<UUID> aggregateIds() {
+            return Set.of();
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.samba.recordstore.export;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.factcast.factus.Factus;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mapstruct.factory.Mappers;
+import org.samba.factcast.inmemory.InMemoryFactStore;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordExportControllerTest {
+
+    ObjectMapper objectMapper = new ObjectMapper()
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+            .registerModule(new JavaTimeModule());
+
+    Factus factus;
+
+    RecordExportController uut;
+
+    @BeforeEach
+    void setUp() {
+        factus = new InMemoryFactStore().factus();
+        uut = new RecordExportController(factus,
+                Mappers.getMapper(RecordExportController.EventToRowMapper.class),
+                objectMapper);
+    }
+
+    @Test
+    public void everyRecordIsOneLine() throws Exception {
+        // arrange
+        publish("A", "B", "C");
+
+        // act
+        var lines = export(null, 0);
+
+        // assert
+        assertEquals(3, lines.size());
+        var first = objectMapper.readTree(lines.get(0));
+        assertEquals("A", first.get("artist").asText());
+        assertEquals(1, first.get("factSerial").asLong());
+        assertFalse(first.has("links"));
+    }
+
+    @Test
+    public void exportCanBeResumedFromFactIdOrSerial() throws Exception {
+        // arrange
+        publish("A", "B", "C");
+        var firstLine = objectMapper.readTree(export(null, 0).get(0));
+
+        // act
+        var afterFactId = export(UUID.fromString(firstLine.get("factId").asText()), 0);
+        var afterSerial = export(null, 2);
+
+        // assert
+        assertEquals(List.of("B", "C"), artists(afterFactId));
+        assertEquals(List.of("C"), artists(afterSerial));
+    }
+
+    @Test
+    public void emptyCatalogueIsEmptyExport() throws Exception {
+        assertEquals(List.of(), export(null, 0));
+    }
+
+    private List<String> export(UUID afterFactId, long afterSerial) throws Exception {
+        var out = new ByteArrayOutputStream();
+        uut.export(out, afterFactId, afterSerial);
+        return out.toString(StandardCharsets.UTF_8).lines().collect(Collectors.toList());
+    }
+
+    private List<String> artists(List<String> lines) throws Exception {
+        var artists = new ArrayList<String>();
+        for (var line : lines) {
+            artists.add(objectMapper.readTree(line).get("artist").asText());
+        }
+        return artists;
+    }
+
+    private void publish(String... artists) {
+        for (var artist : artists) {
+            factus.publish(RecordAdded.builder()
+                    .recordId(UUID.randomUUID())
+                    .artist(artist)
+                    .title("Dancing Time")
+                    .label("Ape Records")
+                    .format("12 inch")
+                    .releaseDate(LocalDate.of(2020, 5, 20))
+                    .addedToStore(ZonedDateTime.now())
+                    .build());
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package org.samba.recordstore.history;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.factcast.core.FactCast;
+import org.factcast.factus.Factus;
+import org.factcast.factus.event.DefaultEventSerializer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.samba.factcast.inmemory.InMemoryFactStore;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordAggregateCacheTest {
+
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    // configured like the ObjectMapper of Spring Boot, which FactCast uses by default
+    DefaultEventSerializer serializer = new DefaultEventSerializer(new ObjectMapper()
+            .registerModule(new JavaTimeModule())
+            .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS));
+
+    Factus factus;
+
+    RecordAggregateCache uut;
+
+    @BeforeEach
+    void setUp() {
+        var store = new InMemoryFactStore();
+        factus = store.factus();
+        uut = new RecordAggregateCache(factus, FactCast.from(store), serializer, meterRegistry, 100, 600);
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        uut.stop();
+    }
+
+    @Test
+    public void secondLookupIsServedFromCache() {
+        // arrange
+        var recordId = UUID.randomUUID();
+        factus.publish(recordAdded(recordId));
+
+        // act
+        var first = uut.find(recordId).orElseThrow();
+        var second = uut.find(recordId).orElseThrow();
+
+        // assert
+        assertSame(first, second);
+        assertEquals(recordId, first.getRecordId());
+        assertEquals("The Dancing Monkeys", first.getArtist());
+        assertEquals(1, first.getHistory().size());
+        assertEquals(0.5, meterRegistry.get("recordstore.aggregates.hit.ratio").gauge().value());
+    }
+
+    @Test
+    public void unknownRecordIsNotCached() {
+        // arrange
+        var recordId = UUID.randomUUID();
+        assertTrue(uut.find(recordId).isEmpty());
+        factus.publish(recordAdded(recordId));
+
+        // act
+        var found = uut.find(recordId);
+
+        // assert
+        assertTrue(found.isPresent());
+    }
+
+    @Test
+    public void subscriptionUpdatesCachedAggregates() throws Exception {
+        // arrange
+        var recordId = UUID.randomUUID();
+        factus.publish(recordAdded(recordId));
+        uut.find(recordId).orElseThrow();
+        uut.start();
+
+        // act
+        factus.publish(recordAdded(recordId));
+
+        // assert
+        var deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (staleness() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertEquals(2, uut.find(recordId).orElseThrow().getHistory().size());
+        assertEquals(1, staleness());
+    }
+
+    @Test
+    public void subscriptionStartsAtTheHeadAndSkipsRecordsNobodyAskedFor() throws Exception {
+        // arrange
+        var cachedId = UUID.randomUUID();
+        factus.publish(recordAdded(cachedId));
+        var cached = uut.find(cachedId).orElseThrow();
+        factus.publish(recordAdded(UUID.randomUUID()));
+
+        // act: the fact for the cached record was published before start(), it must not be replayed
+        uut.start();
+        factus.publish(recordAdded(UUID.randomUUID()));
+        factus.publish(recordAdded(cachedId));
+
+        // assert: the cached record gets the last fact only, the other ones are not timed
+        var deadline = System.currentTimeMillis() + TimeUnit.SECONDS.toMillis(10);
+        while (staleness() == 0 && System.currentTimeMillis() < deadline) {
+            Thread.sleep(10);
+        }
+        assertNotSame(cached, uut.find(cachedId).orElseThrow());
+        assertEquals(2, uut.find(cachedId).orElseThrow().getHistory().size());
+        assertEquals(1, staleness());
+    }
+
+    // recorded after the cached aggregate was updated
+    private long staleness() {
+        return meterRegistry.get("recordstore.aggregates.staleness").timer().count();
+    }
+
+    private static RecordAdded recordAdded(UUID recordId) {
+        return RecordAdded.builder()
+                .recordId(recordId)
+                .artist("The Dancing Monkeys")
+                .title("Dancing Time")
+                .label("Ape Records")
+                .format("12 inch")
+                .releaseDate(LocalDate.of(2020, 5, 20))
+                .addedToStore(ZonedDateTime.now())
+                .build();
+    }
+}
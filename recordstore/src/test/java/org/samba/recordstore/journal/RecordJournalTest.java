@@ -0,0 +1,114 @@
+package org.samba.recordstore.journal;
+
+import org.factcast.core.Fact;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.samba.recordstore.PipelineSaturatedException;
+
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordJournalTest {
+
+    @TempDir
+    Path directory;
+
+    @Test
+    void unpublishedEntriesSurviveAReopen() throws Exception {
+        // arrange
+        var journal = new RecordJournal(directory, 4096, 100, true);
+        journal.append(entries(0, 30));
+        var read = journal.read(10, 0, TimeUnit.MILLISECONDS);
+        journal.markPublished(read.get(read.size() - 1).getSequence());
+        journal.close();
+
+        // act
+        var reopened = new RecordJournal(directory, 4096, 100, true);
+
+        // assert: small segments, so the entries span several of them
+        assertEquals(10, reopened.publishedSequence());
+        assertEquals(20, reopened.unpublished());
+        var replayed = reopened.read(100, 0, TimeUnit.MILLISECONDS);
+        assertEquals(20, replayed.size());
+        assertEquals(11, replayed.get(0).getSequence());
+        assertEquals(entries(10, 30).stream().map(JournalEntry::getRecordId).collect(Collectors.toList()),
+                replayed.stream().map(JournalEntry::getRecordId).collect(Collectors.toList()));
+        assertEquals(payload(10), replayed.get(0).getPayload());
+    }
+
+    @Test
+    void tornEntryEndsTheJournal() throws Exception {
+        // arrange
+        var journal = new RecordJournal(directory, 4096, 100, true);
+        journal.append(entries(0, 3));
+        journal.close();
+        var segment = segments().get(0);
+        try (var file = new RandomAccessFile(segment.toFile(), "rw")) {
+            file.seek(2 * entryLength() + 20);
+            file.write(0xFF);  // a half written third entry
+        }
+
+        // act
+        var reopened = new RecordJournal(directory, 4096, 100, true);
+        reopened.append(entries(3, 4));
+
+        // assert
+        var read = reopened.read(100, 0, TimeUnit.MILLISECONDS);
+        assertEquals(3, read.size());
+        assertEquals(payload(3), read.get(2).getPayload());
+        assertEquals(3, read.get(2).getSequence());
+    }
+
+    @Test
+    void publishedSegmentsAreDeletedAndAFullJournalRejectsAppends() throws Exception {
+        // arrange
+        var journal = new RecordJournal(directory, 4096, 2, true);
+        var perSegment = 4096 / entryLength();
+        journal.append(entries(0, 2 * perSegment));
+
+        // act + assert
+        assertThrows(PipelineSaturatedException.class, () -> journal.append(entries(0, 1)));
+        assertEquals(2, segments().size());
+
+        var read = journal.read(perSegment + 1, 0, TimeUnit.MILLISECONDS);
+        journal.markPublished(read.get(read.size() - 1).getSequence());
+        assertEquals(1, segments().size());
+        journal.append(entries(0, 1));
+    }
+
+    private List<Path> segments() throws Exception {
+        try (var files = Files.list(directory)) {
+            return files.filter(it -> it.getFileName().toString().endsWith(".log")).sorted().collect(Collectors.toList());
+        }
+    }
+
+    // all test entries have the same size
+    private static int entryLength() {
+        return 8 + 4 * Long.BYTES + 2 * Integer.BYTES + header(0).length() + payload(0).length();
+    }
+
+    private static List<JournalEntry> entries(int from, int to) {
+        var entries = new ArrayList<JournalEntry>();
+        for (int i = from; i < to; i++) {
+            var fact = Fact.of(header(i), payload(i));
+            entries.add(JournalEntry.of(i, new UUID(0, i), fact));
+        }
+        return entries;
+    }
+
+    private static String payload(int i) {
+        return String.format("{\"n\":\"%04d\"}", i);
+    }
+
+    private static String header(int i) {
+        return "{\"id\":\"" + new UUID(1, i) + "\",\"ns\":\"recordstore\",\"type\":\"RecordAdded\"}";
+    }
+}
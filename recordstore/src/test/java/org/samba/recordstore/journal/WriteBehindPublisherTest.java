@@ -0,0 +1,181 @@
+package org.samba.recordstore.journal;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.factcast.core.Fact;
+import org.factcast.core.FactCast;
+import org.factcast.core.FactValidationException;
+import org.factcast.factus.Factus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.samba.factcast.inmemory.InMemoryFactStore;
+import org.samba.recordstore.RecordStoreMetrics;
+import org.samba.recordstore.RecordStoreThreads;
+import org.samba.recordstore.dedup.RecordFingerprint;
+import org.samba.recordstore.dedup.RecordFingerprintIndex;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.spy;
+
+class WriteBehindPublisherTest {
+
+    @TempDir
+    Path directory;
+
+    InMemoryFactStore store = new InMemoryFactStore();
+    Factus factus = store.factus();
+    FactCast factCast = spy(FactCast.from(store));
+    RecordFingerprintIndex fingerprints = new RecordFingerprintIndex(1000);
+    SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    WriteBehindPublisher uut;
+
+    @BeforeEach
+    void setUp() {
+        uut = publisher();
+    }
+
+    @AfterEach
+    void tearDown() throws Exception {
+        uut.stop();
+    }
+
+    @Test
+    void appendedRecordsArePublishedInTheBackground() throws Exception {
+        // arrange
+        uut.start();
+        var a = record("A");
+        var b = record("B");
+
+        // act
+        uut.append(List.of(a, b));
+
+        // assert
+        awaitFacts(2);
+    }
+
+    @Test
+    void recordsOfACrashedNodeArePublishedOnceOnStartup() throws Exception {
+        // arrange: a node journaled three records and crashed after publishing the first one,
+        // but before it wrote the published marker
+        var a = record("A");
+        var b = record("B");
+        var c = record("C");
+        var journal = new RecordJournal(directory, 4096, 10, true);
+        var published = factus.toFact(a);
+        journal.append(List.of(
+                JournalEntry.of(1, a.getRecordId(), published),
+                JournalEntry.of(2, b.getRecordId(), factus.toFact(b)),
+                JournalEntry.of(RecordFingerprint.of(c, null), c.getRecordId(), factus.toFact(c))));
+        journal.close();
+        FactCast.from(store).publish(published);
+
+        // act
+        uut.start();
+
+        // assert
+        awaitFacts(3);
+        Thread.sleep(100);  // a duplicate of "a" would be published right behind the others
+        assertEquals(3, store.size());
+        // a retry of c arriving before c is published still gets the original id
+        assertEquals(c.getRecordId(), fingerprints.reserve(RecordFingerprint.of(c, null), UUID.randomUUID()).join());
+    }
+
+    @Test
+    void factsStoredByAFailedPublishAreNotPublishedAgain() throws Exception {
+        // arrange: FactCast stores the first batch, but the answer gets lost
+        var lost = new AtomicBoolean();
+        doAnswer(invocation -> {
+            invocation.callRealMethod();
+            if (lost.compareAndSet(false, true)) {
+                throw new IllegalStateException("connection reset");
+            }
+            return null;
+        }).when(factCast).publish(anyList());
+        uut.start();
+
+        // act
+        uut.append(List.of(record("A"), record("B")));
+
+        // assert: without the lookup the retry would fail on the duplicate ids forever
+        awaitDrained();
+        assertTrue(lost.get());
+        assertEquals(2, store.size());
+        assertFalse(Files.exists(directory.resolve(WriteBehindPublisher.DEAD_LETTERS)));
+    }
+
+    @Test
+    void refusedRecordGoesToTheDeadLettersAndTheOthersArePublished() throws Exception {
+        // arrange
+        var a = record("A");
+        var refused = record("B");
+        var c = record("C");
+        doAnswer(invocation -> {
+            List<Fact> facts = invocation.getArgument(0);
+            if (facts.stream().anyMatch(fact -> fact.jsonPayload().contains(refused.getRecordId().toString()))) {
+                throw new FactValidationException("B is invalid");
+            }
+            return invocation.callRealMethod();
+        }).when(factCast).publish(anyList());
+        uut.start();
+
+        // act
+        uut.append(List.of(a, refused, c));
+
+        // assert
+        awaitDrained();
+        assertEquals(2, store.size());
+        var deadLetters = Files.readAllLines(directory.resolve(WriteBehindPublisher.DEAD_LETTERS));
+        assertEquals(1, deadLetters.size());
+        assertTrue(deadLetters.get(0).contains(refused.getRecordId().toString()));
+        assertEquals(1, meterRegistry.get("recordstore.write.failures").tag("stage", "write-behind-dead-letter").counter().count());
+    }
+
+    private WriteBehindPublisher publisher() {
+        return new WriteBehindPublisher(factus, factCast, fingerprints,
+                new RecordStoreMetrics(meterRegistry), RecordStoreThreads.platform(),
+                directory, 4096, 10, true, 100, 10, 100);
+    }
+
+    private void awaitDrained() throws InterruptedException {
+        var unpublished = meterRegistry.get("recordstore.write.journal.unpublished").gauge();
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline && unpublished.value() > 0) {
+            Thread.sleep(10);
+        }
+        assertEquals(0, unpublished.value());
+    }
+
+    private void awaitFacts(int count) throws InterruptedException {
+        var deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline && store.size() < count) {
+            Thread.sleep(10);
+        }
+        assertEquals(count, store.size());
+    }
+
+    private static RecordAdded record(String artist) {
+        return RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist(artist)
+                .title("Monkeys out and about")
+                .label("Ape Records")
+                .format("12")
+                .releaseDate(LocalDate.of(2020, 10, 24))
+                .addedToStore(ZonedDateTime.now())
+                .build();
+    }
+}
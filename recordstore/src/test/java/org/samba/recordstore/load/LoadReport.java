@@ -0,0 +1,85 @@
+package org.samba.recordstore.load;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import lombok.AccessLevel;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Locale;
+import java.util.concurrent.TimeUnit;
+
+// The numbers of one run, written as JSON next to the HdrHistogram percentile distribution.
+// Runs with different tags (e.g. commit ids) can be compared with compareTo().
+@Data
+@AllArgsConstructor
+@NoArgsConstructor(access = AccessLevel.PROTECTED)  // required by jackson for deserialization
+class LoadReport {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper().enable(SerializationFeature.INDENT_OUTPUT);
+
+    private String tag;
+    private String scenario;
+    private int targetRate;
+    private double achievedRate;
+    private long ok;
+    private long failed;
+    private long dropped;
+    private double p50Millis;
+    private double p90Millis;
+    private double p99Millis;
+    private double p999Millis;
+    private double maxMillis;
+
+    static LoadReport of(String tag, String scenario, int targetRate, OpenModelLoadGenerator.Result result) {
+        var histogram = result.getLatencies();
+        var seconds = result.getElapsedNanos() / (double) TimeUnit.SECONDS.toNanos(1);
+        return new LoadReport(tag, scenario, targetRate,
+                (result.getOk() + result.getFailed()) / seconds,
+                result.getOk(), result.getFailed(), result.getDropped(),
+                millis(histogram.getValueAtPercentile(50)),
+                millis(histogram.getValueAtPercentile(90)),
+                millis(histogram.getValueAtPercentile(99)),
+                millis(histogram.getValueAtPercentile(99.9)),
+                millis(histogram.getMaxValue()));
+    }
+
+    static LoadReport read(Path file) throws IOException {
+        return MAPPER.readValue(file.toFile(), LoadReport.class);
+    }
+
+    void write(Path file) throws IOException {
+        Files.createDirectories(file.getParent());
+        MAPPER.writeValue(file.toFile(), this);
+    }
+
+    String summary() {
+        return String.format(Locale.ROOT,
+                "%s [%s] target %d/s, achieved %.0f/s, ok %d, failed %d, dropped %d, "
+                        + "p50 %.2fms, p90 %.2fms, p99 %.2fms, p99.9 %.2fms, max %.2fms",
+                scenario, tag, targetRate, achievedRate, ok, failed, dropped,
+                p50Millis, p90Millis, p99Millis, p999Millis, maxMillis);
+    }
+
+    String compareTo(LoadReport baseline) {
+        return String.format(Locale.ROOT,
+                "%s [%s vs %s] achieved %+.1f%%, p50 %+.1f%%, p99 %+.1f%%, p99.9 %+.1f%%",
+                scenario, tag, baseline.tag,
+                change(achievedRate, baseline.achievedRate),
+                change(p50Millis, baseline.p50Millis),
+                change(p99Millis, baseline.p99Millis),
+                change(p999Millis, baseline.p999Millis));
+    }
+
+    private static double change(double value, double baseline) {
+        return baseline == 0 ? 0 : (value - baseline) * 100 / baseline;
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,74 @@
+package org.samba.recordstore.load;
+
+import lombok.RequiredArgsConstructor;
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+import java.util.function.Supplier;
+
+// Open model: requests are started at a fixed arrival rate, no matter how fast the system answers.
+// (A closed model - N threads sending the next request after the previous answer - slows down together with
+// the system under test and hides exactly the latencies we are looking for.)
+//
+// Latency is measured from the *intended* start of a request, so queueing caused by a slow system is
+// included (no coordinated omission).
+@RequiredArgsConstructor
+class OpenModelLoadGenerator {
+
+    private final int requestsPerSecond;
+    private final int maxOutstanding;   // protects the test JVM, requests above are counted as dropped
+
+    Result run(Duration duration, Supplier<CompletableFuture<Integer>> request) throws InterruptedException {
+        var recorder = new Recorder(TimeUnit.MINUTES.toNanos(1), 3);
+        var ok = new LongAdder();
+        var failed = new LongAdder();
+        var dropped = new LongAdder();
+        var outstanding = new Semaphore(maxOutstanding);
+
+        var intervalNanos = TimeUnit.SECONDS.toNanos(1) / requestsPerSecond;
+        var start = System.nanoTime();
+        var end = start + duration.toNanos();
+        var sent = 0L;
+
+        for (var intended = start; intended < end; intended = start + ++sent * intervalNanos) {
+            var wait = intended - System.nanoTime();
+            if (wait > 0) {
+                LockSupport.parkNanos(wait);
+            }
+            if (!outstanding.tryAcquire()) {
+                dropped.increment();
+                continue;
+            }
+            var intendedStart = intended;
+            request.get().whenComplete((status, e) -> {
+                recorder.recordValue(Math.max(0, System.nanoTime() - intendedStart));
+                if (e == null && status >= 200 && status < 300) {
+                    ok.increment();
+                } else {
+                    failed.increment();
+                }
+                outstanding.release();
+            });
+        }
+
+        // let the last requests finish, they are part of the measurement
+        outstanding.tryAcquire(maxOutstanding, 30, TimeUnit.SECONDS);
+        var elapsedNanos = System.nanoTime() - start;
+        return new Result(recorder.getIntervalHistogram(), ok.sum(), failed.sum(), dropped.sum(), elapsedNanos);
+    }
+
+    @lombok.Value
+    static class Result {
+        Histogram latencies;
+        long ok;
+        long failed;
+        long dropped;
+        long elapsedNanos;
+    }
+}
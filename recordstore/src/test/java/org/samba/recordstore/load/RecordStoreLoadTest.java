@@ -0,0 +1,107 @@
+package org.samba.recordstore.load;
+
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.samba.recordstore.RecordstoreApplication;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import java.io.FileOutputStream;
+import java.io.PrintStream;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+// Sustained POST /recordstore load against the real application, with FactCast replaced by the in-memory store.
+// Not part of the normal build, run it with
+//
+//   mvn -pl recordstore -P load-test test -Dloadtest.rate=2000 -Dloadtest.tag=$(git rev-parse --short HEAD)
+//
+// Reports end up in target/load-test/<tag>/. Pass -Dloadtest.baseline=<report json of an earlier run>
+// to get the difference printed.
+//
+// Platform against virtual threads (recordstore.threads.mode), on a JDK 21:
+//
+//   mvn -pl recordstore -P load-test test -Dloadtest.threads=platform
+//   mvn -pl recordstore -P load-test test -Dloadtest.threads=virtual \
+//       -Dloadtest.baseline=target/load-test/local/add-record-platform.json
+@Slf4j
+@Tag("load")
+class RecordStoreLoadTest {
+
+    static final int RATE = Integer.getInteger("loadtest.rate", 2000);
+    static final Duration WARMUP = Duration.ofSeconds(Integer.getInteger("loadtest.warmup-seconds", 10));
+    static final Duration DURATION = Duration.ofSeconds(Integer.getInteger("loadtest.duration-seconds", 30));
+    static final String TAG = System.getProperty("loadtest.tag", "local");
+    static final String BASELINE = System.getProperty("loadtest.baseline");
+    static final String THREADS = System.getProperty("loadtest.threads", "platform");
+
+    static ConfigurableApplicationContext application;
+    static URI addRecordUri;
+    static HttpClient client;
+
+    @BeforeAll
+    static void startApplication() {
+        application = new SpringApplicationBuilder(RecordstoreApplication.class)
+                .properties(
+                        "server.port=0",
+                        "factcast.inmemory.enabled=true",
+                        "recordstore.catalog.snapshot.enabled=false",
+                        "recordstore.threads.mode=" + THREADS,
+                        "logging.level.root=WARN")
+                .run();
+        var port = application.getEnvironment().getProperty("local.server.port");
+        addRecordUri = URI.create("http://localhost:" + port + "/recordstore");
+        client = HttpClient.newBuilder().version(HttpClient.Version.HTTP_1_1).build();
+    }
+
+    @AfterAll
+    static void stopApplication() {
+        application.close();
+    }
+
+    @Test
+    void addRecord() throws Exception {
+        var counter = new AtomicLong();
+        var generator = new OpenModelLoadGenerator(RATE, RATE * 5);
+
+        // JIT, connection pool, projections catching up
+        generator.run(WARMUP, () -> addRecord(counter.incrementAndGet()));
+        var result = generator.run(DURATION, () -> addRecord(counter.incrementAndGet()));
+
+        var scenario = "add-record-" + THREADS;
+        var report = LoadReport.of(TAG, scenario, RATE, result);
+        var directory = Path.of("target", "load-test", TAG);
+        report.write(directory.resolve(scenario + ".json"));
+        try (var out = new PrintStream(new FileOutputStream(directory.resolve(scenario + ".hgrm").toFile()))) {
+            result.getLatencies().outputPercentileDistribution(out, 1_000_000.0);  // in milliseconds
+        }
+
+        log.warn(report.summary());
+        if (BASELINE != null) {
+            log.warn(report.compareTo(LoadReport.read(Path.of(BASELINE))));
+        }
+        assertEquals(0, result.getFailed());
+    }
+
+    // every record is different, otherwise the idempotency check would swallow them
+    private static CompletableFuture<Integer> addRecord(long n) {
+        var body = "{\"artist\":\"Artist " + (n % 10_000) + "\",\"title\":\"Title " + n + "\","
+                + "\"label\":\"Label " + (n % 100) + "\",\"format\":\"12 inch\",\"releaseDate\":\"2020-05-20\"}";
+        var request = HttpRequest.newBuilder(addRecordUri)
+                .header("Content-Type", "application/json")
+                .POST(HttpRequest.BodyPublishers.ofString(body))
+                .build();
+        return client.sendAsync(request, HttpResponse.BodyHandlers.discarding()).thenApply(HttpResponse::statusCode);
+    }
+}
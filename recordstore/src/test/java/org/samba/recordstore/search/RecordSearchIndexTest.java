@@ -0,0 +1,126 @@
+package org.samba.recordstore.search;
+
+import org.factcast.core.Fact;
+import org.junit.jupiter.api.Test;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordSearchIndexTest {
+
+    RecordSearchIndex uut = new RecordSearchIndex();
+
+    @Test
+    public void findsRecordsByTheBeginningOfAnyWord() {
+        // arrange
+        var floyd = recordAdded("Pink Floyd", "The Dark Side of the Moon", "Harvest");
+        var motorhead = recordAdded("Motörhead", "Ace of Spades", "Bronze");
+        uut.apply(floyd, fact(1));
+        uut.apply(motorhead, fact(2));
+
+        // act
+        var byArtist = uut.search(query("FLOY").build());
+        var byTitle = uut.search(query("moo").build());
+        var withoutAccent = uut.search(query("motorh").build());
+        var onlyLabels = uut.search(query("dark").field(SearchField.LABEL).build());
+
+        // assert
+        assertEquals(List.of(floyd.getRecordId()), byArtist.getRecordIds());
+        assertEquals(List.of(floyd.getRecordId()), byTitle.getRecordIds());
+        assertEquals(List.of(motorhead.getRecordId()), withoutAccent.getRecordIds());
+        assertTrue(onlyLabels.getRecordIds().isEmpty());
+        assertEquals(2, uut.position().getSerial());
+    }
+
+    @Test
+    public void fuzzyMatchesComeAfterExactOnes() {
+        // arrange
+        var floyd = recordAdded("Pink Floyd", "Animals", "Harvest");
+        var flood = recordAdded("Flood", "Animals", "Harvest");
+        uut.apply(flood, fact(1));
+        uut.apply(floyd, fact(2));
+
+        // act
+        var exact = uut.search(query("floyd").build());
+        var fuzzy = uut.search(query("floyd").fuzzy(true).build());
+        var typo = uut.search(query("flyod").fuzzy(true).build());
+
+        // assert
+        assertEquals(List.of(floyd.getRecordId()), exact.getRecordIds());
+        assertEquals(List.of(floyd.getRecordId(), flood.getRecordId()), fuzzy.getRecordIds());
+        assertEquals(2, typo.getRecordIds().size());  // flyod -> floyd, flyod -> flood
+    }
+
+    @Test
+    public void pagesInTheOrderTheRecordsWereAdded() {
+        // arrange
+        for (int i = 1; i <= 5; i++) {
+            uut.apply(recordAdded("Artist " + i, "Title", "Ape Records"), fact(i));
+        }
+
+        // act
+        var first = uut.search(query("ape").limit(3).build());
+        var last = uut.search(query("ape").offset(3).limit(3).build());
+
+        // assert
+        assertEquals(3, first.getRecordIds().size());
+        assertTrue(first.isMore());
+        assertEquals(2, last.getRecordIds().size());
+        assertFalse(last.isMore());
+    }
+
+    // how fast that is: RecordSearchBenchmark in the performance module
+    @Test
+    public void findsTheRightPageAmongManyRecordsWithSharedTerms() {
+        // arrange
+        var records = new ArrayList<UUID>();
+        for (int i = 0; i < 10_000; i++) {
+            var event = recordAdded("Artist " + (i % 1_000), "Title " + i + " Remastered", "Label " + (i % 100));
+            records.add(event.getRecordId());
+            uut.apply(event, fact(i + 1));
+        }
+
+        // act
+        var title = uut.search(query("title 1234").build());
+        var label = uut.search(query("label 7").limit(100).build());
+
+        // assert: "label 7" comes before "label 70" to "label 79", within it in the order the records were added
+        assertEquals(10_000, uut.size());
+        assertEquals(List.of(records.get(1234)), title.getRecordIds());
+        var expected = IntStream.range(0, 100).mapToObj(i -> records.get(7 + 100 * i)).collect(Collectors.toList());
+        assertEquals(expected, label.getRecordIds());
+        assertTrue(label.isMore());
+    }
+
+    private static SearchRecords.SearchRecordsBuilder query(String text) {
+        return SearchRecords.builder().text(text);
+    }
+
+    private static RecordAdded recordAdded(String artist, String title, String label) {
+        return RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist(artist)
+                .title(title)
+                .label(label)
+                .format("12 inch")
+                .releaseDate(LocalDate.of(2020, 5, 20))
+                .addedToStore(ZonedDateTime.now())
+                .build();
+    }
+
+    private static Fact fact(long serial) {
+        return Fact.builder()
+                .ns("recordstore")
+                .type("RecordAdded")
+                .meta("_ser", Long.toString(serial))
+                .build("{}");
+    }
+}
@@ -0,0 +1,187 @@
+package org.samba.recordstore.shard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.factcast.factus.Factus;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.samba.factcast.inmemory.InMemoryFactStore;
+import org.samba.recordstore.RecordstoreApplication;
+import org.samba.recordstore.catalog.CatalogRecord;
+import org.samba.recordstore.catalog.FindRecords;
+import org.samba.recordstore.catalog.RecordCatalogProjection;
+import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.search.RecordSearchIndex;
+import org.samba.recordstore.search.SearchRecords;
+import org.samba.recordstore.stats.CountRecords;
+import org.samba.recordstore.stats.RecordStatisticsProjection;
+import org.samba.recordstore.stats.StatisticsDimension;
+import org.springframework.boot.autoconfigure.ImportAutoConfiguration;
+import org.springframework.boot.autoconfigure.http.HttpMessageConvertersAutoConfiguration;
+import org.springframework.boot.autoconfigure.validation.ValidationAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.DispatcherServletAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.ServletWebServerFactoryAutoConfiguration;
+import org.springframework.boot.autoconfigure.web.servlet.WebMvcAutoConfiguration;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.web.servlet.context.ServletWebServerApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Import;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.time.ZonedDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// HttpCatalogShard against a ShardController behind a real web server: JSON and HTTP as between two nodes
+class ShardControllerHttpTest {
+
+    static final String TOKEN = "shard-secret";
+
+    Factus factus = new InMemoryFactStore().factus();
+    RecordCatalogProjection catalog = new RecordCatalogProjection();
+    RecordSearchIndex index = new RecordSearchIndex();
+    RecordStatisticsProjection statistics = new RecordStatisticsProjection();
+    ObjectMapper objectMapper = new RecordstoreApplication().serializingObjectMapper();
+    HttpClient client = HttpClient.newHttpClient();
+
+    ServletWebServerApplicationContext node;
+    URI uri;
+
+    @BeforeEach
+    void setUp() throws Exception {
+        factus.publish(List.of(record("Pink Floyd"), record("Motörhead"), record("Flood")));
+        for (var projection : List.of(catalog, index, statistics)) {
+            factus.subscribeAndBlock(projection).awaitCatchup(TimeUnit.SECONDS.toMillis(10));
+        }
+
+        node = (ServletWebServerApplicationContext) new SpringApplicationBuilder(Node.class)
+                .initializers(context -> {
+                    context.getBeanFactory().registerSingleton("catalog", catalog);
+                    context.getBeanFactory().registerSingleton("index", index);
+                    context.getBeanFactory().registerSingleton("statistics", statistics);
+                })
+                .properties("server.port=0", "recordstore.shard.token=" + TOKEN)
+                .run();
+        uri = URI.create("http://localhost:" + node.getWebServer().getPort());
+    }
+
+    @AfterEach
+    void tearDown() {
+        node.close();
+    }
+
+    @Test
+    public void recordsSurviveTheRoundTrip() {
+        // arrange
+        var uut = shard(TOKEN);
+        var expected = catalog.find(FindRecords.builder().build());
+        var first = expected.getRecords().get(0);
+        var unknown = UUID.randomUUID();
+
+        // act
+        var page = uut.find(FindRecords.builder().artist("pink floyd").build()).join();
+        var lookup = uut.get(first.getRecordId()).join();
+
+        // assert
+        assertEquals(1, page.getTotal());
+        assertEquals(catalog.position(), page.getPosition());
+        assertSameRecord(first, page.getRecords().get(0));
+        assertSameRecord(first, lookup.getRecord().orElseThrow());
+        assertTrue(uut.get(unknown).join().getRecord().isEmpty());
+    }
+
+    @Test
+    public void searchHitsAndCountsSurviveTheRoundTrip() {
+        // arrange
+        var uut = shard(TOKEN);
+        var search = SearchRecords.builder().text("flyod").fuzzy(true).build();
+        var count = CountRecords.builder().groupBy(StatisticsDimension.RELEASE_YEAR).groupBy(StatisticsDimension.ADDED_MONTH).build();
+
+        // act
+        var hits = uut.search(search).join();
+        var counts = uut.count(count).join();
+
+        // assert
+        var expected = new LocalCatalogShard(catalog, index, statistics);
+        assertEquals(expected.search(search).join().getHits(), hits.getHits());
+        assertEquals(2, hits.getRecords().size());
+        assertSameRecord(catalog.get(hits.getHits().get(0).getRecordId()).orElseThrow(), hits.getRecords().get(0));
+        assertEquals(index.position(), hits.getPosition());
+        assertEquals(expected.count(count).join(), counts);
+    }
+
+    @Test
+    public void requestsWithoutTheTokenAreForbidden() {
+        // arrange
+        var uut = shard("guessed");
+
+        // act
+        var thrown = assertThrows(CompletionException.class, () -> uut.find(FindRecords.builder().build()).join());
+
+        // assert
+        assertTrue(thrown.getCause().getMessage().endsWith("answered 403"), thrown.getCause().getMessage());
+    }
+
+    @Test
+    public void queriesBeyondTheLimitsAreRejected() {
+        // arrange
+        var uut = shard(TOKEN);
+        var query = FindRecords.builder().offset(Integer.MAX_VALUE).limit(1000).build();
+
+        // act
+        var thrown = assertThrows(CompletionException.class, () -> uut.find(query).join());
+
+        // assert
+        assertTrue(thrown.getCause().getMessage().endsWith("answered 400"), thrown.getCause().getMessage());
+    }
+
+    private HttpCatalogShard shard(String token) {
+        return new HttpCatalogShard(uri, client, objectMapper, Duration.ofSeconds(5), token);
+    }
+
+    // ZonedDateTime comes back with an offset instead of the zone id, so it is compared as an instant
+    private static void assertSameRecord(CatalogRecord expected, CatalogRecord actual) {
+        assertEquals(expected.getRecordId(), actual.getRecordId());
+        assertEquals(expected.getArtist(), actual.getArtist());
+        assertEquals(expected.getReleaseDate(), actual.getReleaseDate());
+        assertEquals(expected.getAddedToStore().toInstant(), actual.getAddedToStore().toInstant());
+        assertEquals(expected.getSerial(), actual.getSerial());
+    }
+
+    private static RecordAdded record(String artist) {
+        return RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist(artist)
+                .title("Animals")
+                .label("Harvest")
+                .format("12 inch")
+                .releaseDate(LocalDate.of(1977, 1, 23))
+                .addedToStore(ZonedDateTime.now(ZoneOffset.UTC))
+                .build();
+    }
+
+    // the web layer of a node, serving nothing but its catalogue shard
+    @Configuration
+    @Import({ShardController.class, ShardEndpoint.class})
+    @ImportAutoConfiguration({
+            ServletWebServerFactoryAutoConfiguration.class,
+            DispatcherServletAutoConfiguration.class,
+            WebMvcAutoConfiguration.class,
+            HttpMessageConvertersAutoConfiguration.class,
+            ValidationAutoConfiguration.class})
+    static class Node {
+        @Bean
+        public ObjectMapper serializingObjectMapper() {
+            return new RecordstoreApplication().serializingObjectMapper();
+        }
+    }
+}
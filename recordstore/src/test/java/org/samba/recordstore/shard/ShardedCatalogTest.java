@@ -0,0 +1,233 @@
+package org.samba.recordstore.shard;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.factcast.core.Fact;
+import org.factcast.core.event.EventConverter;
+import org.factcast.core.spec.FactSpec;
+import org.factcast.factus.Factus;
+import org.factcast.factus.event.DefaultEventSerializer;
+import org.factcast.factus.projection.SubscribedProjection;
+import org.factcast.factus.event.EventObject;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.samba.factcast.inmemory.InMemoryFactStore;
+import org.samba.recordstore.catalog.CatalogRecord;
+import org.samba.recordstore.catalog.FindRecords;
+import org.samba.recordstore.catalog.RecordCatalogProjection;
+import org.samba.recordstore.events.RecordAdded;
+import org.samba.recordstore.search.RecordSearchIndex;
+import org.samba.recordstore.search.SearchField;
+import org.samba.recordstore.search.SearchRecords;
+import org.samba.recordstore.stats.CountRecords;
+import org.samba.recordstore.stats.RecordStatisticsProjection;
+import org.samba.recordstore.stats.StatisticsDimension;
+
+import java.time.LocalDate;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// three nodes in one JVM, all subscribed to the same in-memory fact store. Set up once, the tests only read
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class ShardedCatalogTest {
+
+    static final EventConverter CONVERTER = new EventConverter(new DefaultEventSerializer(
+            new ObjectMapper().registerModule(new JavaTimeModule()).disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)));
+
+    static final List<String> NODES = List.of("http://node-a:8080", "http://node-b:8080", "http://node-c:8080");
+    static final int RECORDS = 302;  // the last two without partition meta data
+
+    InMemoryFactStore store = new InMemoryFactStore();
+    Factus factus = store.factus();
+    RecordCatalogProjection unsharded = new RecordCatalogProjection();
+    RecordSearchIndex unshardedIndex = new RecordSearchIndex();
+    RecordStatisticsProjection unshardedStatistics = new RecordStatisticsProjection();
+    Map<String, RecordCatalogProjection> projections = new HashMap<>();
+    Map<String, RecordSearchIndex> indexes = new HashMap<>();
+    Map<String, ShardedCatalog> catalogs = new HashMap<>();
+
+    @BeforeAll
+    void setUp() throws Exception {
+        var events = new ArrayList<EventObject>();
+        for (int i = 0; i < RECORDS - 2; i++) {
+            events.add(record("Artist " + (i % 7)));
+        }
+        factus.publish(events);
+        store.publish(List.of(unpartitioned(record("Artist 1")), unpartitioned(record("Artist 2"))));
+
+        var shards = new HashMap<String, CatalogShard>();
+        for (var node : NODES) {
+            var assignment = new ShardAssignment(NODES, node);
+            var projection = new RecordCatalogProjection(assignment);
+            var index = new RecordSearchIndex(assignment);
+            var statistics = new RecordStatisticsProjection(assignment);
+            projections.put(node, projection);
+            indexes.put(node, index);
+            shards.put(node, new LocalCatalogShard(projection, index, statistics));
+            catchUp(projection, index, statistics);
+        }
+        for (var node : NODES) {
+            catalogs.put(node, new ShardedCatalog(projections.get(node).shard(), shards));
+        }
+        catchUp(unsharded, unshardedIndex, unshardedStatistics);
+    }
+
+    @Test
+    void everyNodeHoldsItsPartitionsOnly() {
+        var total = 0;
+        for (var node : NODES) {
+            var projection = projections.get(node);
+            assertTrue(projection.size() > 0 && projection.size() < RECORDS, node + " holds " + projection.size());
+            for (var record : projection.find(FindRecords.builder().limit(RECORDS).build()).getRecords()) {
+                assertTrue(projection.shard().owns(RecordPartition.of(record.getRecordId())));
+            }
+            total += projection.size();
+        }
+        assertEquals(RECORDS, total);
+    }
+
+    @Test
+    void scatterGatherAnswersLikeASingleNode() {
+        var all = FindRecords.builder().limit(1000).build();
+        var page = FindRecords.builder().offset(50).limit(20).build();
+        var filtered = FindRecords.builder().artist("artist 3").offset(5).limit(10).build();
+
+        for (var catalog : catalogs.values()) {
+            assertEquals(ids(unsharded.find(all).getRecords()), ids(catalog.find(all).getRecords()));
+            assertEquals(RECORDS, catalog.find(all).getTotal());
+            assertEquals(ids(unsharded.find(all).getRecords().subList(50, 70)), ids(catalog.find(page).getRecords()));
+
+            var expected = unsharded.find(filtered);
+            var result = catalog.find(filtered);
+            assertEquals(expected.getTotal(), result.getTotal());
+            assertEquals(ids(expected.getRecords()), ids(result.getRecords()));
+        }
+    }
+
+    @Test
+    void getIsRoutedToTheOwningNode() {
+        for (var record : unsharded.find(FindRecords.builder().limit(1000).build()).getRecords()) {
+            for (var catalog : catalogs.values()) {
+                assertEquals(record, catalog.get(record.getRecordId()).getRecord().orElseThrow());
+            }
+        }
+        assertTrue(catalogs.get(NODES.get(0)).get(UUID.randomUUID()).getRecord().isEmpty());
+    }
+
+    @Test
+    void searchMergesLikeASingleIndex() {
+        var queries = List.of(
+                SearchRecords.builder().text("a").limit(1000).build(),
+                SearchRecords.builder().text("a").offset(295).limit(20).build(),
+                SearchRecords.builder().text("artst").fuzzy(true).offset(40).limit(30).build(),
+                SearchRecords.builder().text("ape").field(SearchField.LABEL).limit(10).build());
+
+        for (var catalog : catalogs.values()) {
+            for (var query : queries) {
+                var expected = unshardedIndex.search(query);
+                var result = catalog.search(query);
+                assertEquals(expected.getRecordIds(), ids(result.getRecords()), query.toString());
+                assertEquals(expected.isMore(), result.isMore(), query.toString());
+            }
+        }
+        var total = indexes.values().stream().mapToInt(RecordSearchIndex::size).sum();
+        assertEquals(RECORDS, total);
+    }
+
+    @Test
+    void countsAreAddedUp() {
+        var all = CountRecords.builder().build();
+        var grouped = CountRecords.builder().groupBy(StatisticsDimension.LABEL).groupBy(StatisticsDimension.RELEASE_YEAR).build();
+        var filtered = CountRecords.builder().label("ape records").groupBy(StatisticsDimension.FORMAT).build();
+
+        for (var catalog : catalogs.values()) {
+            for (var query : List.of(all, grouped, filtered)) {
+                assertEquals(Set.copyOf(unshardedStatistics.count(query)), Set.copyOf(catalog.count(query).getCounts()));
+            }
+            assertEquals(RECORDS, catalog.count(all).getCounts().get(0).getCount());
+        }
+    }
+
+    @Test
+    void factsWithoutPartitionAreOnlyKeptByTheOwner() {
+        // arrange
+        var spec = FactSpec.ns("recordstore").type("RecordAdded");
+        var legacy = FactSpec.ns("recordstore").type("RecordAdded").filterScript(ShardAssignment.UNPARTITIONED);
+        var owner = new ShardAssignment(NODES, NODES.get(0));
+        var strict = new ShardAssignment(NODES, NODES.get(0), false);
+
+        // act
+        var subscribed = owner.restrict(List.of(spec));
+        var withoutLegacy = strict.restrict(List.of(spec));
+
+        // assert
+        assertEquals(Long.bitCount(owner.ownedPartitions()) + 1, subscribed.size());
+        assertTrue(subscribed.contains(legacy));
+        assertFalse(withoutLegacy.contains(legacy));
+        var legacyRecords = ids(unsharded.find(FindRecords.builder().limit(1000).build()).getRecords()).subList(RECORDS - 2, RECORDS);
+        for (var recordId : legacyRecords) {
+            var holders = projections.values().stream().filter(projection -> projection.get(recordId).isPresent()).count();
+            assertEquals(1, holders, recordId + " is held by " + holders + " nodes");
+        }
+    }
+
+    @Test
+    void anAdditionalNodeOnlyTakesOverPartitions() {
+        var before = NODES.stream().map(node -> new ShardAssignment(NODES, node)).collect(Collectors.toList());
+        var grown = new ArrayList<>(NODES);
+        grown.add("http://node-d:8080");
+        var after = new ShardAssignment(grown, "http://node-d:8080");
+
+        for (int partition = 0; partition < RecordPartition.COUNT; partition++) {
+            var p = partition;
+            assertEquals(1, before.stream().filter(it -> it.owns(p)).count());
+            var owner = before.get(0).ownerOf(partition);
+            assertTrue(after.ownerOf(partition).equals(owner) || after.owns(partition));
+        }
+        assertTrue(Long.bitCount(after.ownedPartitions()) > 0);
+    }
+
+    private void catchUp(SubscribedProjection... projections) throws Exception {
+        for (var projection : projections) {
+            factus.subscribeAndBlock(projection).awaitCatchup(TimeUnit.MINUTES.toMillis(1));
+        }
+    }
+
+    private static List<UUID> ids(List<CatalogRecord> records) {
+        return records.stream().map(CatalogRecord::getRecordId).collect(Collectors.toList());
+    }
+
+    // as published before RecordAdded had partition meta data
+    private static Fact unpartitioned(RecordAdded event) {
+        var fact = CONVERTER.toFact(event);
+        return Fact.builder()
+                .id(fact.id())
+                .ns(fact.ns())
+                .type(fact.type())
+                .aggId(event.getRecordId())
+                .build(fact.jsonPayload());
+    }
+
+    private static RecordAdded record(String artist) {
+        return RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist(artist)
+                .title("Monkeys out and about")
+                .label("Ape Records")
+                .format("12")
+                .releaseDate(LocalDate.of(2020, 10, 24))
+                .addedToStore(ZonedDateTime.now())
+                .build();
+    }
+}
@@ -0,0 +1,119 @@
+package org.samba.recordstore.stats;
+
+import org.factcast.core.Fact;
+import org.junit.jupiter.api.Test;
+import org.samba.recordstore.events.RecordAdded;
+
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RecordStatisticsProjectionTest {
+
+    RecordStatisticsProjection uut = new RecordStatisticsProjection();
+
+    @Test
+    public void countsPerLabelAndMonthForOneFormat() {
+        // arrange
+        uut.apply(recordAdded("Ape Records", "12 inch", 2020, YearMonth.of(2021, 1)), fact(1));
+        uut.apply(recordAdded("Ape Records", "12 inch", 2019, YearMonth.of(2021, 1)), fact(2));
+        uut.apply(recordAdded("Ape Records", "7 inch", 2020, YearMonth.of(2021, 1)), fact(3));
+        uut.apply(recordAdded("Ape Records", "12 inch", 2020, YearMonth.of(2021, 2)), fact(4));
+        uut.apply(recordAdded("Gorilla Grooves", "12 inch", 2020, YearMonth.of(2021, 1)), fact(5));
+
+        // act
+        var counts = uut.count(CountRecords.builder()
+                .groupBy(StatisticsDimension.LABEL)
+                .groupBy(StatisticsDimension.ADDED_MONTH)
+                .format("12 INCH")
+                .build());
+
+        // assert
+        assertEquals(3, counts.size());
+        var first = counts.get(0);
+        assertEquals("ape records", first.getLabel());
+        assertEquals(YearMonth.of(2021, 1), first.getAddedMonth());
+        assertEquals(2, first.getCount());
+        assertNull(first.getFormat());
+        assertNull(first.getReleaseYear());
+        assertEquals(5, uut.position().getSerial());
+    }
+
+    @Test
+    public void labelsWhichOnlyDifferInCaseAreOneGroup() {
+        // arrange
+        uut.apply(recordAdded("Ape Records", "12 inch", 2020, YearMonth.of(2021, 1)), fact(1));
+        uut.apply(recordAdded("ape records ", "12 Inch", 2020, YearMonth.of(2021, 1)), fact(2));
+        uut.apply(recordAdded("APE RECORDS", "7 inch", 2020, YearMonth.of(2021, 1)), fact(3));
+
+        // act
+        var perLabel = uut.count(CountRecords.builder().groupBy(StatisticsDimension.LABEL).build());
+        var perFormat = uut.count(CountRecords.builder().label("Ape records").groupBy(StatisticsDimension.FORMAT).build());
+
+        // assert
+        assertEquals(1, perLabel.size());
+        assertEquals("ape records", perLabel.get(0).getLabel());
+        assertEquals(3, perLabel.get(0).getCount());
+        assertEquals(2, perFormat.size());
+        assertEquals("12 inch", perFormat.get(0).getFormat());
+        assertEquals(2, perFormat.get(0).getCount());
+    }
+
+    @Test
+    public void valuesBeyondAFullDictionaryAreCountedAsOther() {
+        // arrange: a label which got no code
+        var label = StatisticsKey.PRESENT | StatisticsDimension.LABEL.put(1);
+
+        // act
+        var decoded = StatisticsKey.label(label);
+
+        // assert
+        assertEquals(StatisticsKey.OTHER, decoded);
+        assertNull(StatisticsKey.format(label));
+        assertNotEquals(StatisticsKey.OTHER, StatisticsKey.normalize(StatisticsKey.OTHER));
+    }
+
+    @Test
+    public void withoutGroupingThereIsOneTotal() {
+        // arrange
+        for (int i = 1; i <= 3000; i++) {
+            uut.apply(recordAdded("Label " + (i % 700), "12 inch", 1950 + i % 70, YearMonth.of(2020, 1 + i % 12)), fact(i));
+        }
+
+        // act
+        var all = uut.count(CountRecords.builder().build());
+        var from1960 = uut.count(CountRecords.builder().releaseYear(1960).build());
+        var perYear = uut.count(CountRecords.builder().groupBy(StatisticsDimension.RELEASE_YEAR).build());
+
+        // assert
+        assertEquals(1, all.size());
+        assertEquals(3000, all.get(0).getCount());
+        assertTrue(from1960.get(0).getCount() > 0);
+        assertEquals(70, perYear.size());
+        assertEquals(3000, perYear.stream().mapToLong(RecordCount::getCount).sum());
+    }
+
+    private static RecordAdded recordAdded(String label, String format, int releaseYear, YearMonth added) {
+        return RecordAdded.builder()
+                .recordId(UUID.randomUUID())
+                .artist("The Dancing Monkeys")
+                .title("Dancing Time")
+                .label(label)
+                .format(format)
+                .releaseDate(LocalDate.of(releaseYear, 5, 20))
+                .addedToStore(ZonedDateTime.of(added.getYear(), added.getMonthValue(), 3, 12, 0, 0, 0, ZoneId.of("Europe/Berlin")))
+                .build();
+    }
+
+    private static Fact fact(long serial) {
+        return Fact.builder()
+                .ns("recordstore")
+                .type("RecordAdded")
+                .meta("_ser", Long.toString(serial))
+                .build("{}");
+    }
+}